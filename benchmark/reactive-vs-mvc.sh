@@ -0,0 +1,47 @@
+#!/usr/bin/env bash
+# Compares the blocking (MVC) and the reactive (WebFlux + R2DBC) read API under increasing concurrency.
+# For each concurrency level prints throughput and latency reported by hey, and the peak resident memory
+# and thread count of the server process sampled during the run.
+#
+# Usage: benchmark/reactive-vs-mvc.sh <mvc pid> <reactive pid> [duration] [path]
+# Start both applications first (./gradlew bootRun and ./gradlew :reactive:bootRun) against a populated database.
+# Requires hey (https://github.com/rakyll/hey).
+set -euo pipefail
+
+MVC_PID=$1
+REACTIVE_PID=$2
+DURATION=${3:-30s}
+REQUEST_PATH=${4:-/api/task/state/TODO}
+CONCURRENCY_LEVELS=(16 64 256 1024)
+
+# Samples the process every 200 ms while the load runs, prints "<peak rss kB> <peak threads>".
+sample() {
+    local pid=$1 peak_rss=0 peak_threads=0 rss threads
+    while kill -0 "$LOAD_PID" 2>/dev/null; do
+        rss=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+        threads=$(awk '/Threads/ {print $2}' "/proc/$pid/status")
+        (( rss > peak_rss )) && peak_rss=$rss
+        (( threads > peak_threads )) && peak_threads=$threads
+        sleep 0.2
+    done
+    echo "$peak_rss $peak_threads"
+}
+
+run() {
+    local name=$1 pid=$2 port=$3 concurrency=$4 report peak
+    report=$(mktemp)
+    hey -z "$DURATION" -c "$concurrency" "http://localhost:$port$REQUEST_PATH" >"$report" &
+    LOAD_PID=$!
+    peak=$(sample "$pid")
+    wait "$LOAD_PID"
+    printf '%-9s c=%-5d %s   p99 %s   peak rss %s kB   peak threads %s\n' "$name" "$concurrency" \
+        "$(awk '/Requests\/sec/ {print $2 " req/s"}' "$report")" \
+        "$(awk '/99% in/ {print $3 " s"}' "$report")" \
+        "${peak% *}" "${peak#* }"
+    rm -f "$report"
+}
+
+for concurrency in "${CONCURRENCY_LEVELS[@]}"; do
+    run mvc "$MVC_PID" 8080 "$concurrency"
+    run reactive "$REACTIVE_PID" 8081 "$concurrency"
+done
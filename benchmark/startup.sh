@@ -0,0 +1,67 @@
+#!/usr/bin/env bash
+# Measures time to first successful request and resident memory after it for the JVM, CDS and native builds.
+#
+# Usage: benchmark/startup.sh [runs]
+# Requires the database from docker-compose.yml and the artifacts built by:
+#   ./gradlew bootJar cdsArchive
+#   ./gradlew -Pnative nativeCompile
+set -euo pipefail
+
+RUNS=${1:-5}
+URL=http://localhost:8080/api/user
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JAR=$(ls "$ROOT"/build/libs/task-manager-*-plain.jar)
+CLASSPATH="$JAR:$(cd "$ROOT" && bash gradlew -q printRuntimeClasspath)"
+BOOT_JAR=$(ls "$ROOT"/build/libs/task-manager-*.jar | grep -v plain)
+CDS_ARCHIVE=$ROOT/build/cds/task-manager.jsa
+NATIVE=$ROOT/build/native/nativeCompile/task-manager
+
+now_ms() {
+    date +%s%3N
+}
+
+# Starts the command, waits for the first successful request and prints "<milliseconds> <rss kB>".
+measure() {
+    local start pid elapsed rss
+    start=$(now_ms)
+    "$@" >/dev/null 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "$URL"; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "process exited before serving a request" >&2
+            return 1
+        fi
+        sleep 0.01
+    done
+    elapsed=$(( $(now_ms) - start ))
+    rss=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "$elapsed $rss"
+}
+
+# Runs a mode RUNS times and prints the median time and the median RSS.
+run_mode() {
+    local name=$1
+    shift
+    local times=() rss=() result
+    for _ in $(seq "$RUNS"); do
+        result=$(measure "$@")
+        times+=("${result% *}")
+        rss+=("${result#* }")
+    done
+    printf '%-8s time-to-first-request %6d ms   rss %8d kB\n' "$name" \
+        "$(median "${times[@]}")" "$(median "${rss[@]}")"
+}
+
+median() {
+    printf '%s\n' "$@" | sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'
+}
+
+run_mode jvm java -jar "$BOOT_JAR"
+if [[ -f "$CDS_ARCHIVE" ]]; then
+    run_mode cds java -XX:SharedArchiveFile="$CDS_ARCHIVE" -cp "$CLASSPATH" com.example.taskmanager.TaskManagerApplication
+fi
+if [[ -x "$NATIVE" ]]; then
+    run_mode native "$NATIVE"
+fi
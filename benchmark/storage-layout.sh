@@ -0,0 +1,88 @@
+#!/usr/bin/env bash
+# Compares the task row layout before and after V5__compact_task_storage.sql: state stored as its name after
+# the description, and state stored as a SMALLINT code after the fixed-width columns.
+# Fills both layouts with the same generated rows in a scratch schema, then prints table and index sizes
+# and the median execution time of a sequential scan and of an index-only count.
+#
+# Usage: benchmark/storage-layout.sh [rows] [runs]
+# Requires psql and the database from docker-compose.yml, connection settings can be overridden with the
+# usual PG* environment variables. The scratch schema is dropped at the end.
+set -euo pipefail
+
+ROWS=${1:-10000000}
+RUNS=${2:-5}
+export PGHOST=${PGHOST:-localhost} PGPORT=${PGPORT:-5332} PGDATABASE=${PGDATABASE:-task-manager}
+export PGUSER=${PGUSER:-keta} PGPASSWORD=${PGPASSWORD:-password}
+SCHEMA=storage_layout_benchmark
+
+sql() {
+    psql -X -q -v ON_ERROR_STOP=1 -At -c "SET search_path = $SCHEMA; $1"
+}
+
+# Prints the median execution time in ms of the statement reported by EXPLAIN ANALYZE.
+execution_time() {
+    local times=()
+    for _ in $(seq "$RUNS"); do
+        times+=("$(sql "EXPLAIN (ANALYZE, FORMAT JSON) $1" | grep -o '"Execution Time": [0-9.]*' | awk '{print $3}')")
+    done
+    printf '%s\n' "${times[@]}" | sort -n | awk '{a[NR]=$1} END {print a[int((NR+1)/2)]}'
+}
+
+report() {
+    local table=$1
+    printf '%-8s table %10s   indexes %10s   seq scan %8s ms   index-only count %8s ms\n' "$table" \
+        "$(sql "SELECT pg_size_pretty(pg_table_size('$table'))")" \
+        "$(sql "SELECT pg_size_pretty(pg_indexes_size('$table'))")" \
+        "$(execution_time "SELECT sum(user_id) FROM $table")" \
+        "$(execution_time "SELECT count(*) FROM $table WHERE due_date BETWEEN '2024-01-01' AND '2024-12-31' AND state = $2")"
+}
+
+trap 'psql -X -q -c "DROP SCHEMA IF EXISTS $SCHEMA CASCADE" >/dev/null' EXIT
+
+psql -X -q -v ON_ERROR_STOP=1 <<SQL
+DROP SCHEMA IF EXISTS $SCHEMA CASCADE;
+CREATE SCHEMA $SCHEMA;
+SET search_path = $SCHEMA;
+
+CREATE TABLE before (
+    id INTEGER NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    due_date DATE,
+    user_id INTEGER,
+    state VARCHAR(255)
+);
+CREATE TABLE after (
+    id INTEGER NOT NULL,
+    user_id INTEGER,
+    due_date DATE,
+    state SMALLINT,
+    description VARCHAR(255) NOT NULL
+);
+
+INSERT INTO before (id, description, due_date, user_id, state)
+SELECT i,
+       'Task ' || i,
+       DATE '2023-01-01' + (i % 1095),
+       1 + i % 1000,
+       (ARRAY ['TODO', 'IN_PROGRESS', 'COMPLETED', 'DELAYED'])[1 + i % 4]
+FROM generate_series(1, $ROWS) i;
+
+INSERT INTO after (id, user_id, due_date, state, description)
+SELECT id, user_id, due_date,
+       CASE state WHEN 'TODO' THEN 1 WHEN 'IN_PROGRESS' THEN 2 WHEN 'COMPLETED' THEN 3 WHEN 'DELAYED' THEN 4 END,
+       description
+FROM before;
+
+CREATE INDEX ON before (id);
+CREATE INDEX ON before (user_id);
+CREATE INDEX ON before (due_date, state);
+CREATE INDEX ON after (id);
+CREATE INDEX ON after (user_id);
+CREATE INDEX ON after (due_date, state);
+VACUUM ANALYZE before;
+VACUUM ANALYZE after;
+SQL
+
+echo "$ROWS rows, median of $RUNS runs"
+report before "'COMPLETED'"
+report after 3
@@ -0,0 +1,61 @@
+package com.example.taskmanager.reactive;
+
+import com.example.taskmanager.data.TaskState;
+import com.example.taskmanager.dto.TaskResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Reactive controller serving the task read endpoints of the blocking application.
+ * Lists are written as a JSON array, or streamed with backpressure when application/x-ndjson is requested.
+ */
+@RestController
+@RequestMapping("/api/task")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveTaskController {
+
+    private final ReactiveTaskRepository taskRepository;
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<TaskResponse> getAllTasks() {
+        log.info("Endpoint /api/task called: getAllTasks");
+        return taskRepository.findAll();
+    }
+
+    @GetMapping("/{taskId}")
+    public Mono<ResponseEntity<TaskResponse>> getTask(@PathVariable Integer taskId) {
+        log.info("Endpoint /api/task called: getTask");
+        return taskRepository.findById(taskId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/user/{userId}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<TaskResponse> getTasksForUser(@PathVariable Integer userId) {
+        log.info("Endpoint /api/task/user called: getTasksForUser");
+        return taskRepository.findByAssignedUserId(userId);
+    }
+
+    @GetMapping(value = "/state/{state}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<TaskResponse> getTasksByState(@PathVariable TaskState state) {
+        log.info("Endpoint /api/task/state called: getTasksByState");
+        return taskRepository.findByState(state);
+    }
+
+    @GetMapping(value = "/date/{dueDate}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<TaskResponse> getTasksByDueDate(@PathVariable LocalDate dueDate) {
+        log.info("Endpoint /api/task/date called: getTasksByDueDate");
+        return taskRepository.findByDueDate(dueDate);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.taskmanager.reactive;
+
+import com.example.taskmanager.data.AppUser;
+import com.example.taskmanager.data.TaskState;
+import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.dto.UserResponse;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only access to tasks and users over R2DBC.
+ * Tasks are read together with their assigned user in one query, rows are fetched from the database
+ * in batches of the configured fetch size as the subscriber requests them.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReactiveTaskRepository {
+
+    private static final String SELECT_TASKS = """
+            SELECT t.id, t.description, t.due_date, t.state, u.id AS user_id, u.username
+            FROM task t
+                     LEFT JOIN app_user u ON u.id = t.user_id""";
+
+    private final DatabaseClient databaseClient;
+
+    @Value("${reactive-api.fetch-size:500}")
+    private int fetchSize;
+
+    public Flux<TaskResponse> findAll() {
+        return tasks(databaseClient.sql(SELECT_TASKS + " ORDER BY t.id"));
+    }
+
+    public Mono<TaskResponse> findById(Integer taskId) {
+        return tasks(databaseClient.sql(SELECT_TASKS + " WHERE t.id = :id").bind("id", taskId)).next();
+    }
+
+    public Flux<TaskResponse> findByAssignedUserId(Integer userId) {
+        return tasks(databaseClient.sql(SELECT_TASKS + " WHERE t.user_id = :userId ORDER BY t.id").bind("userId", userId));
+    }
+
+    public Flux<TaskResponse> findByState(TaskState state) {
+        return tasks(databaseClient.sql(SELECT_TASKS + " WHERE t.state = :state ORDER BY t.id").bind("state", state.getCode()));
+    }
+
+    public Flux<TaskResponse> findByDueDate(LocalDate dueDate) {
+        return tasks(databaseClient.sql(SELECT_TASKS + " WHERE t.due_date = :dueDate ORDER BY t.id").bind("dueDate", dueDate));
+    }
+
+    public Flux<UserResponse> findAllUsers() {
+        return databaseClient.sql("SELECT id, username FROM app_user ORDER BY id")
+                .filter((statement, next) -> next.execute(statement.fetchSize(fetchSize)))
+                .map(ReactiveTaskRepository::mapUser)
+                .all();
+    }
+
+    public Mono<UserResponse> findUserById(Integer userId) {
+        return databaseClient.sql("SELECT id, username FROM app_user WHERE id = :id")
+                .bind("id", userId)
+                .map(ReactiveTaskRepository::mapUser)
+                .one();
+    }
+
+    private Flux<TaskResponse> tasks(DatabaseClient.GenericExecuteSpec spec) {
+        return spec.filter((statement, next) -> next.execute(statement.fetchSize(fetchSize)))
+                .map(ReactiveTaskRepository::mapTask)
+                .all();
+    }
+
+    private static TaskResponse mapTask(Readable row) {
+        AppUser user = null;
+        Integer userId = row.get("user_id", Integer.class);
+        if (userId != null) {
+            user = new AppUser();
+            user.setId(userId);
+            user.setUsername(row.get("username", String.class));
+        }
+        Short state = row.get("state", Short.class);
+        return new TaskResponse(row.get("id", Integer.class), row.get("description", String.class),
+                row.get("due_date", LocalDate.class), user, state != null ? TaskState.fromCode(state) : null);
+    }
+
+    private static UserResponse mapUser(Readable row) {
+        return new UserResponse(row.get("id", Integer.class), row.get("username", String.class));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.taskmanager.reactive;
+
+import com.example.taskmanager.dto.UserResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive controller serving the user read endpoints of the blocking application.
+ */
+@RestController
+@RequestMapping("/api/user")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveUserController {
+
+    private final ReactiveTaskRepository taskRepository;
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<UserResponse> getAllUsers() {
+        log.info("Endpoint /api/user called: getAllUsers");
+        return taskRepository.findAllUsers();
+    }
+
+    @GetMapping("/{userId}")
+    public Mono<ResponseEntity<UserResponse>> getUser(@PathVariable Integer userId) {
+        log.info("Endpoint /api/user called: getUser");
+        return taskRepository.findUserById(userId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.taskmanager;
+
+import com.example.taskmanager.data.AppUser;
+import com.example.taskmanager.data.TaskState;
+import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.web.ResponseJsonWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a task list response by the Jackson ObjectMapper configured like Spring Boot does
+ * and by {@link ResponseJsonWriter}. Run with ./gradlew jmh.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ResponseJsonWriterBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int tasks;
+
+    private List<TaskResponse> response;
+    private ObjectMapper objectMapper;
+    private ByteArrayOutputStream out;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        response = new ArrayList<>(tasks);
+        TaskState[] states = TaskState.values();
+        for (int i = 0; i < tasks; i++) {
+            AppUser user = new AppUser();
+            user.setId(i % 50 + 1);
+            user.setUsername("user" + (i % 50 + 1));
+            response.add(new TaskResponse(i + 1, "Task number " + i + " with a \"quoted\" word",
+                    LocalDate.of(2024, 1, 1).plusDays(i % 365), i % 7 == 0 ? null : user, states[i % states.length]));
+        }
+        out = new ByteArrayOutputStream(tasks * 160);
+    }
+
+    @Benchmark
+    public int objectMapper() throws IOException {
+        out.reset();
+        objectMapper.writeValue(out, response);
+        return out.size();
+    }
+
+    @Benchmark
+    public int responseJsonWriter() throws IOException {
+        out.reset();
+        ResponseJsonWriter writer = new ResponseJsonWriter(out);
+        writer.write(response);
+        writer.flush();
+        return out.size();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.taskmanager.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "admission-control")
+@Getter
+@Setter
+public class AdmissionControlProperties {
+    private boolean enabled = true;
+    private Duration retryAfter = Duration.ofSeconds(1);
+    private Budget pointRead = new Budget(50, 5, 400, Duration.ofMillis(100), 0.9);
+    private Budget list = new Budget(10, 2, 100, Duration.ofMillis(500), 0.9);
+    private Budget write = new Budget(20, 2, 200, Duration.ofMillis(250), 0.9);
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Budget {
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+        private Duration latencyThreshold;
+        private double backoffRatio;
+    }
+}
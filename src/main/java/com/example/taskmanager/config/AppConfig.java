@@ -1,37 +1,97 @@
 package com.example.taskmanager.config;
 
+import com.example.taskmanager.data.ShardRouter;
 import com.example.taskmanager.data.TaskMapper;
 import com.example.taskmanager.data.TaskRepository;
 import com.example.taskmanager.data.UserMapper;
 import com.example.taskmanager.data.UserRepository;
+import com.example.taskmanager.service.OverdueTaskJob;
+import com.example.taskmanager.service.ShardedTaskService;
+import com.example.taskmanager.service.ShardedUserService;
+import com.example.taskmanager.service.TaskAssigner;
+import com.example.taskmanager.service.TaskBitmapIndex;
+import com.example.taskmanager.service.TaskDigestService;
+import com.example.taskmanager.service.TaskImportService;
+import com.example.taskmanager.service.TaskPartitionService;
+import com.example.taskmanager.service.TaskSearchService;
 import com.example.taskmanager.service.TaskService;
 import com.example.taskmanager.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableMBeanExport;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Configuration
 @EnableScheduling
 @EnableMBeanExport
+@EnableConfigurationProperties({TaskSchedulerProperties.class, TaskImportProperties.class})
+@ImportRuntimeHints(TaskManagerRuntimeHints.class)
 @Slf4j
 public class AppConfig {
 
     @Bean
-    public TaskService taskService(TaskRepository taskRepository) {
+    @ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public ShardRouter shardRouter() {
+        log.info("Creating single shard ShardRouter bean");
+        return new ShardRouter(1, null);
+    }
+
+    @Bean
+    public TaskService taskService(TaskRepository taskRepository, ShardRouter shardRouter) {
+        if (shardRouter.isSharded()) {
+            log.info("Creating ShardedTaskService bean");
+            return new ShardedTaskService(taskRepository, shardRouter);
+        }
         log.info("Creating TaskService bean");
         return new TaskService(taskRepository);
     }
 
     @Bean
-    public UserService userService(UserRepository userRepository) {
+    public UserService userService(UserRepository userRepository, ShardRouter shardRouter) {
+        if (shardRouter.isSharded()) {
+            log.info("Creating ShardedUserService bean");
+            return new ShardedUserService(userRepository, shardRouter);
+        }
         log.info("Creating UserService bean");
         return new UserService(userRepository);
     }
 
+    @Bean(initMethod = "rebuild")
+    public TaskAssigner taskAssigner(TaskService taskService, UserService userService) {
+        log.info("Creating TaskAssigner bean");
+        TaskAssigner assigner = new TaskAssigner(userService);
+        taskService.addChangeListener(assigner);
+        userService.addChangeListener(assigner);
+        return assigner;
+    }
+
+    @Bean
+    public TaskImportService taskImportService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                               Validator validator, TaskService taskService,
+                                               TaskImportProperties importProperties) {
+        log.info("Creating TaskImportService bean");
+        return new TaskImportService(jdbcTemplate, transactionTemplate, validator, taskService,
+                importProperties.getMaxReportedRejections());
+    }
+
+    @Bean
+    public TaskSearchService taskSearchService(TaskRepository taskRepository, ShardRouter shardRouter,
+                                               ObjectProvider<TaskBitmapIndex> taskBitmapIndex) {
+        log.info("Creating TaskSearchService bean");
+        return new TaskSearchService(taskRepository, shardRouter, taskBitmapIndex.getIfAvailable());
+    }
+
     @Bean
     public TaskMapper taskMapper(){
         log.info("Creating TaskMapper bean");
@@ -45,9 +105,37 @@ public class AppConfig {
     }
 
     @Bean
-    @ConfigurationProperties(prefix = "task-scheduler")
-    public TaskSchedulerConfig taskSchedulerConfig(TaskService taskService) {
+    public TaskPartitionService taskPartitionService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                                     TaskService taskService, ShardRouter shardRouter,
+                                                     TaskSchedulerProperties schedulerProperties) {
+        log.info("Creating TaskPartitionService bean");
+        return new TaskPartitionService(jdbcTemplate, transactionTemplate, taskService, shardRouter,
+                schedulerProperties.getPartitionMonthsAhead(), schedulerProperties.getArchiveAfterMonths());
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public OverdueTaskJob overdueTaskJob(TaskService taskService, TaskScheduler taskScheduler,
+                                         TaskSchedulerProperties schedulerProperties) {
+        log.info("Creating OverdueTaskJob bean");
+        return new OverdueTaskJob(taskService, taskScheduler, schedulerProperties.getCronExpression(),
+                schedulerProperties.getOverdueBatchSize());
+    }
+
+    @Bean
+    public TaskDigestService taskDigestService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                               ShardRouter shardRouter, ObjectMapper objectMapper,
+                                               TaskSchedulerProperties schedulerProperties) {
+        log.info("Creating TaskDigestService bean");
+        return new TaskDigestService(jdbcTemplate, transactionTemplate, shardRouter, objectMapper.getFactory(),
+                schedulerProperties.getDigestDaysAhead(), schedulerProperties.getDigestBatchSize(),
+                schedulerProperties.getDigestFetchSize(), schedulerProperties.getDigestRetentionDays());
+    }
+
+    @Bean
+    public TaskSchedulerConfig taskSchedulerConfig(TaskPartitionService taskPartitionService,
+                                                   TaskDigestService taskDigestService,
+                                                   TaskSchedulerProperties schedulerProperties) {
         log.info("Creating TaskSchedulerConfig bean");
-        return new TaskSchedulerConfig(taskService);
+        return new TaskSchedulerConfig(taskPartitionService, taskDigestService, schedulerProperties);
     }
 }
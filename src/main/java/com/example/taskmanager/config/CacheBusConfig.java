@@ -0,0 +1,35 @@
+package com.example.taskmanager.config;
+
+import com.example.taskmanager.service.CacheInvalidationBus;
+import com.example.taskmanager.service.TaskService;
+import com.example.taskmanager.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Enables the {@link CacheInvalidationBus} for running several instances with local caches against one database.
+ * With sharding, notices travel through the database of spring.datasource, which is the first shard.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "cache-bus", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(CacheBusProperties.class)
+@Slf4j
+public class CacheBusConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public CacheInvalidationBus cacheInvalidationBus(JdbcTemplate jdbcTemplate, TaskService taskService, UserService userService,
+                                                     EntityManagerFactory entityManagerFactory, CacheBusProperties properties) {
+        log.info("Creating CacheInvalidationBus bean");
+        CacheInvalidationBus bus = new CacheInvalidationBus(jdbcTemplate, taskService, userService, entityManagerFactory,
+                properties.getUrl(), properties.getUsername(), properties.getPassword(),
+                properties.getBatchWindow().toMillis(), properties.getReconnectDelay().toMillis());
+        taskService.addChangeListener(bus);
+        userService.addChangeListener(bus);
+        return bus;
+    }
+}
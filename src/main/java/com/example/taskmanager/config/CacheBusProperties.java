@@ -0,0 +1,19 @@
+package com.example.taskmanager.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "cache-bus")
+@Getter
+@Setter
+public class CacheBusProperties {
+    private boolean enabled = false;
+    private String url;
+    private String username;
+    private String password;
+    private Duration batchWindow = Duration.ofMillis(20);
+    private Duration reconnectDelay = Duration.ofSeconds(5);
+}
@@ -0,0 +1,73 @@
+package com.example.taskmanager.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.example.taskmanager.service.TaskService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.OptionalLong;
+
+/**
+ * Enables the Hibernate second-level and query cache backed by Caffeine through JCache.
+ * Regions are created from the {@link TaskCacheProperties} instance, so their size and expiration
+ * are configured in application.yml. Tasks changed in bulk directly in the database are evicted
+ * together with all cached query results.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "task-cache", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(TaskCacheProperties.class)
+@Slf4j
+public class HibernateCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(TaskCacheProperties cacheProperties) {
+        log.info("Creating Hibernate JCache manager");
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        cacheProperties.getRegions().forEach((name, region) -> {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(region.getMaximumSize()));
+            configuration.setExpireAfterWrite(OptionalLong.of(region.getExpireAfterWrite().toNanos()));
+            configuration.setStatisticsEnabled(true);
+            cacheManager.createCache(name, configuration);
+            log.info("Created cache region {} with maximum size {} and expiration {}",
+                    name, region.getMaximumSize(), region.getExpireAfterWrite());
+        });
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "create-warn");
+        };
+    }
+
+    @Bean
+    public HibernateCacheStatistics hibernateCacheStatistics(EntityManagerFactory entityManagerFactory) {
+        log.info("Creating HibernateCacheStatistics bean");
+        return new HibernateCacheStatistics(entityManagerFactory);
+    }
+
+    @Bean
+    public HibernateCacheEvictor hibernateCacheEvictor(EntityManagerFactory entityManagerFactory, TaskService taskService) {
+        log.info("Creating HibernateCacheEvictor bean");
+        HibernateCacheEvictor evictor = new HibernateCacheEvictor(entityManagerFactory);
+        taskService.addChangeListener(evictor);
+        return evictor;
+    }
+}
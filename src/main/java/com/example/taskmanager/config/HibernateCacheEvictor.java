@@ -0,0 +1,29 @@
+package com.example.taskmanager.config;
+
+import com.example.taskmanager.data.Task;
+import com.example.taskmanager.service.ChangeType;
+import com.example.taskmanager.service.TaskChange;
+import com.example.taskmanager.service.TaskChangeListener;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+
+/**
+ * Evicts the cached tasks and query results when tasks are changed in bulk directly in the database.
+ * Changes made through the repositories keep the second-level cache consistent by themselves.
+ */
+@RequiredArgsConstructor
+public class HibernateCacheEvictor implements TaskChangeListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void onTaskChange(TaskChange change) {
+        if (change.type() == ChangeType.BULK) {
+            Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+            cache.evictEntityData(Task.class);
+            cache.evictQueryRegions();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.taskmanager.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+/**
+ * Exposes hit and miss statistics of the Hibernate second-level and query cache via JMX.
+ */
+@ManagedResource(objectName = "com.example.taskmanager:type=HibernateCache")
+@RequiredArgsConstructor
+public class HibernateCacheStatistics {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private static double hitRatio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    @ManagedAttribute(description = "Second-level cache hits")
+    public long getSecondLevelCacheHitCount() {
+        return statistics().getSecondLevelCacheHitCount();
+    }
+
+    @ManagedAttribute(description = "Second-level cache misses")
+    public long getSecondLevelCacheMissCount() {
+        return statistics().getSecondLevelCacheMissCount();
+    }
+
+    @ManagedAttribute(description = "Ratio of second-level cache hits to all lookups")
+    public double getSecondLevelCacheHitRatio() {
+        return hitRatio(getSecondLevelCacheHitCount(), getSecondLevelCacheMissCount());
+    }
+
+    @ManagedAttribute(description = "Query cache hits")
+    public long getQueryCacheHitCount() {
+        return statistics().getQueryCacheHitCount();
+    }
+
+    @ManagedAttribute(description = "Query cache misses")
+    public long getQueryCacheMissCount() {
+        return statistics().getQueryCacheMissCount();
+    }
+
+    @ManagedAttribute(description = "Ratio of query cache hits to all lookups")
+    public double getQueryCacheHitRatio() {
+        return hitRatio(getQueryCacheHitCount(), getQueryCacheMissCount());
+    }
+
+    @ManagedOperation(description = "Ratio of hits to all lookups in the given cache region")
+    public double getRegionHitRatio(String region) {
+        CacheRegionStatistics regionStatistics = statistics().getCacheRegionStatistics(region);
+        if (regionStatistics == null) {
+            return 0.0;
+        }
+        return hitRatio(regionStatistics.getHitCount(), regionStatistics.getMissCount());
+    }
+
+    @ManagedOperation(description = "Resets all Hibernate statistics")
+    public void clear() {
+        statistics().clear();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.taskmanager.config;
+
+import com.example.taskmanager.data.ShardRouter;
+import com.example.taskmanager.data.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Spreads users and their tasks over the databases listed in {@link ShardingProperties}.
+ * Each shard is migrated with Flyway, the shard index and count placeholders interleave the sequences
+ * so that every identifier determines its shard. The number of shards must not change once data is stored.
+ * The Hibernate query cache keys results by query and parameters only, the same query on another shard would get
+ * the ids cached for the first one, so the second-level cache must stay disabled.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+@Slf4j
+public class ShardingConfig {
+
+    private static final String MIGRATION_LOCATION = "classpath:db/migration";
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardingProperties properties, Environment environment) {
+        if (environment.getProperty("task-cache.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("Sharding cannot be combined with task-cache.enabled, "
+                    + "cached query results do not tell the shards apart");
+        }
+        List<ShardingProperties.Shard> shards = properties.getShards();
+        if (shards.isEmpty()) {
+            throw new IllegalStateException("Sharding is enabled but no shards are configured");
+        }
+        Map<Object, Object> dataSources = new HashMap<>();
+        for (int index = 0; index < shards.size(); index++) {
+            ShardingProperties.Shard shard = shards.get(index);
+            DataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .build();
+            migrate(dataSource, index, shards.size());
+            dataSources.put(index, dataSource);
+            log.info("Configured shard {} at {}", index, shard.getUrl());
+        }
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource();
+        routingDataSource.setTargetDataSources(dataSources);
+        routingDataSource.setDefaultTargetDataSource(dataSources.get(0));
+        routingDataSource.afterPropertiesSet();
+        return routingDataSource;
+    }
+
+    private static void migrate(DataSource dataSource, int shardIndex, int shardCount) {
+        log.info("Migrating shard {}", shardIndex);
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations(MIGRATION_LOCATION)
+                .baselineOnMigrate(true)
+                .placeholders(Map.of(
+                        "shard_index", Integer.toString(shardIndex),
+                        "shard_count", Integer.toString(shardCount)))
+                .load()
+                .migrate();
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService shardFanOutExecutor(ShardingProperties properties) {
+        return Executors.newFixedThreadPool(properties.getFanOutThreads());
+    }
+
+    @Bean
+    public ShardRouter shardRouter(ShardingProperties properties, ExecutorService shardFanOutExecutor) {
+        log.info("Creating ShardRouter bean for {} shards", properties.getShards().size());
+        return new ShardRouter(properties.getShards().size(), shardFanOutExecutor);
+    }
+}
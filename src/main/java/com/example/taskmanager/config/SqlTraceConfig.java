@@ -0,0 +1,50 @@
+package com.example.taskmanager.config;
+
+import com.example.taskmanager.data.SqlTraceListener;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the data source with datasource-proxy so that every statement is recorded by the {@link SqlTraceListener}.
+ * The beans are static because the post-processor must exist before the data source is created,
+ * the properties are therefore bound from the environment directly.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "sql-trace", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class SqlTraceConfig {
+
+    @Bean
+    public static SqlTraceListener sqlTraceListener(Environment environment) {
+        log.info("Creating SqlTraceListener bean");
+        SqlTraceProperties properties = Binder.get(environment).bindOrCreate("sql-trace", SqlTraceProperties.class);
+        return new SqlTraceListener(properties.getSlowQueryThreshold().toMillis());
+    }
+
+    @Bean
+    public static BeanPostProcessor sqlTraceDataSourcePostProcessor(ObjectProvider<SqlTraceListener> sqlTraceListener) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    log.info("Tracing SQL statements of data source {}", beanName);
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(sqlTraceListener.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
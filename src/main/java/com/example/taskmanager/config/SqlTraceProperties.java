@@ -0,0 +1,15 @@
+package com.example.taskmanager.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "sql-trace")
+@Getter
+@Setter
+public class SqlTraceProperties {
+    private boolean enabled = true;
+    private Duration slowQueryThreshold = Duration.ofMillis(200);
+}
@@ -0,0 +1,12 @@
+package com.example.taskmanager.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "task-calendar")
+@Getter
+@Setter
+public class TaskCalendarProperties {
+    private int maxDays = 62;
+}
@@ -0,0 +1,46 @@
+package com.example.taskmanager.config;
+
+import com.example.taskmanager.data.ShardRouter;
+import com.example.taskmanager.data.SqlTrace;
+import com.example.taskmanager.service.TaskBitmapIndex;
+import com.example.taskmanager.service.TaskService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Enables the in-memory {@link TaskBitmapIndex}. The index is built from the database at startup, kept current
+ * by the changes of {@link TaskService} and compared with the database by a cron task, which repairs it
+ * when they differ.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "task-index", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(TaskIndexProperties.class)
+@Slf4j
+public class TaskIndexConfig {
+
+    @Bean(initMethod = "rebuild", destroyMethod = "shutdown")
+    public TaskBitmapIndex taskBitmapIndex(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                           ShardRouter shardRouter, TaskService taskService, TaskIndexProperties properties) {
+        log.info("Creating TaskBitmapIndex bean");
+        TaskBitmapIndex index = new TaskBitmapIndex(jdbcTemplate, transactionTemplate, shardRouter, properties.getFetchSize(),
+                Executors.newSingleThreadExecutor());
+        taskService.addChangeListener(index);
+        return index;
+    }
+
+    @Bean
+    public SchedulingConfigurer taskIndexVerification(ObjectProvider<TaskBitmapIndex> taskBitmapIndex,
+                                                      TaskIndexProperties properties) {
+        return taskRegistrar -> taskRegistrar.addCronTask(SqlTrace.tagged("job:taskIndexVerification", () -> taskBitmapIndex.getObject().verify()),
+                properties.getVerifyCronExpression());
+    }
+}
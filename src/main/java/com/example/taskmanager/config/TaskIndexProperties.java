@@ -0,0 +1,14 @@
+package com.example.taskmanager.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "task-index")
+@Getter
+@Setter
+public class TaskIndexProperties {
+    private boolean enabled = false;
+    private int fetchSize = 10_000;
+    private String verifyCronExpression = "0 0 3 * * ?";
+}
@@ -0,0 +1,16 @@
+package com.example.taskmanager.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "task-list-cache")
+@Getter
+@Setter
+public class TaskListCacheProperties {
+    private boolean enabled = true;
+    private Duration ttl = Duration.ofSeconds(2);
+    private Duration coalesceTimeout = Duration.ofSeconds(1);
+}
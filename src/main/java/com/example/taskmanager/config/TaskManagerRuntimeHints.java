@@ -0,0 +1,26 @@
+package com.example.taskmanager.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+/**
+ * Runtime hints for the AOT-processed native image.
+ * Registers the types which are instantiated reflectively outside of Spring's bean definitions.
+ */
+public class TaskManagerRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Mappers.getMapper loads the MapStruct generated implementations by name.
+        hints.reflection().registerType(TypeReference.of("com.example.taskmanager.data.TaskMapperImpl"),
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.reflection().registerType(TypeReference.of("com.example.taskmanager.data.UserMapperImpl"),
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        // Caching.getCachingProvider loads the JCache provider by name, it reads its defaults from reference.conf.
+        hints.reflection().registerType(TypeReference.of("com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider"),
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources().registerPattern("reference.conf");
+    }
+}
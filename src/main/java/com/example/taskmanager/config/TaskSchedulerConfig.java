@@ -1,6 +1,8 @@
 package com.example.taskmanager.config;
 
-import com.example.taskmanager.service.TaskService;
+import com.example.taskmanager.data.SqlTrace;
+import com.example.taskmanager.service.TaskDigestService;
+import com.example.taskmanager.service.TaskPartitionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.scheduling.annotation.SchedulingConfigurer;
 import org.springframework.scheduling.config.ScheduledTaskRegistrar;
@@ -8,17 +10,23 @@ import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 @RequiredArgsConstructor
 public class TaskSchedulerConfig implements SchedulingConfigurer {
 
-    private final TaskService taskService;
+    private final TaskPartitionService taskPartitionService;
+    private final TaskDigestService taskDigestService;
     private final TaskSchedulerProperties schedulerProperties;
 
     /**
-     * Configures a cron task to update overdue tasks based on the specified cron expression.
-     * The cron expression is retrieved from the {@link TaskSchedulerProperties} instance.
+     * Configures cron tasks maintaining the partitions of the task table and generating the daily task digests.
+     * The cron expressions are retrieved from the {@link TaskSchedulerProperties} instance.
+     * Overdue tasks are updated by {@link com.example.taskmanager.service.OverdueTaskJob}, which schedules itself
+     * so that its cron expression can be changed at runtime.
      *
      * @param taskRegistrar The registrar for configuring scheduled tasks.
      */
     @Override
     public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
-        taskRegistrar.addCronTask(taskService::updateTaskStateForOverdueTasks, schedulerProperties.getCronExpression());
+        taskRegistrar.addCronTask(SqlTrace.tagged("job:partitionMaintenance", taskPartitionService::maintainPartitions),
+                schedulerProperties.getPartitionCronExpression());
+        taskRegistrar.addCronTask(SqlTrace.tagged("job:taskDigest", taskDigestService::generateDigests),
+                schedulerProperties.getDigestCronExpression());
     }
 }
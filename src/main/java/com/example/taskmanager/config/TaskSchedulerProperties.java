@@ -9,4 +9,13 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 @Setter
 public class TaskSchedulerProperties {
     private String cronExpression;
+    private int overdueBatchSize = 500;
+    private String partitionCronExpression = "0 30 0 * * ?";
+    private int partitionMonthsAhead = 3;
+    private int archiveAfterMonths = 12;
+    private String digestCronExpression = "0 0 5 * * ?";
+    private int digestDaysAhead = 3;
+    private int digestBatchSize = 500;
+    private int digestFetchSize = 1000;
+    private int digestRetentionDays = 7;
 }
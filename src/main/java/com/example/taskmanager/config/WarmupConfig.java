@@ -0,0 +1,43 @@
+package com.example.taskmanager.config;
+
+import com.example.taskmanager.data.ShardRouter;
+import com.example.taskmanager.data.TaskMapper;
+import com.example.taskmanager.data.TaskRepository;
+import com.example.taskmanager.data.UserMapper;
+import com.example.taskmanager.data.UserRepository;
+import com.example.taskmanager.service.ApplicationWarmup;
+import com.example.taskmanager.service.TaskSearchService;
+import com.example.taskmanager.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Enables the {@link ApplicationWarmup}, the readiness probe reports UP once it completed.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(WarmupProperties.class)
+@Slf4j
+public class WarmupConfig {
+
+    @Bean
+    public ApplicationWarmup applicationWarmup(DataSource dataSource, ShardRouter shardRouter, TaskRepository taskRepository,
+                                               UserRepository userRepository, UserService userService,
+                                               TaskSearchService taskSearchService,
+                                               TaskMapper taskMapper, UserMapper userMapper, ObjectMapper objectMapper,
+                                               Validator validator, MeterRegistry meterRegistry,
+                                               WarmupProperties properties) {
+        log.info("Creating ApplicationWarmup bean");
+        return new ApplicationWarmup(dataSource, shardRouter, taskRepository, userRepository, userService, taskSearchService,
+                taskMapper, userMapper, objectMapper, validator, meterRegistry,
+                properties.getConnections(), properties.getIterations(), properties.isPreloadUsers());
+    }
+}
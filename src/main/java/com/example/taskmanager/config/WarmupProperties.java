@@ -0,0 +1,15 @@
+package com.example.taskmanager.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "warmup")
+@Getter
+@Setter
+public class WarmupProperties {
+    private boolean enabled = true;
+    private int connections = 10;
+    private int iterations = 100;
+    private boolean preloadUsers = true;
+}
@@ -0,0 +1,84 @@
+package com.example.taskmanager.config;
+
+import com.example.taskmanager.web.AdaptiveConcurrencyLimiter;
+import com.example.taskmanager.web.AdmissionControlInterceptor;
+import com.example.taskmanager.service.TaskService;
+import com.example.taskmanager.service.UserService;
+import com.example.taskmanager.web.RequestClass;
+import com.example.taskmanager.web.ResponseJsonMessageConverter;
+import com.example.taskmanager.web.SqlTraceInterceptor;
+import com.example.taskmanager.web.TaskListResponseCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties({AdmissionControlProperties.class, TaskListCacheProperties.class, TaskCalendarProperties.class,
+        BatchProperties.class})
+@RequiredArgsConstructor
+@Slf4j
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<AdmissionControlInterceptor> admissionControlInterceptor;
+    private final ObjectProvider<SqlTraceInterceptor> sqlTraceInterceptor;
+
+    @Bean
+    @ConditionalOnProperty(prefix = "admission-control", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public AdmissionControlInterceptor admissionControlInterceptor(AdmissionControlProperties properties) {
+        log.info("Creating AdmissionControlInterceptor bean");
+        Map<RequestClass, AdaptiveConcurrencyLimiter> limiters = new EnumMap<>(RequestClass.class);
+        limiters.put(RequestClass.POINT_READ, limiter(properties.getPointRead()));
+        limiters.put(RequestClass.LIST, limiter(properties.getList()));
+        limiters.put(RequestClass.WRITE, limiter(properties.getWrite()));
+        return new AdmissionControlInterceptor(limiters, properties.getRetryAfter().toSeconds());
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(AdmissionControlProperties.Budget budget) {
+        return new AdaptiveConcurrencyLimiter(budget.getInitialLimit(), budget.getMinLimit(), budget.getMaxLimit(),
+                budget.getLatencyThreshold().toNanos(), budget.getBackoffRatio());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "sql-trace", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public SqlTraceInterceptor sqlTraceInterceptor() {
+        log.info("Creating SqlTraceInterceptor bean");
+        return new SqlTraceInterceptor();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "task-list-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public TaskListResponseCache taskListResponseCache(TaskListCacheProperties properties,
+                                                       TaskService taskService, UserService userService) {
+        log.info("Creating TaskListResponseCache bean");
+        TaskListResponseCache cache = new TaskListResponseCache(properties.getTtl().toNanos(),
+                properties.getCoalesceTimeout().toNanos());
+        taskService.addChangeListener(cache);
+        userService.addChangeListener(cache);
+        return cache;
+    }
+
+    /**
+     * Task and user responses are written by {@link ResponseJsonMessageConverter} ahead of Jackson.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new ResponseJsonMessageConverter());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        sqlTraceInterceptor.ifAvailable(interceptor -> registry.addInterceptor(interceptor).addPathPatterns("/api/**"));
+        admissionControlInterceptor.ifAvailable(interceptor -> registry.addInterceptor(interceptor).addPathPatterns("/api/**"));
+    }
+}
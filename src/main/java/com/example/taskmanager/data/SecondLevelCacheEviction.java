@@ -0,0 +1,33 @@
+package com.example.taskmanager.data;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+/**
+ * Evicts entries of the second-level cache changed by a statement that bypasses Hibernate.
+ * Within a transaction a concurrent reader may load the old row into the cache again before the commit, so the
+ * eviction is repeated once the transaction completes.
+ */
+final class SecondLevelCacheEviction {
+
+    private SecondLevelCacheEviction() {
+    }
+
+    static void evict(EntityManagerFactory entityManagerFactory, Consumer<Cache> eviction) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        eviction.accept(cache);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.accept(cache);
+                }
+            });
+        }
+    }
+}
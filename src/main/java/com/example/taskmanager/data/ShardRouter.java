@@ -0,0 +1,131 @@
+package com.example.taskmanager.data;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Routes database work to the shard owning a user.
+ * Sequences of shard i generate only identifiers with (id - 1) mod shardCount == i, so the shard of a user
+ * or a task follows from its identifier. Tasks live on the shard of their assigned user, unassigned tasks on shard 0.
+ * The shard of the current thread is read by {@link ShardRoutingDataSource}.
+ */
+@Slf4j
+public class ShardRouter {
+
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    private final int shardCount;
+    private final ExecutorService executor;
+    private final AtomicInteger nextUserShard = new AtomicInteger();
+
+    /**
+     * @param shardCount Number of shards.
+     * @param executor   Executor for queries fanned out to all shards, may be null for a single shard.
+     */
+    public ShardRouter(int shardCount, ExecutorService executor) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be at least 1");
+        }
+        this.shardCount = shardCount;
+        this.executor = executor;
+    }
+
+    /**
+     * @return The shard of the current thread, shard 0 when none is set.
+     */
+    public static int currentShard() {
+        Integer shard = CURRENT_SHARD.get();
+        return shard != null ? shard : 0;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    /**
+     * @param userId The user identifier, may be null.
+     * @return The shard owning the user, shard 0 for null.
+     */
+    public int shardForUser(Integer userId) {
+        return userId != null ? Math.floorMod(userId - 1, shardCount) : 0;
+    }
+
+    /**
+     * @param taskId The task identifier.
+     * @return The shard on which the task was created.
+     */
+    public int shardForTask(Integer taskId) {
+        return Math.floorMod(taskId - 1, shardCount);
+    }
+
+    /**
+     * @return The shard for a new user, users are spread round-robin.
+     */
+    public int shardForNewUser() {
+        return Math.floorMod(nextUserShard.getAndIncrement(), shardCount);
+    }
+
+    /**
+     * Runs the work with the given shard as the current shard of the thread.
+     */
+    public <T> T callOn(int shard, Supplier<T> work) {
+        Integer previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous != null) {
+                CURRENT_SHARD.set(previous);
+            } else {
+                CURRENT_SHARD.remove();
+            }
+        }
+    }
+
+    public void runOn(int shard, Runnable work) {
+        callOn(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the work on every shard, one after another.
+     */
+    public void forEachShard(IntConsumer work) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            int current = shard;
+            runOn(shard, () -> work.accept(current));
+        }
+    }
+
+    /**
+     * Runs the query on all shards in parallel and concatenates the results in shard order.
+     * The {@link SqlTrace} tag of the calling thread is carried over to the parallel queries.
+     */
+    public <T> List<T> fanOut(Supplier<List<T>> query) {
+        if (!isSharded()) {
+            return query.get();
+        }
+        String tag = SqlTrace.currentTag();
+        List<CompletableFuture<List<T>>> results = IntStream.range(0, shardCount)
+                .mapToObj(shard -> CompletableFuture.supplyAsync(
+                        () -> SqlTrace.callTagged(tag, () -> callOn(shard, query)), executor))
+                .toList();
+        List<T> merged = new ArrayList<>();
+        results.forEach(result -> merged.addAll(result.join()));
+        return merged;
+    }
+}
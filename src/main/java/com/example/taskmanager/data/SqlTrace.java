@@ -0,0 +1,100 @@
+package com.example.taskmanager.data;
+
+import java.util.function.Supplier;
+
+/**
+ * Thread-bound context of the SQL statements recorded by {@link SqlTraceListener}.
+ * The tag names the endpoint or scheduled job on whose behalf the thread issues statements, the counter
+ * lets callers measure how many statements an operation issued on the current thread.
+ */
+public final class SqlTrace {
+
+    public static final String UNTAGGED = "untagged";
+
+    private static final ThreadLocal<String> TAG = new ThreadLocal<>();
+    private static final ThreadLocal<long[]> COUNTER = new ThreadLocal<>();
+
+    private SqlTrace() {
+    }
+
+    /**
+     * @return The tag of the current thread, {@link #UNTAGGED} when none is set.
+     */
+    public static String currentTag() {
+        String tag = TAG.get();
+        return tag != null ? tag : UNTAGGED;
+    }
+
+    /**
+     * Sets the tag of the current thread until {@link #clearTag()}.
+     */
+    public static void setTag(String tag) {
+        TAG.set(tag);
+    }
+
+    public static void clearTag() {
+        TAG.remove();
+    }
+
+    /**
+     * Runs the work with the given tag, restoring the previous tag afterwards.
+     */
+    public static <T> T callTagged(String tag, Supplier<T> work) {
+        String previous = TAG.get();
+        TAG.set(tag);
+        try {
+            return work.get();
+        } finally {
+            if (previous != null) {
+                TAG.set(previous);
+            } else {
+                TAG.remove();
+            }
+        }
+    }
+
+    public static void runTagged(String tag, Runnable work) {
+        callTagged(tag, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Wraps the work so that it runs with the given tag, e.g. for scheduled jobs.
+     */
+    public static Runnable tagged(String tag, Runnable work) {
+        return () -> runTagged(tag, work);
+    }
+
+    /**
+     * Runs the work and counts the statements it issued on the current thread. Statements of a batch count once
+     * per execution, statements issued on other threads, like the shard fan-out, are not counted.
+     *
+     * @param work The work to measure.
+     * @return Number of statements issued by the work.
+     */
+    public static long count(Runnable work) {
+        long[] previous = COUNTER.get();
+        long[] counter = new long[1];
+        COUNTER.set(counter);
+        try {
+            work.run();
+        } finally {
+            if (previous != null) {
+                previous[0] += counter[0];
+                COUNTER.set(previous);
+            } else {
+                COUNTER.remove();
+            }
+        }
+        return counter[0];
+    }
+
+    static void recordStatement() {
+        long[] counter = COUNTER.get();
+        if (counter != null) {
+            counter[0]++;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.taskmanager.data;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Records every SQL statement executed through the proxied data source with its execution time, under the
+ * {@link SqlTrace} tag of the issuing thread. Every statement is logged at debug level, statements slower than
+ * the threshold are logged with their bind parameters to the {@value #SLOW_QUERY_LOGGER} logger.
+ */
+@ManagedResource(objectName = "com.example.taskmanager:type=SqlTrace")
+@Slf4j
+public class SqlTraceListener implements QueryExecutionListener {
+
+    public static final String SLOW_QUERY_LOGGER = "com.example.taskmanager.sql.slow";
+
+    private static final Logger slowQueryLog = LoggerFactory.getLogger(SLOW_QUERY_LOGGER);
+    private static final int MAX_PARAMETER_LENGTH = 100;
+
+    private final Map<String, TagStatistics> statistics = new ConcurrentHashMap<>();
+    private final AtomicLong slowStatements = new AtomicLong();
+    private volatile long slowQueryThresholdMillis;
+
+    public SqlTraceListener(long slowQueryThresholdMillis) {
+        this.slowQueryThresholdMillis = slowQueryThresholdMillis;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        SqlTrace.recordStatement();
+        String tag = SqlTrace.currentTag();
+        long elapsedMillis = execInfo.getElapsedTime();
+        statistics.computeIfAbsent(tag, key -> new TagStatistics()).record(elapsedMillis);
+        if (log.isDebugEnabled()) {
+            log.debug("[{}] {} ms: {}", tag, elapsedMillis, queries(queryInfoList));
+        }
+        if (elapsedMillis >= slowQueryThresholdMillis) {
+            slowStatements.incrementAndGet();
+            for (QueryInfo queryInfo : queryInfoList) {
+                slowQueryLog.warn("[{}] {} ms{}: {} parameters {}", tag, elapsedMillis,
+                        execInfo.isSuccess() ? "" : " (failed)", queryInfo.getQuery(),
+                        parameters(queryInfo.getParametersList()));
+            }
+        }
+    }
+
+    private static String queries(List<QueryInfo> queryInfoList) {
+        return queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Formats the bind parameters of every execution of a statement, one bracketed list per batch entry.
+     */
+    static String parameters(List<List<ParameterSetOperation>> parametersList) {
+        StringJoiner executions = new StringJoiner(", ");
+        for (List<ParameterSetOperation> operations : parametersList) {
+            StringJoiner values = new StringJoiner(", ", "[", "]");
+            for (ParameterSetOperation operation : operations) {
+                Object[] args = operation.getArgs();
+                Object value = operation.getMethod().getName().equals("setNull") || args.length < 2 ? null : args[1];
+                values.add(args[0] + "=" + abbreviate(value));
+            }
+            executions.add(values.toString());
+        }
+        return executions.toString();
+    }
+
+    private static String abbreviate(Object value) {
+        String text = String.valueOf(value);
+        return text.length() > MAX_PARAMETER_LENGTH ? text.substring(0, MAX_PARAMETER_LENGTH) + "..." : text;
+    }
+
+    @ManagedAttribute(description = "Statements slower than this are logged with their parameters, in milliseconds")
+    public long getSlowQueryThresholdMillis() {
+        return slowQueryThresholdMillis;
+    }
+
+    @ManagedAttribute
+    public void setSlowQueryThresholdMillis(long slowQueryThresholdMillis) {
+        this.slowQueryThresholdMillis = slowQueryThresholdMillis;
+    }
+
+    @ManagedAttribute(description = "Statements executed since the last reset")
+    public long getStatementCount() {
+        return statistics.values().stream().mapToLong(tag -> tag.count.sum()).sum();
+    }
+
+    @ManagedAttribute(description = "Statements over the slow query threshold since the last reset")
+    public long getSlowStatementCount() {
+        return slowStatements.get();
+    }
+
+    /**
+     * @return Number of statements, total and maximum execution time per tag, ordered by tag.
+     */
+    @ManagedOperation(description = "Statements, total and maximum time in milliseconds per endpoint or job")
+    public Map<String, String> getStatisticsByTag() {
+        Map<String, String> result = new TreeMap<>();
+        statistics.forEach((tag, tagStatistics) -> result.put(tag, tagStatistics.toString()));
+        return result;
+    }
+
+    @ManagedOperation(description = "Clears the recorded statistics")
+    public void reset() {
+        statistics.clear();
+        slowStatements.set(0);
+    }
+
+    private static class TagStatistics {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalMillis = new LongAdder();
+        private final AtomicLong maxMillis = new AtomicLong();
+
+        void record(long elapsedMillis) {
+            count.increment();
+            totalMillis.add(elapsedMillis);
+            maxMillis.accumulateAndGet(elapsedMillis, Math::max);
+        }
+
+        @Override
+        public String toString() {
+            return "statements=" + count.sum() + ", totalMillis=" + totalMillis.sum() + ", maxMillis=" + maxMillis.get();
+        }
+    }
+}
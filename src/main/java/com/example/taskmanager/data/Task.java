@@ -1,18 +1,22 @@
 package com.example.taskmanager.data;
 
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
-import jakarta.persistence.EnumType;
-import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "task")
 @Data
 public class Task {
 
@@ -28,7 +32,7 @@ public class Task {
     @JoinColumn(name = "user_id")
     private AppUser assignedUser;
 
-    @Enumerated(EnumType.STRING)
+    @Convert(converter = TaskStateConverter.class)
     private TaskState state;
 }
 
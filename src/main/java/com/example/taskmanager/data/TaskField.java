@@ -0,0 +1,67 @@
+package com.example.taskmanager.data;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Field of a task response that can be requested with the fields query parameter, with the columns it needs.
+ * The whole assigned user needs the app_user table, its identifier alone is read from the task.
+ */
+public enum TaskField {
+    ID("id", "t.id"),
+    DESCRIPTION("description", "t.description"),
+    DUE_DATE("dueDate", "t.due_date"),
+    ASSIGNED_USER("assignedUser", "t.user_id, u.username"),
+    ASSIGNED_USER_ID("assignedUser.id", "t.user_id"),
+    STATE("state", "t.state");
+
+    private final String jsonName;
+    private final String columns;
+
+    TaskField(String jsonName, String columns) {
+        this.jsonName = jsonName;
+        this.columns = columns;
+    }
+
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    public String getColumns() {
+        return columns;
+    }
+
+    /**
+     * Parses a comma separated list of field names, the assigned user includes its identifier.
+     *
+     * @param fields The field names, e.g. "id,state,assignedUser.id".
+     * @return The requested fields in response order.
+     * @throws IllegalArgumentException If a name is unknown or no field is given.
+     */
+    public static Set<TaskField> parse(String fields) {
+        Set<TaskField> parsed = EnumSet.noneOf(TaskField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            parsed.add(ofJsonName(trimmed));
+        }
+        if (parsed.isEmpty()) {
+            throw new IllegalArgumentException("At least one field must be requested");
+        }
+        if (parsed.contains(ASSIGNED_USER)) {
+            parsed.remove(ASSIGNED_USER_ID);
+        }
+        return parsed;
+    }
+
+    private static TaskField ofJsonName(String name) {
+        for (TaskField field : values()) {
+            if (field.jsonName.equals(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown task field " + name);
+    }
+}
@@ -1,17 +1,60 @@
 package com.example.taskmanager.data;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
 
-public interface TaskRepository extends JpaRepository<Task, Integer> {
+public interface TaskRepository extends JpaRepository<Task, Integer>, TaskRepositoryCustom {
 
     List<Task> findByDueDate(LocalDate dueDate);
 
+    @EntityGraph(attributePaths = "assignedUser")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Task> findByAssignedUserId(Integer userId);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Task> findByState(TaskState state);
 
-    List<Task> findByDueDateAndState(LocalDate dueDate, TaskState state);
+    @EntityGraph(attributePaths = "assignedUser")
+    Slice<Task> findByDueDateAndState(LocalDate dueDate, TaskState state, Pageable pageable);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Task t SET t.state = :state WHERE t.id IN :ids")
+    int updateState(@Param("ids") List<Integer> ids, @Param("state") TaskState state);
+
+    long countByDueDateAndState(LocalDate dueDate, TaskState state);
+
+    @Query("SELECT t FROM Task t WHERE (:state IS NULL OR t.state = :state)"
+            + " AND (:userId IS NULL OR t.assignedUser.id = :userId)"
+            + " AND (:dueDate IS NULL OR t.dueDate = :dueDate)")
+    Page<Task> search(@Param("state") TaskState state, @Param("userId") Integer userId,
+                      @Param("dueDate") LocalDate dueDate, Pageable pageable);
+
+    @Query("SELECT t.state, COUNT(t) FROM Task t WHERE (:userId IS NULL OR t.assignedUser.id = :userId)"
+            + " AND (:dueDate IS NULL OR t.dueDate = :dueDate) GROUP BY t.state")
+    List<Object[]> countByState(@Param("userId") Integer userId, @Param("dueDate") LocalDate dueDate);
+
+    @EntityGraph(attributePaths = "assignedUser")
+    List<Task> findByDueDateBetweenOrderByDueDateAscIdAsc(LocalDate from, LocalDate to);
+
+    @EntityGraph(attributePaths = "assignedUser")
+    List<Task> findByDueDateBetweenAndAssignedUserIdOrderByDueDateAscIdAsc(LocalDate from, LocalDate to, Integer userId);
+
+    @Query("SELECT t.dueDate, t.state, COUNT(t) FROM Task t WHERE t.dueDate BETWEEN :from AND :to"
+            + " AND (:userId IS NULL OR t.assignedUser.id = :userId) GROUP BY t.dueDate, t.state")
+    List<Object[]> countByDueDateAndState(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                          @Param("userId") Integer userId);
 }
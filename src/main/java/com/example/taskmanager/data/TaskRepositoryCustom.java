@@ -0,0 +1,60 @@
+package com.example.taskmanager.data;
+
+import com.example.taskmanager.dto.SparseTaskResponse;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public interface TaskRepositoryCustom {
+
+    /**
+     * Updates the non-null columns of a task with a single statement.
+     *
+     * @param taskId      The unique identifier of the task to update.
+     * @param description The new description, or null to keep it.
+     * @param dueDate     The new due date, or null to keep it.
+     * @param userId      The new assigned user id, or null to keep it.
+     * @param state       The new state, or null to keep it.
+     * @return The updated task with its previous values, or empty if no task has the identifier.
+     */
+    Optional<UpdatedTask> updateNonNullFields(Integer taskId, String description, LocalDate dueDate,
+                                              Integer userId, TaskState state);
+
+    /**
+     * Deletes a task with a single statement returning its values.
+     *
+     * @param taskId The unique identifier of the task to delete.
+     * @return The deleted task, or empty if no task has the identifier.
+     */
+    Optional<Task> deleteReturning(Integer taskId);
+
+    /**
+     * Inserts a task keeping its identifier, used when a task moves between shards.
+     *
+     * @param task The task to insert.
+     */
+    void insertWithId(Task task);
+
+    /**
+     * Inserts new tasks with one JDBC batch and sets their generated identifiers.
+     *
+     * @param tasks The tasks to insert, in insertion order.
+     */
+    void insertAll(List<Task> tasks);
+
+    /**
+     * Selects only the columns of the requested fields of all tasks, app_user is joined only for the assigned user.
+     *
+     * @param fields The requested fields.
+     * @return The tasks with the requested fields.
+     */
+    List<SparseTaskResponse> findFields(Set<TaskField> fields);
+
+    List<SparseTaskResponse> findFieldsByAssignedUserId(Set<TaskField> fields, Integer userId);
+
+    List<SparseTaskResponse> findFieldsByState(Set<TaskField> fields, TaskState state);
+
+    List<SparseTaskResponse> findFieldsByDueDate(Set<TaskField> fields, LocalDate dueDate);
+}
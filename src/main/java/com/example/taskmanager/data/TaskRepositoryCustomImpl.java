@@ -0,0 +1,210 @@
+package com.example.taskmanager.data;
+
+import com.example.taskmanager.dto.SparseTaskResponse;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Partial task updates issued as a single UPDATE ... RETURNING statement.
+ * The subquery locks the row and provides the previous values, so no separate read is needed.
+ * Deletes return the deleted values the same way.
+ * The statements bypass Hibernate, so the task is evicted from the second-level cache afterwards, and again once
+ * an enclosing transaction completes.
+ * Task lists restricted to some fields select only the columns of those fields.
+ */
+@RequiredArgsConstructor
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    private static final String UPDATE = """
+            UPDATE task t SET %s
+            FROM (SELECT id, state, due_date, user_id FROM task WHERE id = :id FOR UPDATE) old
+            WHERE t.id = old.id
+            RETURNING t.id, t.description, t.due_date, t.user_id, t.state,
+                      old.state AS old_state, old.due_date AS old_due_date, old.user_id AS old_user_id""";
+
+    private static final String DELETE = """
+            DELETE FROM task WHERE id = :id
+            RETURNING id, description, due_date, user_id, state""";
+
+    private static final String INSERT = """
+            INSERT INTO task (description, due_date, user_id, state)
+            VALUES (:description, :dueDate, :userId, :state)""";
+
+    private static final String INSERT_WITH_ID = """
+            INSERT INTO task (id, description, due_date, user_id, state)
+            VALUES (:id, :description, :dueDate, :userId, :state)""";
+
+    private static final String SELECT_FIELDS = "SELECT %s FROM task t%s%s";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public Optional<UpdatedTask> updateNonNullFields(Integer taskId, String description, LocalDate dueDate,
+                                                     Integer userId, TaskState state) {
+        List<String> assignments = new ArrayList<>();
+        MapSqlParameterSource parameters = new MapSqlParameterSource("id", taskId);
+        if (description != null) {
+            assignments.add("description = :description");
+            parameters.addValue("description", description);
+        }
+        if (dueDate != null) {
+            assignments.add("due_date = :dueDate");
+            parameters.addValue("dueDate", dueDate);
+        }
+        if (userId != null) {
+            assignments.add("user_id = :userId");
+            parameters.addValue("userId", userId);
+        }
+        if (state != null) {
+            assignments.add("state = :state");
+            parameters.addValue("state", state.getCode());
+        }
+        if (assignments.isEmpty()) {
+            throw new IllegalArgumentException("At least one field must be updated");
+        }
+
+        List<UpdatedTask> updated = jdbcTemplate.query(UPDATE.formatted(String.join(", ", assignments)), parameters,
+                (rs, rowNum) -> mapUpdatedTask(rs));
+        if (updated.isEmpty()) {
+            return Optional.empty();
+        }
+        evictTask(taskId);
+        return Optional.of(updated.get(0));
+    }
+
+    @Override
+    public Optional<Task> deleteReturning(Integer taskId) {
+        List<Task> deleted = jdbcTemplate.query(DELETE, new MapSqlParameterSource("id", taskId),
+                (rs, rowNum) -> mapTask(rs));
+        if (deleted.isEmpty()) {
+            return Optional.empty();
+        }
+        evictTask(taskId);
+        return Optional.of(deleted.get(0));
+    }
+
+    @Override
+    public void insertWithId(Task task) {
+        jdbcTemplate.update(INSERT_WITH_ID, insertParameters(task));
+        SecondLevelCacheEviction.evict(entityManagerFactory, Cache::evictQueryRegions);
+    }
+
+    @Override
+    public void insertAll(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = tasks.stream()
+                .map(TaskRepositoryCustomImpl::insertParameters)
+                .toArray(SqlParameterSource[]::new);
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(INSERT, batch, keyHolder, new String[]{"id"});
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int index = 0; index < tasks.size(); index++) {
+            tasks.get(index).setId(((Number) keys.get(index).get("id")).intValue());
+        }
+        SecondLevelCacheEviction.evict(entityManagerFactory, Cache::evictQueryRegions);
+    }
+
+    private void evictTask(Integer taskId) {
+        SecondLevelCacheEviction.evict(entityManagerFactory, cache -> {
+            cache.evictEntityData(Task.class, taskId);
+            cache.evictQueryRegions();
+        });
+    }
+
+    private static MapSqlParameterSource insertParameters(Task task) {
+        return new MapSqlParameterSource()
+                .addValue("id", task.getId())
+                .addValue("description", task.getDescription())
+                .addValue("dueDate", task.getDueDate())
+                .addValue("userId", task.getAssignedUser() != null ? task.getAssignedUser().getId() : null)
+                .addValue("state", task.getState() != null ? task.getState().getCode() : null);
+    }
+
+    @Override
+    public List<SparseTaskResponse> findFields(Set<TaskField> fields) {
+        return selectFields(fields, null, null);
+    }
+
+    @Override
+    public List<SparseTaskResponse> findFieldsByAssignedUserId(Set<TaskField> fields, Integer userId) {
+        return selectFields(fields, "t.user_id = :value", userId);
+    }
+
+    @Override
+    public List<SparseTaskResponse> findFieldsByState(Set<TaskField> fields, TaskState state) {
+        return selectFields(fields, "t.state = :value", state.getCode());
+    }
+
+    @Override
+    public List<SparseTaskResponse> findFieldsByDueDate(Set<TaskField> fields, LocalDate dueDate) {
+        return selectFields(fields, "t.due_date = :value", dueDate);
+    }
+
+    private List<SparseTaskResponse> selectFields(Set<TaskField> fields, String condition, Object value) {
+        Set<String> columns = new LinkedHashSet<>();
+        fields.forEach(field -> columns.addAll(List.of(field.getColumns().split(", "))));
+        String join = fields.contains(TaskField.ASSIGNED_USER) ? " LEFT JOIN app_user u ON u.id = t.user_id" : "";
+        String where = condition != null ? " WHERE " + condition : "";
+        return jdbcTemplate.query(SELECT_FIELDS.formatted(String.join(", ", columns), join, where),
+                new MapSqlParameterSource("value", value), (rs, rowNum) -> mapSparseTask(fields, rs));
+    }
+
+    private static SparseTaskResponse mapSparseTask(Set<TaskField> fields, ResultSet rs) throws SQLException {
+        boolean user = fields.contains(TaskField.ASSIGNED_USER) || fields.contains(TaskField.ASSIGNED_USER_ID);
+        return new SparseTaskResponse(fields,
+                fields.contains(TaskField.ID) ? rs.getObject("id", Integer.class) : null,
+                fields.contains(TaskField.DESCRIPTION) ? rs.getString("description") : null,
+                fields.contains(TaskField.DUE_DATE) ? toLocalDate(rs.getDate("due_date")) : null,
+                user ? rs.getObject("user_id", Integer.class) : null,
+                fields.contains(TaskField.ASSIGNED_USER) ? rs.getString("username") : null,
+                fields.contains(TaskField.STATE) ? toTaskState(rs, "state") : null);
+    }
+
+    private static UpdatedTask mapUpdatedTask(ResultSet rs) throws SQLException {
+        return new UpdatedTask(mapTask(rs), toTaskState(rs, "old_state"), toLocalDate(rs.getDate("old_due_date")),
+                rs.getObject("old_user_id", Integer.class));
+    }
+
+    private static Task mapTask(ResultSet rs) throws SQLException {
+        Task task = new Task();
+        task.setId(rs.getInt("id"));
+        task.setDescription(rs.getString("description"));
+        task.setDueDate(toLocalDate(rs.getDate("due_date")));
+        Integer userId = rs.getObject("user_id", Integer.class);
+        if (userId != null) {
+            AppUser user = new AppUser();
+            user.setId(userId);
+            task.setAssignedUser(user);
+        }
+        task.setState(toTaskState(rs, "state"));
+        return task;
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date != null ? date.toLocalDate() : null;
+    }
+
+    private static TaskState toTaskState(ResultSet rs, String column) throws SQLException {
+        short code = rs.getShort(column);
+        return rs.wasNull() ? null : TaskState.fromCode(code);
+    }
+}
@@ -1,8 +1,43 @@
 package com.example.taskmanager.data;
 
+/**
+ * State of a task. The database stores the {@link #getCode() code} of the state in a SMALLINT column,
+ * codes must never be reused or renumbered.
+ */
 public enum TaskState {
-    TODO,
-    IN_PROGRESS,
-    COMPLETED,
-    DELAYED
+    TODO(1),
+    IN_PROGRESS(2),
+    COMPLETED(3),
+    DELAYED(4);
+
+    private static final TaskState[] BY_CODE = new TaskState[5];
+
+    static {
+        for (TaskState state : values()) {
+            BY_CODE[state.code] = state;
+        }
+    }
+
+    private final short code;
+
+    TaskState(int code) {
+        this.code = (short) code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    /**
+     * @param code The stored code of a state.
+     * @return The state with the code.
+     * @throws IllegalArgumentException If no state has the code.
+     */
+    public static TaskState fromCode(short code) {
+        TaskState state = code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (state == null) {
+            throw new IllegalArgumentException("Unknown task state code " + code);
+        }
+        return state;
+    }
 }
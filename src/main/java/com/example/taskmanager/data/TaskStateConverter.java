@@ -0,0 +1,21 @@
+package com.example.taskmanager.data;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores a {@link TaskState} as its two byte code instead of its name.
+ */
+@Converter
+public class TaskStateConverter implements AttributeConverter<TaskState, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(TaskState state) {
+        return state != null ? state.getCode() : null;
+    }
+
+    @Override
+    public TaskState convertToEntityAttribute(Short code) {
+        return code != null ? TaskState.fromCode(code) : null;
+    }
+}
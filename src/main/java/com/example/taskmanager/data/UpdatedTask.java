@@ -0,0 +1,9 @@
+package com.example.taskmanager.data;
+
+import java.time.LocalDate;
+
+/**
+ * Task as written by a partial update, with the values of the indexed columns before the update.
+ */
+public record UpdatedTask(Task task, TaskState oldState, LocalDate oldDueDate, Integer oldUserId) {
+}
@@ -1,6 +1,21 @@
 package com.example.taskmanager.data;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface UserRepository extends JpaRepository<AppUser, Integer> {
+import java.util.Collection;
+import java.util.List;
+
+public interface UserRepository extends JpaRepository<AppUser, Integer>, UserRepositoryCustom {
+
+    /**
+     * Counts the tasks in the given states of every user with one grouped query, users without such tasks included.
+     *
+     * @param states The states to count.
+     * @return Rows of user id and number of tasks.
+     */
+    @Query("SELECT u.id, COUNT(t) FROM AppUser u LEFT JOIN Task t ON t.assignedUser = u AND t.state IN :states"
+            + " GROUP BY u.id")
+    List<Object[]> countTasksPerUser(@Param("states") Collection<TaskState> states);
 }
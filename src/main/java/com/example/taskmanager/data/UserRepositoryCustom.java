@@ -0,0 +1,15 @@
+package com.example.taskmanager.data;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Updates the username of a user with a single statement.
+     *
+     * @param userId   The unique identifier of the user to update.
+     * @param username The new username.
+     * @return The updated user, or empty if no user has the identifier.
+     */
+    Optional<AppUser> updateUsername(Integer userId, String username);
+}
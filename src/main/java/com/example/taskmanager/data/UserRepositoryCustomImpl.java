@@ -0,0 +1,41 @@
+package com.example.taskmanager.data;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * User updates issued as a single UPDATE ... RETURNING statement.
+ * The statement bypasses Hibernate, so the user is evicted from the second-level cache afterwards, and again once
+ * an enclosing transaction completes.
+ */
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final String UPDATE_USERNAME = "UPDATE app_user SET username = :username WHERE id = :id RETURNING id, username";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public Optional<AppUser> updateUsername(Integer userId, String username) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("username", username)
+                .addValue("id", userId);
+        List<AppUser> updated = jdbcTemplate.query(UPDATE_USERNAME, parameters, (rs, rowNum) -> {
+            AppUser user = new AppUser();
+            user.setId(rs.getInt("id"));
+            user.setUsername(rs.getString("username"));
+            return user;
+        });
+        if (updated.isEmpty()) {
+            return Optional.empty();
+        }
+        SecondLevelCacheEviction.evict(entityManagerFactory, cache -> cache.evictEntityData(AppUser.class, userId));
+        return Optional.of(updated.get(0));
+    }
+}
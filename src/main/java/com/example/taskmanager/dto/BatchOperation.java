@@ -0,0 +1,26 @@
+package com.example.taskmanager.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+/**
+ * Single operation of a batch, mirroring a route of the task and user endpoints,
+ * e.g. POST /api/task or PUT /api/task/$task1.
+ *
+ * @param method The HTTP method of the route.
+ * @param path   The path of the route, "$name" segments refer to the id created by an earlier operation.
+ * @param body   The request body of the route, "$name" values of "id" fields refer to created ids as well.
+ * @param ref    The name under which a created id can be referred to by later operations.
+ */
+public record BatchOperation(
+        @NotNull(message = "Method must not be null")
+        @Pattern(regexp = "GET|POST|PUT|DELETE", message = "Method must be GET, POST, PUT or DELETE")
+        String method,
+        @NotBlank(message = "Path must not be blank")
+        String path,
+        JsonNode body,
+        @Pattern(regexp = "[A-Za-z0-9_-]+", message = "Ref must consist of letters, digits, '_' and '-'")
+        String ref) {
+}
@@ -0,0 +1,12 @@
+package com.example.taskmanager.dto;
+
+/**
+ * Outcome of a batch operation.
+ *
+ * @param status The HTTP status the route would have responded with, 424 for operations not executed
+ *               because an earlier operation failed.
+ * @param ref    The ref of the operation.
+ * @param body   The response body of the route, or the validation errors.
+ */
+public record BatchOperationResult(int status, String ref, Object body) {
+}
@@ -0,0 +1,23 @@
+package com.example.taskmanager.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * Ordered operations executed by the batch endpoint, by default all in one transaction.
+ *
+ * @param atomic     Whether the batch runs in one transaction which is rolled back when any operation fails,
+ *                   null for true. Otherwise every operation runs in its own transaction.
+ * @param operations The operations in execution order.
+ */
+public record BatchRequest(
+        Boolean atomic,
+        @NotEmpty(message = "Operations must not be empty")
+        List<@Valid BatchOperation> operations) {
+
+    public boolean isAtomic() {
+        return atomic == null || atomic;
+    }
+}
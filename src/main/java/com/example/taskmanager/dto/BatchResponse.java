@@ -0,0 +1,11 @@
+package com.example.taskmanager.dto;
+
+import java.util.List;
+
+/**
+ * @param committed Whether the changes of an atomic batch were committed. Changes of successful operations of
+ *                  a non-atomic batch are always committed.
+ * @param results   The results in the order of the operations.
+ */
+public record BatchResponse(boolean committed, List<BatchOperationResult> results) {
+}
@@ -0,0 +1,7 @@
+package com.example.taskmanager.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record CalendarDayResponse(LocalDate date, List<TaskResponse> tasks) {
+}
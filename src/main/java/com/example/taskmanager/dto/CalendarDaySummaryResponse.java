@@ -0,0 +1,9 @@
+package com.example.taskmanager.dto;
+
+import com.example.taskmanager.data.TaskState;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+public record CalendarDaySummaryResponse(LocalDate date, Map<TaskState, Long> counts) {
+}
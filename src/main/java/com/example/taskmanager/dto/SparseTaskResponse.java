@@ -0,0 +1,45 @@
+package com.example.taskmanager.dto;
+
+import com.example.taskmanager.data.TaskField;
+import com.example.taskmanager.data.TaskState;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Task response containing only the requested fields, the others are null and not serialized.
+ */
+public record SparseTaskResponse(Set<TaskField> fields, Integer id, String description, LocalDate dueDate,
+                                 Integer userId, String username, TaskState state) {
+
+    /**
+     * @return The requested fields by name, used when the response is serialized by Jackson.
+     */
+    @JsonValue
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (TaskField field : fields) {
+            switch (field) {
+                case ID -> map.put("id", id);
+                case DESCRIPTION -> map.put("description", description);
+                case DUE_DATE -> map.put("dueDate", dueDate);
+                case ASSIGNED_USER -> map.put("assignedUser", userId == null ? null : user(true));
+                case ASSIGNED_USER_ID -> map.put("assignedUser", userId == null ? null : user(false));
+                case STATE -> map.put("state", state);
+            }
+        }
+        return map;
+    }
+
+    private Map<String, Object> user(boolean withUsername) {
+        Map<String, Object> user = new LinkedHashMap<>();
+        user.put("id", userId);
+        if (withUsername) {
+            user.put("username", username);
+        }
+        return user;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.taskmanager.dto;
+
+import com.example.taskmanager.data.TaskState;
+
+import java.util.Map;
+
+public record TaskCountResponse(long total, Map<TaskState, Long> byState) {
+}
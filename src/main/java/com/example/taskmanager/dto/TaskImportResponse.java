@@ -0,0 +1,9 @@
+package com.example.taskmanager.dto;
+
+import java.util.List;
+
+public record TaskImportResponse(long imported, long rejected, List<RejectedRow> rejectedRows) {
+
+    public record RejectedRow(long line, String message) {
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.taskmanager.dto;
+
+import java.util.List;
+
+public record TaskPageResponse(List<TaskResponse> tasks, long total, int page, int size) {
+}
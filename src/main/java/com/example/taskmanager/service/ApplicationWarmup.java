@@ -0,0 +1,196 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.data.AppUser;
+import com.example.taskmanager.data.ShardRouter;
+import com.example.taskmanager.data.SqlTrace;
+import com.example.taskmanager.data.Task;
+import com.example.taskmanager.data.TaskField;
+import com.example.taskmanager.data.TaskMapper;
+import com.example.taskmanager.data.TaskRepository;
+import com.example.taskmanager.data.TaskState;
+import com.example.taskmanager.data.UserMapper;
+import com.example.taskmanager.data.UserRepository;
+import com.example.taskmanager.dto.CreateTaskRequest;
+import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.dto.UserResponse;
+import com.example.taskmanager.web.ResponseJsonWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warms the application up before it reports readiness. Spring Boot switches the readiness state to
+ * ACCEPTING_TRAFFIC only after all application runners completed, so the warmup runs as one.
+ * It opens the configured number of pool connections on every shard, runs the repository queries on every shard and
+ * the serialization paths of the endpoints with synthetic read-only calls until the JIT compiled them, and loads
+ * the users into the second-level cache. Queries use a due date and identifiers no task has and a null state, so
+ * they prepare their statements without reading data. The unfiltered task list cannot be restricted like that, so
+ * it is read once as a one-row page. The repositories are called directly, the services would log every call.
+ * Failures are logged and never prevent the startup.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class ApplicationWarmup implements ApplicationRunner {
+
+    public static final String DURATION_METRIC = "taskmanager.warmup.duration";
+
+    private static final String TAG = "warmup";
+    private static final LocalDate WARMUP_DATE = LocalDate.of(1970, 1, 1);
+    private static final Integer WARMUP_ID = 0;
+    private static final PageRequest ONE_ROW = PageRequest.of(0, 1, Sort.by("id"));
+    private static final Set<TaskField> ALL_FIELDS = EnumSet.complementOf(EnumSet.of(TaskField.ASSIGNED_USER_ID));
+    private static final String CREATE_TASK_JSON = "{\"description\":\"warmup\",\"dueDate\":\"1970-01-01\","
+            + "\"assignedUser\":{\"id\":0},\"state\":\"TODO\"}";
+
+    private final DataSource dataSource;
+    private final ShardRouter shardRouter;
+    private final TaskRepository taskRepository;
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final TaskSearchService taskSearchService;
+    private final TaskMapper taskMapper;
+    private final UserMapper userMapper;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final MeterRegistry meterRegistry;
+    private final int connections;
+    private final int iterations;
+    private final boolean preloadUsers;
+
+    private volatile long durationMillis = -1;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        TimeGauge.builder(DURATION_METRIC, this, TimeUnit.MILLISECONDS, ApplicationWarmup::getDurationMillis)
+                .description("Duration of the warmup before readiness")
+                .register(meterRegistry);
+        log.info("Warming up with {} connections per shard and {} iterations", connections, iterations);
+        long start = System.nanoTime();
+        SqlTrace.runTagged(TAG, () -> {
+            step("connection pool", this::openConnections);
+            if (preloadUsers) {
+                step("user preload", () -> log.info("Preloaded {} users", userService.getAllUsers().size()));
+            }
+            step("unfiltered queries", () -> shardRouter.forEachShard(shard -> taskRepository.findAll(ONE_ROW)));
+            for (int iteration = 0; iteration < iterations; iteration++) {
+                step("queries", this::exerciseQueries);
+                step("serialization", this::exerciseSerialization);
+            }
+        });
+        durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Warmup completed in {} ms", durationMillis);
+    }
+
+    /**
+     * @return Duration of the completed warmup in milliseconds, -1 while it runs.
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    private void step(String name, Runnable work) {
+        try {
+            work.run();
+        } catch (RuntimeException e) {
+            log.warn("Warmup of {} failed: {}", name, e.toString());
+        }
+    }
+
+    /**
+     * Holds the connections at the same time, so that the pool of every shard has to open them.
+     * More connections than the maximum pool size would wait for the connection timeout.
+     */
+    private void openConnections() {
+        shardRouter.forEachShard(shard -> {
+            List<Connection> opened = new ArrayList<>();
+            try {
+                for (int index = 0; index < connections; index++) {
+                    Connection connection = dataSource.getConnection();
+                    opened.add(connection);
+                    connection.isValid(1);
+                }
+            } catch (SQLException e) {
+                log.warn("Opened only {} connections on shard {}: {}", opened.size(), shard, e.toString());
+            } finally {
+                for (Connection connection : opened) {
+                    try {
+                        connection.close();
+                    } catch (SQLException e) {
+                        log.debug("Failed to close warmup connection", e);
+                    }
+                }
+            }
+        });
+    }
+
+    private void exerciseQueries() {
+        shardRouter.forEachShard(shard -> {
+            taskRepository.findById(WARMUP_ID);
+            taskRepository.findByAssignedUserId(WARMUP_ID);
+            taskRepository.findByState(null);
+            taskRepository.findByDueDate(WARMUP_DATE);
+            taskRepository.findByDueDateAndState(WARMUP_DATE, TaskState.TODO, ONE_ROW);
+            taskRepository.countByDueDateAndState(WARMUP_DATE, TaskState.TODO);
+            taskRepository.search(TaskState.TODO, WARMUP_ID, WARMUP_DATE, ONE_ROW);
+            taskRepository.countByState(WARMUP_ID, WARMUP_DATE);
+            taskRepository.findByDueDateBetweenOrderByDueDateAscIdAsc(WARMUP_DATE, WARMUP_DATE);
+            taskRepository.findByDueDateBetweenAndAssignedUserIdOrderByDueDateAscIdAsc(WARMUP_DATE, WARMUP_DATE, WARMUP_ID);
+            taskRepository.countByDueDateAndState(WARMUP_DATE, WARMUP_DATE, null);
+            taskRepository.findFieldsByAssignedUserId(ALL_FIELDS, WARMUP_ID);
+            taskRepository.findFieldsByDueDate(ALL_FIELDS, WARMUP_DATE);
+            userRepository.findById(WARMUP_ID);
+        });
+        taskSearchService.searchTasks(TaskState.TODO, WARMUP_ID, WARMUP_DATE, 0, 1);
+        taskSearchService.countTasksByState(WARMUP_ID, WARMUP_DATE);
+    }
+
+    /**
+     * Reads a create request like the endpoint does, validates it and writes task and user responses
+     * with both the specialized writer and Jackson.
+     */
+    private void exerciseSerialization() {
+        try {
+            CreateTaskRequest request = objectMapper.readValue(CREATE_TASK_JSON, CreateTaskRequest.class);
+            validator.validate(request);
+
+            AppUser user = new AppUser();
+            user.setId(1);
+            user.setUsername("warmup");
+            Task task = new Task();
+            task.setId(1);
+            task.setDescription(request.description());
+            task.setDueDate(request.dueDate());
+            task.setAssignedUser(user);
+            task.setState(request.state());
+            TaskResponse taskResponse = taskMapper.taskToTaskResponse(task);
+            UserResponse userResponse = userMapper.userToUserResponse(user);
+
+            ResponseJsonWriter writer = new ResponseJsonWriter(OutputStream.nullOutputStream());
+            writer.write(List.of(taskResponse, taskResponse));
+            writer.write(List.of(userResponse));
+            writer.flush();
+            objectMapper.writeValueAsBytes(taskResponse);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.data.AppUser;
+import com.example.taskmanager.data.Task;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the local caches of several application instances consistent through PostgreSQL LISTEN/NOTIFY.
+ * Task and user changes, which the services publish once their transaction commits, are sent as {@link ChangeNotice}s
+ * batched into as few notifications as possible. A dedicated connection outside of the pool listens for the notices of the other
+ * instances, coalesces them and replays them to the local change listeners, after evicting the changed entities
+ * from the Hibernate second-level cache. Notices sent while the listening connection was down are lost, so after a
+ * reconnect every local cache is cleared.
+ */
+@ManagedResource(objectName = "com.example.taskmanager:type=CacheInvalidationBus")
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationBus implements TaskChangeListener, UserChangeListener {
+
+    public static final String CHANNEL = "task_manager_changes";
+
+    private static final ThreadLocal<Boolean> REPLAYING = ThreadLocal.withInitial(() -> false);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskService taskService;
+    private final UserService userService;
+    private final EntityManagerFactory entityManagerFactory;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final long batchWindowMillis;
+    private final long reconnectDelayMillis;
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final BlockingQueue<String> outgoing = new LinkedBlockingQueue<>();
+    private final AtomicLong sentNotices = new AtomicLong();
+    private final AtomicLong sendFailures = new AtomicLong();
+    private final AtomicLong receivedNotices = new AtomicLong();
+    private final AtomicLong resyncs = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile boolean listening;
+    private Thread sender;
+    private Thread listener;
+
+    public void start() {
+        running = true;
+        sender = new Thread(this::sendLoop, "cache-bus-sender");
+        listener = new Thread(this::listenLoop, "cache-bus-listener");
+        sender.setDaemon(true);
+        listener.setDaemon(true);
+        sender.start();
+        listener.start();
+        log.info("Started cache invalidation bus on channel {} as node {}", CHANNEL, nodeId);
+    }
+
+    public void stop() throws InterruptedException {
+        running = false;
+        sender.interrupt();
+        listener.interrupt();
+        sender.join(TimeUnit.SECONDS.toMillis(5));
+        listener.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    @Override
+    public void onTaskChange(TaskChange change) {
+        if (!REPLAYING.get()) {
+            outgoing.add(ChangeNotice.encode(change));
+        }
+    }
+
+    @Override
+    public void onUserChange(UserChange change) {
+        if (!REPLAYING.get()) {
+            outgoing.add(ChangeNotice.encode(change));
+        }
+    }
+
+    private void sendLoop() {
+        while (running) {
+            try {
+                String first = outgoing.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                Thread.sleep(batchWindowMillis);
+                List<String> notices = new ArrayList<>();
+                notices.add(first);
+                outgoing.drainTo(notices);
+                send(notices);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void send(List<String> notices) {
+        for (String payload : ChangeNotice.payloads(nodeId, notices)) {
+            try {
+                jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, payload);
+            } catch (DataAccessException e) {
+                sendFailures.incrementAndGet();
+                log.warn("Failed to send cache invalidation notices, other instances may serve stale data until they expire", e);
+            }
+        }
+        sentNotices.addAndGet(notices.size());
+    }
+
+    private void listenLoop() {
+        boolean missedNotices = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                listening = true;
+                if (missedNotices) {
+                    log.info("Cache invalidation listener reconnected, clearing local caches");
+                    resync();
+                    missedNotices = false;
+                }
+                listen(connection.unwrap(PGConnection.class), connection);
+            } catch (SQLException e) {
+                missedNotices = true;
+                log.warn("Cache invalidation listener lost its connection, reconnecting in {} ms: {}",
+                        reconnectDelayMillis, e.getMessage());
+            } finally {
+                listening = false;
+            }
+            try {
+                Thread.sleep(reconnectDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Waits for notifications until the bus stops or the connection fails. Notifications arriving within the batch
+     * window of the first one are applied together. An idle connection is validated every ten seconds, a broken
+     * socket does not always surface as an error while waiting.
+     */
+    private void listen(PGConnection pgConnection, Connection connection) throws SQLException {
+        long lastActivity = System.nanoTime();
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications(1000);
+            if (notifications == null || notifications.length == 0) {
+                if (System.nanoTime() - lastActivity > TimeUnit.SECONDS.toNanos(10)) {
+                    if (!connection.isValid(5)) {
+                        throw new SQLException("Listening connection is no longer valid");
+                    }
+                    lastActivity = System.nanoTime();
+                }
+                continue;
+            }
+            List<PGNotification> batch = new ArrayList<>(List.of(notifications));
+            if (batchWindowMillis > 0) {
+                PGNotification[] more = pgConnection.getNotifications((int) batchWindowMillis);
+                if (more != null) {
+                    batch.addAll(List.of(more));
+                }
+            }
+            apply(batch);
+            lastActivity = System.nanoTime();
+        }
+    }
+
+    /**
+     * Applies the notices of other instances received on the channel in order, the notices sent by this instance are
+     * skipped. The listeners apply changes as deltas, so only repeated bulk notices within the batch are applied once.
+     *
+     * @param notifications The notifications received together.
+     */
+    public void apply(List<PGNotification> notifications) {
+        List<String> notices = new ArrayList<>();
+        Set<String> bulkNotices = new HashSet<>();
+        for (PGNotification notification : notifications) {
+            String[] lines = notification.getParameter().split("\n");
+            if (lines[0].equals(nodeId)) {
+                continue;
+            }
+            for (String notice : List.of(lines).subList(1, lines.length)) {
+                if (!ChangeNotice.isBulkNotice(notice) || bulkNotices.add(notice)) {
+                    notices.add(notice);
+                }
+            }
+        }
+        if (notices.isEmpty()) {
+            return;
+        }
+        receivedNotices.addAndGet(notices.size());
+
+        jakarta.persistence.Cache entityCache = entityManagerFactory.getCache();
+        REPLAYING.set(true);
+        try {
+            for (String notice : notices) {
+                try {
+                    if (ChangeNotice.isTaskNotice(notice)) {
+                        TaskChange change = ChangeNotice.decodeTaskChange(notice);
+                        if (change.taskId() != null) {
+                            entityCache.evict(Task.class, change.taskId());
+                        } else {
+                            entityCache.evict(Task.class);
+                        }
+                        taskService.publishExternalChange(change);
+                    } else {
+                        UserChange change = ChangeNotice.decodeUserChange(notice);
+                        if (change.userId() != null) {
+                            entityCache.evict(AppUser.class, change.userId());
+                        } else {
+                            entityCache.evict(AppUser.class);
+                        }
+                        userService.publishExternalChange(change);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Failed to apply cache invalidation notice {}", notice, e);
+                }
+            }
+        } finally {
+            REPLAYING.set(false);
+        }
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+        log.debug("Applied {} cache invalidation notices", notices.size());
+    }
+
+    /**
+     * Clears every local cache, used when notices may have been missed.
+     */
+    @ManagedOperation(description = "Clears every local cache")
+    public void resync() {
+        resyncs.incrementAndGet();
+        entityManagerFactory.getCache().evictAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+        REPLAYING.set(true);
+        try {
+            taskService.publishExternalChange(TaskChange.bulk());
+            userService.publishExternalChange(new UserChange(ChangeType.BULK, null));
+        } finally {
+            REPLAYING.set(false);
+        }
+    }
+
+    @ManagedAttribute(description = "Identifier of this instance in the notices")
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @ManagedAttribute(description = "Whether the listening connection is established")
+    public boolean isListening() {
+        return listening;
+    }
+
+    @ManagedAttribute(description = "Notices sent to other instances")
+    public long getSentNotices() {
+        return sentNotices.get();
+    }
+
+    @ManagedAttribute(description = "Notifications that could not be sent")
+    public long getSendFailures() {
+        return sendFailures.get();
+    }
+
+    @ManagedAttribute(description = "Notices received from other instances")
+    public long getReceivedNotices() {
+        return receivedNotices.get();
+    }
+
+    @ManagedAttribute(description = "Times every local cache was cleared")
+    public long getResyncs() {
+        return resyncs.get();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.data.TaskState;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact text encoding of task and user changes sent between instances through PostgreSQL notifications.
+ * A task change is encoded as "T,type,id,oldState,newState,oldDueDate,newDueDate,oldUserId,newUserId" and a user
+ * change as "U,type,id", unknown values are left empty. A notification payload starts with the identifier of the
+ * sending instance followed by one notice per line.
+ */
+public final class ChangeNotice {
+
+    /**
+     * Payloads of PostgreSQL notifications are limited to 8000 bytes, notices are ASCII.
+     */
+    public static final int MAX_PAYLOAD_LENGTH = 7900;
+
+    private ChangeNotice() {
+    }
+
+    public static String encode(TaskChange change) {
+        return String.join(",", "T", change.type().name(), text(change.taskId()), text(change.oldState()),
+                text(change.newState()), text(change.oldDueDate()), text(change.newDueDate()),
+                text(change.oldUserId()), text(change.newUserId()));
+    }
+
+    public static String encode(UserChange change) {
+        return String.join(",", "U", change.type().name(), text(change.userId()));
+    }
+
+    public static boolean isTaskNotice(String notice) {
+        return notice.startsWith("T,");
+    }
+
+    public static boolean isBulkNotice(String notice) {
+        return notice.startsWith(",BULK,", 1);
+    }
+
+    public static TaskChange decodeTaskChange(String notice) {
+        String[] values = notice.split(",", -1);
+        return new TaskChange(ChangeType.valueOf(values[1]), integer(values[2]), state(values[3]), state(values[4]),
+                date(values[5]), date(values[6]), integer(values[7]), integer(values[8]));
+    }
+
+    public static UserChange decodeUserChange(String notice) {
+        String[] values = notice.split(",", -1);
+        return new UserChange(ChangeType.valueOf(values[1]), integer(values[2]));
+    }
+
+    /**
+     * Packs notices into as few payloads as the payload limit allows.
+     *
+     * @param nodeId  The identifier of the sending instance.
+     * @param notices The encoded notices.
+     * @return The notification payloads.
+     */
+    public static List<String> payloads(String nodeId, List<String> notices) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(nodeId);
+        for (String notice : notices) {
+            if (payload.length() + 1 + notice.length() > MAX_PAYLOAD_LENGTH && payload.length() > nodeId.length()) {
+                payloads.add(payload.toString());
+                payload.setLength(0);
+                payload.append(nodeId);
+            }
+            payload.append('\n').append(notice);
+        }
+        if (payload.length() > nodeId.length()) {
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+
+    private static String text(Object value) {
+        return value != null ? value.toString() : "";
+    }
+
+    private static Integer integer(String value) {
+        return value.isEmpty() ? null : Integer.valueOf(value);
+    }
+
+    private static TaskState state(String value) {
+        return value.isEmpty() ? null : TaskState.valueOf(value);
+    }
+
+    private static LocalDate date(String value) {
+        return value.isEmpty() ? null : LocalDate.parse(value);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.taskmanager.service;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    BULK
+}
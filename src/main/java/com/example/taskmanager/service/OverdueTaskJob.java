@@ -0,0 +1,247 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.data.SqlTrace;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.scheduling.support.CronTrigger;
+
+import java.time.Instant;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scheduled job moving overdue tasks to the DELAYED state, controllable and observable via JMX.
+ * The cron expression and batch size changed at runtime are not persisted, a restart uses the configured values.
+ */
+@ManagedResource(objectName = "com.example.taskmanager:type=OverdueTaskJob",
+        description = "Moves overdue TODO tasks to DELAYED")
+@Slf4j
+public class OverdueTaskJob {
+
+    private static final String TAG = "job:overdueTasks";
+
+    private final TaskService taskService;
+    private final TaskScheduler taskScheduler;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong runCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong totalTransitioned = new AtomicLong();
+
+    private volatile String cronExpression;
+    private volatile int batchSize;
+    private volatile boolean paused;
+    private ScheduledFuture<?> schedule;
+
+    private volatile Instant lastRunStart;
+    private volatile long lastRunDurationMillis;
+    private volatile long lastRunScanned;
+    private volatile long lastRunTransitioned;
+    private volatile Instant lastFailureTime;
+    private volatile String lastFailure;
+
+    /**
+     * @param taskService    The task service performing the update.
+     * @param taskScheduler  The scheduler running the job.
+     * @param cronExpression The initial cron expression.
+     * @param batchSize      The initial number of tasks loaded at once.
+     */
+    public OverdueTaskJob(TaskService taskService, TaskScheduler taskScheduler, String cronExpression, int batchSize) {
+        this.taskService = taskService;
+        this.taskScheduler = taskScheduler;
+        this.cronExpression = validCron(cronExpression);
+        this.batchSize = validBatchSize(batchSize);
+    }
+
+    /**
+     * Schedules the job with the current cron expression.
+     */
+    public synchronized void start() {
+        schedule = taskScheduler.schedule(this::runScheduled, new CronTrigger(cronExpression));
+        log.info("Scheduled overdue task job with cron expression {}", cronExpression);
+    }
+
+    /**
+     * Cancels the schedule, a run in progress is completed.
+     */
+    public synchronized void stop() {
+        if (schedule != null) {
+            schedule.cancel(false);
+            schedule = null;
+        }
+    }
+
+    private void runScheduled() {
+        if (paused) {
+            log.info("Overdue task job is paused, skipping scheduled run");
+            return;
+        }
+        run();
+    }
+
+    /**
+     * Runs the job unless a run is already in progress, also while the job is paused.
+     *
+     * @return Summary of the run.
+     */
+    @ManagedOperation(description = "Runs the job now and returns a summary")
+    public String runNow() {
+        log.info("Overdue task job triggered manually");
+        return run();
+    }
+
+    private String run() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Overdue task job is already running");
+            return "Already running";
+        }
+        Instant start = Instant.now();
+        long startNanos = System.nanoTime();
+        try {
+            OverdueTaskRun result = SqlTrace.callTagged(TAG, () -> taskService.updateTaskStateForOverdueTasks(batchSize));
+            lastRunScanned = result.scanned();
+            lastRunTransitioned = result.transitioned();
+            totalTransitioned.addAndGet(result.transitioned());
+            return "Scanned " + result.scanned() + " and transitioned " + result.transitioned() + " tasks";
+        } catch (RuntimeException e) {
+            failureCount.incrementAndGet();
+            lastFailureTime = start;
+            lastFailure = e.toString();
+            log.error("Overdue task job failed", e);
+            return "Failed: " + e;
+        } finally {
+            lastRunStart = start;
+            lastRunDurationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            runCount.incrementAndGet();
+            running.set(false);
+        }
+    }
+
+    /**
+     * Counts the tasks a run would transition, without changing them.
+     *
+     * @return Number of overdue tasks in TODO state.
+     */
+    @ManagedOperation(description = "Counts the tasks a run would transition without changing them")
+    public long dryRun() {
+        return taskService.countOverdueTasks();
+    }
+
+    @ManagedOperation(description = "Skips scheduled runs until resumed")
+    public void pause() {
+        paused = true;
+        log.info("Overdue task job paused");
+    }
+
+    @ManagedOperation(description = "Resumes scheduled runs")
+    public void resume() {
+        paused = false;
+        log.info("Overdue task job resumed");
+    }
+
+    @ManagedAttribute(description = "Whether scheduled runs are skipped")
+    public boolean isPaused() {
+        return paused;
+    }
+
+    @ManagedAttribute(description = "Whether a run is in progress")
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    @ManagedAttribute(description = "Cron expression of the schedule")
+    public String getCronExpression() {
+        return cronExpression;
+    }
+
+    /**
+     * Replaces the cron expression and reschedules the job with it.
+     *
+     * @param cronExpression The new cron expression.
+     * @throws IllegalArgumentException If the expression is not a valid cron expression.
+     */
+    @ManagedAttribute(description = "Cron expression of the schedule")
+    public synchronized void setCronExpression(String cronExpression) {
+        this.cronExpression = validCron(cronExpression);
+        if (schedule != null) {
+            stop();
+            start();
+        }
+    }
+
+    @ManagedAttribute(description = "Number of tasks loaded at once")
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    @ManagedAttribute(description = "Number of tasks loaded at once")
+    public void setBatchSize(int batchSize) {
+        this.batchSize = validBatchSize(batchSize);
+        log.info("Overdue task job batch size set to {}", batchSize);
+    }
+
+    @ManagedAttribute(description = "Start of the last run")
+    public String getLastRunStart() {
+        return lastRunStart != null ? lastRunStart.toString() : null;
+    }
+
+    @ManagedAttribute(description = "Duration of the last run in milliseconds")
+    public long getLastRunDurationMillis() {
+        return lastRunDurationMillis;
+    }
+
+    @ManagedAttribute(description = "Overdue tasks read by the last run")
+    public long getLastRunScanned() {
+        return lastRunScanned;
+    }
+
+    @ManagedAttribute(description = "Tasks moved to DELAYED by the last run")
+    public long getLastRunTransitioned() {
+        return lastRunTransitioned;
+    }
+
+    @ManagedAttribute(description = "Tasks moved to DELAYED since startup")
+    public long getTotalTransitioned() {
+        return totalTransitioned.get();
+    }
+
+    @ManagedAttribute(description = "Runs since startup")
+    public long getRunCount() {
+        return runCount.get();
+    }
+
+    @ManagedAttribute(description = "Failed runs since startup")
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    @ManagedAttribute(description = "Start of the last failed run")
+    public String getLastFailureTime() {
+        return lastFailureTime != null ? lastFailureTime.toString() : null;
+    }
+
+    @ManagedAttribute(description = "Exception of the last failed run")
+    public String getLastFailure() {
+        return lastFailure;
+    }
+
+    private static String validCron(String cronExpression) {
+        if (!CronExpression.isValidExpression(cronExpression)) {
+            throw new IllegalArgumentException("Invalid cron expression: " + cronExpression);
+        }
+        return cronExpression;
+    }
+
+    private static int validBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        return batchSize;
+    }
+}
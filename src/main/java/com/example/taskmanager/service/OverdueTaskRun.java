@@ -0,0 +1,10 @@
+package com.example.taskmanager.service;
+
+/**
+ * Result of one run of the overdue task update.
+ *
+ * @param scanned      Number of overdue tasks read.
+ * @param transitioned Number of tasks moved to DELAYED.
+ */
+public record OverdueTaskRun(long scanned, long transitioned) {
+}
@@ -0,0 +1,273 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.data.AppUser;
+import com.example.taskmanager.data.ShardRouter;
+import com.example.taskmanager.data.Task;
+import com.example.taskmanager.data.TaskField;
+import com.example.taskmanager.data.TaskRepository;
+import com.example.taskmanager.data.TaskState;
+import com.example.taskmanager.dto.CreateTaskRequest;
+import com.example.taskmanager.dto.SparseTaskResponse;
+import com.example.taskmanager.dto.UpdateTaskRequest;
+import jakarta.annotation.Nonnull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Task service keeping every task on the shard of its assigned user.
+ * A task is looked up on the shard its identifier was generated on first and on the other shards only when it
+ * has been moved there by reassignment. Queries over all tasks fan out to every shard in parallel.
+ */
+@Slf4j
+public class ShardedTaskService extends TaskService {
+
+    private final TaskRepository taskRepository;
+    private final ShardRouter shardRouter;
+
+    public ShardedTaskService(TaskRepository taskRepository, ShardRouter shardRouter) {
+        super(taskRepository);
+        this.taskRepository = taskRepository;
+        this.shardRouter = shardRouter;
+    }
+
+    @Nonnull
+    @Override
+    public Optional<Task> getTaskById(@Nonnull Integer taskId) {
+        if (taskId == null) {
+            throw new NullPointerException("Task id cannot be null");
+        }
+        int createdOn = shardRouter.shardForTask(taskId);
+        Optional<Task> task = shardRouter.callOn(createdOn, () -> super.getTaskById(taskId));
+        if (task.isPresent()) {
+            return task;
+        }
+        return locateMoved(taskId, createdOn).flatMap(shard -> shardRouter.callOn(shard, () -> super.getTaskById(taskId)));
+    }
+
+    @Nonnull
+    @Override
+    public List<Task> getAllTasks() {
+        return shardRouter.fanOut(super::getAllTasks);
+    }
+
+    @Nonnull
+    @Override
+    public Task addTask(@Nonnull CreateTaskRequest request) {
+        int shard = shardRouter.shardForUser(userId(request.assignedUser()));
+        return shardRouter.callOn(shard, () -> super.addTask(request));
+    }
+
+    /**
+     * Adds the tasks one by one on the shards of their users.
+     */
+    @Nonnull
+    @Override
+    public List<Task> addTasks(@Nonnull List<CreateTaskRequest> requests) {
+        return requests.stream().map(this::addTask).toList();
+    }
+
+    /**
+     * Updates the task in place on its shard. A task reassigned to a user on another shard is moved there,
+     * see {@link #move(Integer, int, int, UpdateTaskRequest)}.
+     */
+    @Nonnull
+    @Override
+    public Optional<Task> updateTask(@Nonnull Integer taskId, @Nonnull UpdateTaskRequest request) {
+        Integer targetUserId = userId(request.assignedUser());
+        Integer targetShard = targetUserId != null ? shardRouter.shardForUser(targetUserId) : null;
+        int createdOn = shardRouter.shardForTask(taskId);
+        if (targetShard == null || targetShard == createdOn) {
+            Optional<Task> updated = shardRouter.callOn(createdOn, () -> super.updateTask(taskId, request));
+            if (updated.isPresent()) {
+                return updated;
+            }
+        }
+
+        Optional<Integer> source = locate(taskId);
+        if (source.isEmpty()) {
+            return Optional.empty();
+        }
+        if (targetShard == null || targetShard.equals(source.get())) {
+            return shardRouter.callOn(source.get(), () -> super.updateTask(taskId, request));
+        }
+        return move(taskId, source.get(), targetShard, request);
+    }
+
+    /**
+     * Moves a task to another shard. The task is inserted on the target shard with the same identifier and then
+     * deleted from the source shard, each in its own transaction. When the delete fails, or finds the task deleted
+     * concurrently, the inserted copy is deleted again, so the task is either moved or stays where it was.
+     * Only when that compensation fails as well the task exists on both shards, which is logged as an error,
+     * lookups then return the copy on the shard its identifier was generated on, or else on the lowest shard.
+     */
+    private Optional<Task> move(Integer taskId, int sourceShard, int targetShard, UpdateTaskRequest request) {
+        Optional<Task> existing = shardRouter.callOn(sourceShard, () -> taskRepository.findById(taskId));
+        if (existing.isEmpty()) {
+            return Optional.empty();
+        }
+        Task task = existing.get();
+        TaskState oldState = task.getState();
+        LocalDate oldDueDate = task.getDueDate();
+        Integer oldUserId = TaskChange.userId(task);
+        if (request.description() != null) {
+            task.setDescription(request.description());
+        }
+        if (request.dueDate() != null) {
+            task.setDueDate(request.dueDate());
+        }
+        if (request.state() != null) {
+            task.setState(request.state());
+        }
+        task.setAssignedUser(request.assignedUser());
+
+        log.info("Moving task {} from shard {} to shard {}", taskId, sourceShard, targetShard);
+        shardRouter.runOn(targetShard, () -> taskRepository.insertWithId(task));
+        Optional<Task> removed;
+        try {
+            removed = shardRouter.callOn(sourceShard, () -> taskRepository.deleteReturning(taskId));
+        } catch (RuntimeException e) {
+            undoInsert(taskId, targetShard, e);
+            throw e;
+        }
+        if (removed.isEmpty()) {
+            log.info("Task {} was deleted while moving it to shard {}", taskId, targetShard);
+            undoInsert(taskId, targetShard, null);
+            return Optional.empty();
+        }
+        publish(TaskChange.updated(oldState, oldDueDate, oldUserId, task));
+        return Optional.of(task);
+    }
+
+    /**
+     * Deletes the copy inserted by a failed move from the target shard.
+     */
+    private void undoInsert(Integer taskId, int targetShard, RuntimeException cause) {
+        try {
+            shardRouter.runOn(targetShard, () -> taskRepository.deleteReturning(taskId));
+        } catch (RuntimeException e) {
+            if (cause != null) {
+                cause.addSuppressed(e);
+            }
+            log.error("Task {} could not be removed from shard {} after a failed move, it exists on two shards",
+                    taskId, targetShard, e);
+        }
+    }
+
+    @Override
+    public void deleteTask(@Nonnull Integer taskId) {
+        locate(taskId).ifPresent(shard -> shardRouter.runOn(shard, () -> super.deleteTask(taskId)));
+    }
+
+    @Nonnull
+    @Override
+    public List<Task> getTasksByState(@Nonnull TaskState state) {
+        return shardRouter.fanOut(() -> super.getTasksByState(state));
+    }
+
+    @Nonnull
+    @Override
+    public List<Task> getTasksForUser(@Nonnull Integer userId) {
+        return shardRouter.callOn(shardRouter.shardForUser(userId), () -> super.getTasksForUser(userId));
+    }
+
+    @Nonnull
+    @Override
+    public List<Task> getTasksByDueDate(@Nonnull LocalDate dueDate) {
+        return shardRouter.fanOut(() -> super.getTasksByDueDate(dueDate));
+    }
+
+    @Nonnull
+    @Override
+    public List<Task> getTasksByDueDateRange(@Nonnull LocalDate from, @Nonnull LocalDate to, Integer userId) {
+        if (userId != null) {
+            return shardRouter.callOn(shardRouter.shardForUser(userId), () -> super.getTasksByDueDateRange(from, to, userId));
+        }
+        List<Task> tasks = new ArrayList<>(shardRouter.fanOut(() -> super.getTasksByDueDateRange(from, to, null)));
+        tasks.sort(Comparator.comparing(Task::getDueDate).thenComparing(Task::getId));
+        return tasks;
+    }
+
+    @Override
+    protected List<Object[]> countRowsByDueDateAndState(LocalDate from, LocalDate to, Integer userId) {
+        if (userId != null) {
+            return shardRouter.callOn(shardRouter.shardForUser(userId), () -> super.countRowsByDueDateAndState(from, to, userId));
+        }
+        return shardRouter.fanOut(() -> super.countRowsByDueDateAndState(from, to, null));
+    }
+
+    @Nonnull
+    @Override
+    public List<SparseTaskResponse> getAllTasks(@Nonnull Set<TaskField> fields) {
+        return shardRouter.fanOut(() -> super.getAllTasks(fields));
+    }
+
+    @Nonnull
+    @Override
+    public List<SparseTaskResponse> getTasksByState(@Nonnull TaskState state, @Nonnull Set<TaskField> fields) {
+        return shardRouter.fanOut(() -> super.getTasksByState(state, fields));
+    }
+
+    @Nonnull
+    @Override
+    public List<SparseTaskResponse> getTasksForUser(@Nonnull Integer userId, @Nonnull Set<TaskField> fields) {
+        return shardRouter.callOn(shardRouter.shardForUser(userId), () -> super.getTasksForUser(userId, fields));
+    }
+
+    @Nonnull
+    @Override
+    public List<SparseTaskResponse> getTasksByDueDate(@Nonnull LocalDate dueDate, @Nonnull Set<TaskField> fields) {
+        return shardRouter.fanOut(() -> super.getTasksByDueDate(dueDate, fields));
+    }
+
+    @Override
+    public OverdueTaskRun updateTaskStateForOverdueTasks(int batchSize) {
+        long[] counts = new long[2];
+        shardRouter.forEachShard(shard -> {
+            OverdueTaskRun run = super.updateTaskStateForOverdueTasks(batchSize);
+            counts[0] += run.scanned();
+            counts[1] += run.transitioned();
+        });
+        return new OverdueTaskRun(counts[0], counts[1]);
+    }
+
+    @Override
+    public long countOverdueTasks() {
+        long[] count = new long[1];
+        shardRouter.forEachShard(shard -> count[0] += super.countOverdueTasks());
+        return count[0];
+    }
+
+    /**
+     * Finds the shard holding the task, trying the shard its identifier was generated on first.
+     */
+    private Optional<Integer> locate(Integer taskId) {
+        int createdOn = shardRouter.shardForTask(taskId);
+        if (shardRouter.callOn(createdOn, () -> taskRepository.existsById(taskId))) {
+            return Optional.of(createdOn);
+        }
+        return locateMoved(taskId, createdOn);
+    }
+
+    /**
+     * Finds the shard holding a task which was moved away from the shard it was created on.
+     */
+    private Optional<Integer> locateMoved(Integer taskId, int createdOn) {
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            int candidate = shard;
+            if (shard != createdOn && shardRouter.callOn(shard, () -> taskRepository.existsById(taskId))) {
+                return Optional.of(candidate);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Integer userId(AppUser user) {
+        return user != null ? user.getId() : null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.data.AppUser;
+import com.example.taskmanager.data.ShardRouter;
+import com.example.taskmanager.data.TaskState;
+import com.example.taskmanager.data.UserRepository;
+import com.example.taskmanager.dto.CreateUserRequest;
+import com.example.taskmanager.dto.UpdateUserRequest;
+import jakarta.annotation.Nonnull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * User service spreading users over the shards of the {@link ShardRouter}.
+ * Operations on a single user run on the shard derived from its identifier, listing all users fans out.
+ */
+@Slf4j
+public class ShardedUserService extends UserService {
+
+    private final ShardRouter shardRouter;
+
+    public ShardedUserService(UserRepository userRepository, ShardRouter shardRouter) {
+        super(userRepository);
+        this.shardRouter = shardRouter;
+    }
+
+    @Nonnull
+    @Override
+    public List<AppUser> getAllUsers() {
+        return shardRouter.fanOut(super::getAllUsers);
+    }
+
+    /**
+     * Tasks live on the shard of their user, so the counts of every shard are complete for its users.
+     */
+    @Override
+    protected List<Object[]> countTaskRowsPerUser(Collection<TaskState> states) {
+        return shardRouter.fanOut(() -> super.countTaskRowsPerUser(states));
+    }
+
+    @Nonnull
+    @Override
+    public Optional<AppUser> getUserById(@Nonnull Integer userId) {
+        if (userId == null) {
+            throw new NullPointerException("User id cannot be null");
+        }
+        return shardRouter.callOn(shardRouter.shardForUser(userId), () -> super.getUserById(userId));
+    }
+
+    @Nonnull
+    @Override
+    public AppUser addUser(@Nonnull CreateUserRequest request) {
+        int shard = shardRouter.shardForNewUser();
+        log.info("Adding a new user on shard {}", shard);
+        return shardRouter.callOn(shard, () -> super.addUser(request));
+    }
+
+    @Nonnull
+    @Override
+    public Optional<AppUser> updateUser(@Nonnull Integer userId, @Nonnull UpdateUserRequest request) {
+        return shardRouter.callOn(shardRouter.shardForUser(userId), () -> super.updateUser(userId, request));
+    }
+
+    @Override
+    public void deleteUser(@Nonnull Integer userId) {
+        shardRouter.runOn(shardRouter.shardForUser(userId), () -> super.deleteUser(userId));
+    }
+}
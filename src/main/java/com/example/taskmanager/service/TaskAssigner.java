@@ -0,0 +1,250 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.data.TaskState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Picks the user with the fewest open tasks for automatic assignment, without reading the database.
+ * The open tasks of every user are kept in a {@link UserLoadHeap}, seeded by one grouped query and updated from
+ * the task and user changes. A user is picked before the task is created, so tasks created concurrently
+ * may go to the same user until the change of the first one arrives. Within a transaction a picked user can be
+ * reserved, so the next pick of the same transaction already counts the task about to be created. Changes arriving
+ * while the counts are reloaded are replayed onto the reloaded counts, so a rebuild does not lose them.
+ */
+@ManagedResource(objectName = "com.example.taskmanager:type=TaskAssigner")
+@RequiredArgsConstructor
+@Slf4j
+public class TaskAssigner implements TaskChangeListener, UserChangeListener {
+
+    public static final Set<TaskState> OPEN_STATES = EnumSet.of(TaskState.TODO, TaskState.IN_PROGRESS, TaskState.DELAYED);
+
+    private final UserService userService;
+    private final UserLoadHeap heap = new UserLoadHeap();
+    private final Object rebuildMonitor = new Object();
+    private List<Object> pendingChanges;
+
+    /**
+     * Reloads the open tasks of every user from the database. The task and user changes published during the
+     * query are buffered and replayed onto its result.
+     */
+    @ManagedOperation(description = "Reloads the open tasks of every user from the database")
+    public void rebuild() {
+        synchronized (rebuildMonitor) {
+            synchronized (heap) {
+                pendingChanges = new ArrayList<>();
+            }
+            Map<Integer, Long> counts = null;
+            try {
+                counts = userService.countTasksPerUser(OPEN_STATES);
+            } finally {
+                synchronized (heap) {
+                    if (counts != null) {
+                        heap.clear();
+                        counts.forEach(heap::put);
+                        pendingChanges.forEach(this::replay);
+                    }
+                    pendingChanges = null;
+                }
+            }
+            log.info("Loaded open tasks of {} users", counts.size());
+        }
+    }
+
+    private void replay(Object change) {
+        if (change instanceof TaskChange taskChange) {
+            apply(taskChange);
+        } else if (change instanceof Reservation reservation) {
+            apply(reservation);
+        } else {
+            apply((UserChange) change);
+        }
+    }
+
+    private void buffer(Object change) {
+        if (pendingChanges != null) {
+            pendingChanges.add(change);
+        }
+    }
+
+    /**
+     * @return The user with the fewest open tasks, ties going to the lower user id, or empty without users.
+     */
+    public Optional<Integer> leastLoadedUser() {
+        synchronized (heap) {
+            return Optional.ofNullable(heap.peek());
+        }
+    }
+
+    /**
+     * Picks the least loaded user like {@link #leastLoadedUser()} and counts an open task for them right away, so
+     * the next pick in the current transaction sees it. Once the transaction commits, the change of the open task
+     * created for the user is not counted again; the reservation is undone if the transaction rolls back or creates
+     * no open task for the user. Without a transaction this is {@link #leastLoadedUser()}, as the change of the
+     * created task is published right away.
+     *
+     * @return The reserved user, or empty without users.
+     */
+    public Optional<Integer> reserveLeastLoadedUser() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return leastLoadedUser();
+        }
+        synchronized (heap) {
+            Integer userId = heap.peek();
+            if (userId == null) {
+                return Optional.empty();
+            }
+            Reservation reservation = new Reservation(userId, 1);
+            apply(reservation);
+            buffer(reservation);
+            reservations().userIds.add(userId);
+            return Optional.of(userId);
+        }
+    }
+
+    private Reservations reservations() {
+        Reservations reservations = currentReservations();
+        if (reservations == null) {
+            reservations = new Reservations();
+            TransactionSynchronizationManager.registerSynchronization(reservations);
+        }
+        return reservations;
+    }
+
+    private Reservations currentReservations() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Reservations reservations && reservations.belongsTo(this)) {
+                return reservations;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return Whether the change is the creation of an open task for a user reserved in the current transaction,
+     * consuming the reservation.
+     */
+    private boolean consumeReservation(TaskChange change) {
+        if (change.type() != ChangeType.CREATED || change.newUserId() == null || !isOpen(change.newState())
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        Reservations reservations = currentReservations();
+        return reservations != null && reservations.userIds.remove(change.newUserId());
+    }
+
+    @Override
+    public void onTaskChange(TaskChange change) {
+        if (change.type() == ChangeType.BULK) {
+            rebuild();
+            return;
+        }
+        synchronized (heap) {
+            if (consumeReservation(change)) {
+                return;
+            }
+            apply(change);
+            buffer(change);
+        }
+    }
+
+    @Override
+    public void onUserChange(UserChange change) {
+        if (change.type() == ChangeType.BULK) {
+            rebuild();
+            return;
+        }
+        synchronized (heap) {
+            apply(change);
+            buffer(change);
+        }
+    }
+
+    private void apply(TaskChange change) {
+        if (change.oldUserId() != null && isOpen(change.oldState())) {
+            heap.add(change.oldUserId(), -1);
+        }
+        if (change.newUserId() != null && isOpen(change.newState())) {
+            heap.add(change.newUserId(), 1);
+        }
+    }
+
+    private void apply(UserChange change) {
+        switch (change.type()) {
+            case CREATED -> {
+                if (!heap.contains(change.userId())) {
+                    heap.put(change.userId(), 0);
+                }
+            }
+            case DELETED -> heap.remove(change.userId());
+            case UPDATED, BULK -> {
+            }
+        }
+    }
+
+    private void apply(Reservation reservation) {
+        if (heap.contains(reservation.userId())) {
+            heap.add(reservation.userId(), reservation.delta());
+        }
+    }
+
+    private static boolean isOpen(TaskState state) {
+        return state != null && OPEN_STATES.contains(state);
+    }
+
+    @ManagedAttribute(description = "Users available for automatic assignment")
+    public int getUserCount() {
+        synchronized (heap) {
+            return heap.size();
+        }
+    }
+
+    @ManagedOperation(description = "Open tasks of a user")
+    public Long getOpenTasks(int userId) {
+        synchronized (heap) {
+            return heap.load(userId);
+        }
+    }
+
+    /**
+     * An open task counted for a user before its change arrives, or the undoing of it.
+     */
+    private record Reservation(int userId, long delta) {
+    }
+
+    /**
+     * The users reserved in one transaction whose created task has not been counted yet, undone on completion.
+     * The changes of a committed transaction are published in {@code afterCommit}, before the completion.
+     */
+    private final class Reservations implements TransactionSynchronization {
+        private final List<Integer> userIds = new ArrayList<>();
+
+        private boolean belongsTo(TaskAssigner assigner) {
+            return assigner == TaskAssigner.this;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            synchronized (heap) {
+                for (Integer userId : userIds) {
+                    Reservation undo = new Reservation(userId, -1);
+                    apply(undo);
+                    buffer(undo);
+                }
+                userIds.clear();
+            }
+        }
+    }
+}
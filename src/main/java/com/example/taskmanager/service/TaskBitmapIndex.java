@@ -0,0 +1,350 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.data.ShardRouter;
+import com.example.taskmanager.data.TaskState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory index of task ids in compressed bitmaps per state, per assigned user and per due date.
+ * Filters are answered by intersecting the bitmaps, the database is only needed to load the selected tasks.
+ * The index is built by a streaming scan of the task table and kept current by the changes published by
+ * {@link TaskService}. Changes published during a scan are replayed onto its result, so a rebuild does not lose them.
+ * Bulk changes are rebuilt on a background executor, the old index keeps answering until the new one replaces it.
+ */
+@ManagedResource(objectName = "com.example.taskmanager:type=TaskBitmapIndex")
+@RequiredArgsConstructor
+@Slf4j
+public class TaskBitmapIndex implements TaskChangeListener {
+
+    private static final String SCAN = "SELECT id, state, user_id, due_date FROM task";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final int fetchSize;
+    private final ExecutorService rebuildExecutor;
+
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object scanMonitor = new Object();
+    private Buckets buckets = new Buckets();
+    private List<TaskChange> pendingChanges;
+
+    /**
+     * Bitmaps of one index generation, guarded by the lock of the index.
+     */
+    private static final class Buckets {
+        private final RoaringBitmap all = new RoaringBitmap();
+        private final Map<TaskState, RoaringBitmap> byState = new EnumMap<>(TaskState.class);
+        private final Map<Integer, RoaringBitmap> byUser = new HashMap<>();
+        private final NavigableMap<LocalDate, RoaringBitmap> byDueDate = new TreeMap<>();
+
+        void add(int id, TaskState state, Integer userId, LocalDate dueDate) {
+            all.add(id);
+            if (state != null) {
+                byState.computeIfAbsent(state, key -> new RoaringBitmap()).add(id);
+            }
+            if (userId != null) {
+                byUser.computeIfAbsent(userId, key -> new RoaringBitmap()).add(id);
+            }
+            if (dueDate != null) {
+                byDueDate.computeIfAbsent(dueDate, key -> new RoaringBitmap()).add(id);
+            }
+        }
+
+        void remove(int id, TaskState state, Integer userId, LocalDate dueDate) {
+            remove(byState, state, id);
+            remove(byUser, userId, id);
+            remove(byDueDate, dueDate, id);
+        }
+
+        void removeEverywhere(int id) {
+            if (!all.contains(id)) {
+                return;
+            }
+            all.remove(id);
+            byState.values().forEach(bitmap -> bitmap.remove(id));
+            byUser.values().removeIf(bitmap -> bitmap.checkedRemove(id) && bitmap.isEmpty());
+            byDueDate.values().removeIf(bitmap -> bitmap.checkedRemove(id) && bitmap.isEmpty());
+        }
+
+        private static <K> void remove(Map<K, RoaringBitmap> bitmaps, K key, int id) {
+            if (key == null) {
+                return;
+            }
+            RoaringBitmap bitmap = bitmaps.get(key);
+            if (bitmap != null && bitmap.checkedRemove(id) && bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+
+        /**
+         * Applies a change, applying a change already reflected in the bitmaps does not alter them.
+         */
+        void apply(TaskChange change) {
+            switch (change.type()) {
+                case CREATED -> add(change.taskId(), change.newState(), change.newUserId(), change.newDueDate());
+                case UPDATED -> {
+                    remove(change.taskId(), change.oldState(), change.oldUserId(), change.oldDueDate());
+                    add(change.taskId(), change.newState(), change.newUserId(), change.newDueDate());
+                }
+                case DELETED -> removeEverywhere(change.taskId());
+                case BULK -> {
+                }
+            }
+        }
+
+        List<String> differences(Buckets other) {
+            List<String> differences = new ArrayList<>();
+            compare(differences, "all tasks", all, other.all);
+            compare(differences, "state", byState, other.byState);
+            compare(differences, "user", byUser, other.byUser);
+            compare(differences, "due date", byDueDate, other.byDueDate);
+            return differences;
+        }
+
+        private static <K> void compare(List<String> differences, String name,
+                                        Map<K, RoaringBitmap> expected, Map<K, RoaringBitmap> actual) {
+            Set<K> keys = new HashSet<>(expected.keySet());
+            keys.addAll(actual.keySet());
+            for (K key : keys) {
+                compare(differences, name + " " + key, expected.getOrDefault(key, new RoaringBitmap()),
+                        actual.getOrDefault(key, new RoaringBitmap()));
+            }
+        }
+
+        private static void compare(List<String> differences, String name, RoaringBitmap expected, RoaringBitmap actual) {
+            long different = RoaringBitmap.xorCardinality(expected, actual);
+            if (different > 0) {
+                differences.add(name + ": " + different + " task ids differ");
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the index from the database.
+     */
+    @ManagedOperation(description = "Rebuilds the index from the database")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        scan(fresh -> buckets = fresh);
+        log.info("Built task bitmap index of {} tasks in {} ms", getSize(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Compares the index with the database and replaces it with the database state when they differ.
+     *
+     * @return Description of the differences found.
+     */
+    @ManagedOperation(description = "Compares the index with the database and repairs it")
+    public String verify() {
+        List<String> differences = new ArrayList<>();
+        scan(fresh -> {
+            differences.addAll(buckets.differences(fresh));
+            if (!differences.isEmpty()) {
+                buckets = fresh;
+            }
+        });
+        if (differences.isEmpty()) {
+            log.info("Task bitmap index is consistent with the database");
+            return "consistent";
+        }
+        log.warn("Task bitmap index differed from the database and was repaired: {}", differences);
+        return String.join("\n", differences);
+    }
+
+    /**
+     * Scans the task table of every shard into new bitmaps, replays the changes published meanwhile and
+     * passes the result to the consumer while holding the write lock.
+     */
+    private void scan(Consumer<Buckets> withFresh) {
+        synchronized (scanMonitor) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Buckets fresh = new Buckets();
+            try {
+                shardRouter.forEachShard(shard -> transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.query(connection -> {
+                            PreparedStatement statement = connection.prepareStatement(SCAN);
+                            statement.setFetchSize(fetchSize);
+                            return statement;
+                        }, rs -> {
+                            short state = rs.getShort("state");
+                            TaskState taskState = rs.wasNull() ? null : TaskState.fromCode(state);
+                            Date dueDate = rs.getDate("due_date");
+                            fresh.add(rs.getInt("id"), taskState,
+                                    rs.getObject("user_id", Integer.class), dueDate != null ? dueDate.toLocalDate() : null);
+                        })));
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    pendingChanges.forEach(fresh::apply);
+                    pendingChanges = null;
+                    withFresh.accept(fresh);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Queues a rebuild on the rebuild executor unless one is queued already. A rebuild that is already scanning
+     * does not count, it may have read the tables before the bulk change.
+     */
+    private void queueRebuild() {
+        if (!rebuildQueued.compareAndSet(false, true)) {
+            return;
+        }
+        rebuildExecutor.execute(() -> {
+            rebuildQueued.set(false);
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.error("Rebuild of task bitmap index failed, it keeps the previous state", e);
+            }
+        });
+    }
+
+    /**
+     * Stops the rebuild executor, a rebuild in progress is interrupted.
+     */
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    @Override
+    public void onTaskChange(TaskChange change) {
+        if (change.type() == ChangeType.BULK) {
+            queueRebuild();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            buckets.apply(change);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Selects the ids of tasks matching all non-null criteria.
+     *
+     * @param state   The state of the tasks, or null for any.
+     * @param userId  The assigned user of the tasks, or null for any.
+     * @param dueDate The due date of the tasks, or null for any.
+     * @return New bitmap of the matching task ids.
+     */
+    public RoaringBitmap filter(TaskState state, Integer userId, LocalDate dueDate) {
+        lock.readLock().lock();
+        try {
+            List<RoaringBitmap> criteria = criteria(state, userId, dueDate);
+            if (criteria.isEmpty()) {
+                return buckets.all.clone();
+            }
+            return FastAggregation.and(criteria.toArray(RoaringBitmap[]::new));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the tasks matching all non-null criteria per state.
+     *
+     * @return Number of matching tasks per state, states without tasks are included with zero.
+     */
+    public Map<TaskState, Long> countByState(Integer userId, LocalDate dueDate) {
+        lock.readLock().lock();
+        try {
+            List<RoaringBitmap> criteria = criteria(null, userId, dueDate);
+            RoaringBitmap base = criteria.isEmpty() ? buckets.all
+                    : FastAggregation.and(criteria.toArray(RoaringBitmap[]::new));
+            Map<TaskState, Long> counts = new EnumMap<>(TaskState.class);
+            for (TaskState state : TaskState.values()) {
+                RoaringBitmap bitmap = buckets.byState.get(state);
+                counts.put(state, bitmap != null ? RoaringBitmap.andCardinality(base, bitmap) : 0L);
+            }
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<RoaringBitmap> criteria(TaskState state, Integer userId, LocalDate dueDate) {
+        List<RoaringBitmap> criteria = new ArrayList<>(3);
+        if (state != null) {
+            criteria.add(buckets.byState.getOrDefault(state, new RoaringBitmap()));
+        }
+        if (userId != null) {
+            criteria.add(buckets.byUser.getOrDefault(userId, new RoaringBitmap()));
+        }
+        if (dueDate != null) {
+            criteria.add(buckets.byDueDate.getOrDefault(dueDate, new RoaringBitmap()));
+        }
+        return criteria;
+    }
+
+    @ManagedAttribute(description = "Number of indexed tasks")
+    public long getSize() {
+        lock.readLock().lock();
+        try {
+            return buckets.all.getLongCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @ManagedAttribute(description = "Memory used by the bitmaps in bytes")
+    public long getSizeInBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = buckets.all.getLongSizeInBytes();
+            for (RoaringBitmap bitmap : buckets.byState.values()) {
+                bytes += bitmap.getLongSizeInBytes();
+            }
+            for (RoaringBitmap bitmap : buckets.byUser.values()) {
+                bytes += bitmap.getLongSizeInBytes();
+            }
+            for (RoaringBitmap bitmap : buckets.byDueDate.values()) {
+                bytes += bitmap.getLongSizeInBytes();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.data.AppUser;
+import com.example.taskmanager.data.Task;
+import com.example.taskmanager.data.TaskState;
+
+import java.time.LocalDate;
+
+/**
+ * Change of a single task made by {@link TaskService}, carrying the indexed values before and after the change.
+ * Values are null when unknown, e.g. the old values of a deleted task.
+ * A {@link ChangeType#BULK} change stands for any number of tasks changed outside of {@link TaskService}.
+ */
+public record TaskChange(ChangeType type,
+                         Integer taskId,
+                         TaskState oldState,
+                         TaskState newState,
+                         LocalDate oldDueDate,
+                         LocalDate newDueDate,
+                         Integer oldUserId,
+                         Integer newUserId) {
+
+    public static TaskChange created(Task task) {
+        return new TaskChange(ChangeType.CREATED, task.getId(), null, task.getState(),
+                null, task.getDueDate(), null, userId(task));
+    }
+
+    public static TaskChange updated(TaskState oldState, LocalDate oldDueDate, Integer oldUserId, Task task) {
+        return new TaskChange(ChangeType.UPDATED, task.getId(), oldState, task.getState(),
+                oldDueDate, task.getDueDate(), oldUserId, userId(task));
+    }
+
+    public static TaskChange deleted(Task task) {
+        return new TaskChange(ChangeType.DELETED, task.getId(), task.getState(), null,
+                task.getDueDate(), null, userId(task), null);
+    }
+
+    public static TaskChange deleted(Integer taskId) {
+        return new TaskChange(ChangeType.DELETED, taskId, null, null, null, null, null, null);
+    }
+
+    public static TaskChange bulk() {
+        return new TaskChange(ChangeType.BULK, null, null, null, null, null, null, null);
+    }
+
+    static Integer userId(Task task) {
+        AppUser user = task.getAssignedUser();
+        return user != null ? user.getId() : null;
+    }
+}
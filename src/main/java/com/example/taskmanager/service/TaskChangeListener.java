@@ -0,0 +1,10 @@
+package com.example.taskmanager.service;
+
+/**
+ * Listener notified by {@link TaskService} after a task change has been written to the database.
+ */
+@FunctionalInterface
+public interface TaskChangeListener {
+
+    void onTaskChange(TaskChange change);
+}
@@ -0,0 +1,14 @@
+package com.example.taskmanager.service;
+
+import java.time.LocalDate;
+
+/**
+ * Result of one run of the digest generation.
+ *
+ * @param digestDate The date of the digests.
+ * @param users      Number of digests written by this run.
+ * @param tasks      Number of tasks in the written digests.
+ * @param resumed    Whether the run continued an interrupted run of the same date.
+ */
+public record TaskDigestRun(LocalDate digestDate, long users, long tasks, boolean resumed) {
+}
@@ -0,0 +1,256 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.data.ShardRouter;
+import com.example.taskmanager.data.TaskState;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service layer responsible for the daily digests of the tasks every user has to look at: TODO and IN_PROGRESS
+ * tasks due within the configured number of days, and all DELAYED tasks.
+ * The matching tasks are read in a single pass ordered by user and grouped on the fly, only the digest of the
+ * current user and one batch of finished digests are held in memory. Every batch is written to task_digest
+ * together with the last user it contains, in its own transaction, so an interrupted run of the same date
+ * continues after that user. The read holds an advisory lock on the digest date for the whole run of a shard,
+ * so a run overlapping with another one of the same date, e.g. of another instance, skips the shard.
+ */
+@Slf4j
+public class TaskDigestService {
+
+    private static final String TRY_LOCK = "SELECT pg_try_advisory_xact_lock(hashtext('task_digest'), ?)";
+    private static final String SELECT_DIGEST_TASKS = """
+            SELECT id, user_id, description, due_date, state
+            FROM task
+            WHERE user_id > ?
+              AND (state = ? OR state IN (?, ?) AND due_date BETWEEN ? AND ?)
+            ORDER BY user_id, due_date, id""";
+    private static final String INSERT_DIGEST = """
+            INSERT INTO task_digest (digest_date, user_id, due_soon, delayed, tasks)
+            VALUES (?, ?, ?, ?, ?::jsonb)
+            ON CONFLICT (digest_date, user_id) DO UPDATE
+            SET due_soon = excluded.due_soon, delayed = excluded.delayed, tasks = excluded.tasks""";
+    private static final String UPDATE_PROGRESS = """
+            UPDATE task_digest_run
+            SET last_user_id = ?, users = users + ?, tasks = tasks + ?
+            WHERE digest_date = ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate batchTransaction;
+    private final ShardRouter shardRouter;
+    private final JsonFactory jsonFactory;
+    private final int daysAhead;
+    private final int batchSize;
+    private final int fetchSize;
+    private final int retentionDays;
+
+    /**
+     * @param jdbcTemplate        The template reading the tasks and writing the digests.
+     * @param transactionTemplate The template whose transaction manager runs the read and the batches.
+     * @param shardRouter         The router running the generation on every shard.
+     * @param jsonFactory         The factory writing the tasks of a digest as JSON.
+     * @param daysAhead           Number of days after the digest date whose due tasks are included.
+     * @param batchSize           Number of digests written at once.
+     * @param fetchSize           Number of tasks fetched at once.
+     * @param retentionDays       Number of days digests are kept.
+     */
+    public TaskDigestService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, ShardRouter shardRouter,
+                             JsonFactory jsonFactory, int daysAhead, int batchSize, int fetchSize, int retentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readTransaction.setReadOnly(true);
+        // Batches commit independently of the transaction holding the cursor of the read.
+        this.batchTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.shardRouter = shardRouter;
+        this.jsonFactory = jsonFactory;
+        this.daysAhead = daysAhead;
+        this.batchSize = batchSize;
+        this.fetchSize = fetchSize;
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * Generates the digests of the current day on every shard.
+     */
+    public void generateDigests() {
+        generateDigests(LocalDate.now());
+    }
+
+    /**
+     * Generates the digests of the given date on every shard, continuing an interrupted run of the same date.
+     * A shard is skipped if the run of the date completed there or another run of the date holds its lock.
+     * Digests older than the retention period are deleted afterwards.
+     *
+     * @param digestDate The date of the digests, tasks due from this date on are included.
+     * @return Number of digests and tasks written by this run.
+     */
+    public TaskDigestRun generateDigests(LocalDate digestDate) {
+        long[] totals = new long[2];
+        boolean[] resumed = new boolean[1];
+        shardRouter.forEachShard(shard -> {
+            jdbcTemplate.update("INSERT INTO task_digest_run (digest_date) VALUES (?) ON CONFLICT DO NOTHING",
+                    Date.valueOf(digestDate));
+            readTransaction.executeWithoutResult(status -> {
+                if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK, Boolean.class, (int) digestDate.toEpochDay()))) {
+                    log.info("Digests of {} on shard {} are generated by another run, skipping", digestDate, shard);
+                    return;
+                }
+                Map<String, Object> run = jdbcTemplate.queryForMap(
+                        "SELECT last_user_id, completed_at FROM task_digest_run WHERE digest_date = ?", Date.valueOf(digestDate));
+                if (run.get("completed_at") != null) {
+                    log.info("Digests of {} on shard {} are already generated", digestDate, shard);
+                    return;
+                }
+                int lastUserId = ((Number) run.get("last_user_id")).intValue();
+                if (lastUserId > 0) {
+                    log.info("Resuming digests of {} on shard {} after user {}", digestDate, shard, lastUserId);
+                    resumed[0] = true;
+                }
+
+                DigestWriter writer = new DigestWriter(digestDate);
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(SELECT_DIGEST_TASKS);
+                    statement.setFetchSize(fetchSize);
+                    statement.setInt(1, lastUserId);
+                    statement.setShort(2, TaskState.DELAYED.getCode());
+                    statement.setShort(3, TaskState.TODO.getCode());
+                    statement.setShort(4, TaskState.IN_PROGRESS.getCode());
+                    statement.setDate(5, Date.valueOf(digestDate));
+                    statement.setDate(6, Date.valueOf(digestDate.plusDays(daysAhead)));
+                    return statement;
+                }, writer);
+                writer.finish();
+                complete(digestDate);
+                totals[0] += writer.users;
+                totals[1] += writer.tasks;
+            });
+        });
+        log.info("Generated {} digests with {} tasks for {}", totals[0], totals[1], digestDate);
+        return new TaskDigestRun(digestDate, totals[0], totals[1], resumed[0]);
+    }
+
+    private void complete(LocalDate digestDate) {
+        batchTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE task_digest_run SET completed_at = now() WHERE digest_date = ?", Date.valueOf(digestDate));
+            Date cutoff = Date.valueOf(digestDate.minusDays(retentionDays));
+            jdbcTemplate.update("DELETE FROM task_digest WHERE digest_date < ?", cutoff);
+            jdbcTemplate.update("DELETE FROM task_digest_run WHERE digest_date < ?", cutoff);
+        });
+    }
+
+    /**
+     * Groups the rows ordered by user into digests. The tasks of the current user are written to JSON as they
+     * are read, a finished digest is added to the batch, which is written once it is full.
+     */
+    private class DigestWriter implements RowCallbackHandler {
+        private final Date digestDate;
+        private final List<Object[]> batch = new ArrayList<>();
+        private long users;
+        private long tasks;
+
+        private int userId;
+        private StringWriter json;
+        private JsonGenerator generator;
+        private int dueSoon;
+        private int delayed;
+
+        DigestWriter(LocalDate digestDate) {
+            this.digestDate = Date.valueOf(digestDate);
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            int rowUserId = rs.getInt("user_id");
+            if (generator == null || rowUserId != userId) {
+                finishUser();
+                startUser(rowUserId);
+            }
+            TaskState state = TaskState.fromCode(rs.getShort("state"));
+            Date dueDate = rs.getDate("due_date");
+            try {
+                generator.writeStartObject();
+                generator.writeNumberField("id", rs.getInt("id"));
+                generator.writeStringField("description", rs.getString("description"));
+                generator.writeStringField("dueDate", dueDate != null ? dueDate.toLocalDate().toString() : null);
+                generator.writeStringField("state", state.name());
+                generator.writeEndObject();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (state == TaskState.DELAYED) {
+                delayed++;
+            } else {
+                dueSoon++;
+            }
+        }
+
+        void finish() {
+            finishUser();
+            flush();
+        }
+
+        private void startUser(int rowUserId) {
+            userId = rowUserId;
+            json = new StringWriter();
+            dueSoon = 0;
+            delayed = 0;
+            try {
+                generator = jsonFactory.createGenerator(json);
+                generator.writeStartArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void finishUser() {
+            if (generator == null) {
+                return;
+            }
+            try {
+                generator.writeEndArray();
+                generator.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            generator = null;
+            batch.add(new Object[]{digestDate, userId, dueSoon, delayed, json.toString()});
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            int lastUserId = (int) batch.get(batch.size() - 1)[1];
+            int batchTasks = batch.stream().mapToInt(digest -> (int) digest[2] + (int) digest[3]).sum();
+            batchTransaction.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_DIGEST, batch);
+                jdbcTemplate.update(UPDATE_PROGRESS, lastUserId, batch.size(), batchTasks, digestDate);
+            });
+            users += batch.size();
+            tasks += batchTasks;
+            log.debug("Wrote {} digests up to user {}", batch.size(), lastUserId);
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.data.TaskState;
+import com.example.taskmanager.dto.CreateTaskRequest;
+import com.example.taskmanager.dto.TaskImportResponse;
+import com.example.taskmanager.dto.TaskImportResponse.RejectedRow;
+import jakarta.annotation.Nonnull;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service layer responsible for importing tasks from CSV files.
+ * Rows are parsed as a stream, validated with the constraints of {@link CreateTaskRequest} and loaded with
+ * PostgreSQL COPY into a temporary staging table, from which they are merged into the task table
+ * by a single statement. Only the staging buffer and the reported rejections are held in memory.
+ * The import runs on the default shard, with sharding enabled rows of users on other shards are rejected.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class TaskImportService {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final int DESCRIPTION_MAX_LENGTH = 255;
+    private static final List<String> HEADER = List.of("description", "due_date", "user_id", "state");
+
+    private static final String CREATE_STAGING_TABLE = """
+            CREATE TEMPORARY TABLE task_import (
+                line BIGINT NOT NULL,
+                description VARCHAR(255) NOT NULL,
+                due_date DATE,
+                user_id INTEGER,
+                state SMALLINT NOT NULL
+            ) ON COMMIT DROP""";
+    private static final String COPY_STAGING_TABLE =
+            "COPY task_import (line, description, due_date, user_id, state) FROM STDIN WITH (FORMAT csv)";
+    private static final String DELETE_UNKNOWN_USERS = """
+            DELETE FROM task_import s
+            WHERE s.user_id IS NOT NULL
+              AND NOT EXISTS (SELECT 1 FROM app_user u WHERE u.id = s.user_id)
+            RETURNING s.line""";
+    private static final String MERGE_STAGING_TABLE = """
+            INSERT INTO task (description, due_date, user_id, state)
+            SELECT description, due_date, user_id, state
+            FROM task_import
+            ORDER BY line""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final TaskService taskService;
+    private final int maxReportedRejections;
+
+    /**
+     * Imports tasks from a CSV stream with the columns description, due_date (yyyy-MM-dd), user_id and state.
+     * A first row naming exactly these columns is skipped as the header. Valid rows are imported in a single transaction.
+     *
+     * @param csv The CSV content.
+     * @return Number of imported and rejected rows, with the line numbers of the first rejected rows.
+     */
+    @Nonnull
+    public TaskImportResponse importTasks(@Nonnull InputStream csv) {
+        log.info("Importing tasks");
+        TaskImportResponse response = transactionTemplate.execute(status ->
+                jdbcTemplate.execute((ConnectionCallback<TaskImportResponse>) connection -> load(connection, csv)));
+        taskService.publishBulkChange();
+        log.info("Imported {} tasks, rejected {} rows", response.imported(), response.rejected());
+        return response;
+    }
+
+    private TaskImportResponse load(Connection connection, InputStream csv) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING_TABLE);
+        }
+
+        Rejections rejections = new Rejections();
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING_TABLE);
+        try {
+            stage(csv, copyIn, rejections);
+            copyIn.endCopy();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the imported CSV", e);
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.setFetchSize(1000);
+            try (ResultSet unknownUsers = statement.executeQuery(DELETE_UNKNOWN_USERS)) {
+                while (unknownUsers.next()) {
+                    rejections.add(unknownUsers.getLong(1), "User not present in table app_user");
+                }
+            }
+        }
+
+        int imported;
+        try (Statement statement = connection.createStatement()) {
+            imported = statement.executeUpdate(MERGE_STAGING_TABLE);
+        }
+        return new TaskImportResponse(imported, rejections.count, rejections.sortedRows());
+    }
+
+    private void stage(InputStream csv, CopyIn copyIn, Rejections rejections) throws IOException, SQLException {
+        CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8)));
+        StringBuilder buffer = new StringBuilder(COPY_BUFFER_SIZE + 1024);
+        List<String> fields;
+        boolean first = true;
+        while ((fields = reader.next()) != null) {
+            if (first) {
+                first = false;
+                if (isHeader(fields)) {
+                    continue;
+                }
+            }
+            if (fields.size() == 1 && fields.get(0) == null) {
+                continue;
+            }
+
+            long line = reader.getRecordLine();
+            String error = appendRow(buffer, line, fields);
+            if (error != null) {
+                rejections.add(line, error);
+            }
+            if (buffer.length() >= COPY_BUFFER_SIZE) {
+                flush(buffer, copyIn);
+            }
+        }
+        flush(buffer, copyIn);
+    }
+
+    private static boolean isHeader(List<String> fields) {
+        return fields.size() == HEADER.size() && fields.stream()
+                .map(field -> field != null ? field.trim().toLowerCase(Locale.ROOT) : "")
+                .toList()
+                .equals(HEADER);
+    }
+
+    /**
+     * Validates a row and appends it to the COPY buffer in CSV format.
+     *
+     * @return The validation error, or null if the row was appended.
+     */
+    private String appendRow(StringBuilder buffer, long line, List<String> fields) {
+        if (fields.size() != 4) {
+            return "Expected 4 columns: description, due_date, user_id, state";
+        }
+        LocalDate dueDate;
+        Integer userId;
+        TaskState state;
+        try {
+            dueDate = fields.get(1) != null ? LocalDate.parse(fields.get(1).trim()) : null;
+        } catch (DateTimeParseException e) {
+            return "Due date must be in format yyyy-MM-dd";
+        }
+        try {
+            userId = fields.get(2) != null ? Integer.valueOf(fields.get(2).trim()) : null;
+        } catch (NumberFormatException e) {
+            return "User id must be a number";
+        }
+        try {
+            state = fields.get(3) != null ? TaskState.valueOf(fields.get(3).trim()) : null;
+        } catch (IllegalArgumentException e) {
+            return "Must be TODO, IN_PROGRESS, COMPLETED or DELAYED";
+        }
+
+        // The user is checked against app_user for all rows at once after loading the staging table.
+        CreateTaskRequest request = new CreateTaskRequest(fields.get(0), dueDate, null, state);
+        Set<ConstraintViolation<CreateTaskRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        if (request.description().length() > DESCRIPTION_MAX_LENGTH) {
+            return "Description must be at most " + DESCRIPTION_MAX_LENGTH + " characters";
+        }
+
+        buffer.append(line).append(',')
+                .append('"').append(request.description().replace("\"", "\"\"")).append('"').append(',')
+                .append(dueDate != null ? dueDate.toString() : "").append(',')
+                .append(userId != null ? userId.toString() : "").append(',')
+                .append(request.state().getCode()).append('\n');
+        return null;
+    }
+
+    private static void flush(StringBuilder buffer, CopyIn copyIn) throws SQLException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    /**
+     * Counts all rejected rows and keeps the first {@link #maxReportedRejections} of them.
+     */
+    private class Rejections {
+        private final List<RejectedRow> rows = new ArrayList<>();
+        private long count;
+
+        void add(long line, String message) {
+            count++;
+            if (rows.size() < maxReportedRejections) {
+                rows.add(new RejectedRow(line, message));
+            }
+        }
+
+        List<RejectedRow> sortedRows() {
+            rows.sort(Comparator.comparingLong(RejectedRow::line));
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.data.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service layer responsible for maintaining the monthly partitions of the task table.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class TaskPartitionService {
+
+    private static final String TRY_LOCK = "SELECT pg_try_advisory_xact_lock(hashtext('task_partition_maintenance'))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskService taskService;
+    private final ShardRouter shardRouter;
+    private final int monthsAhead;
+    private final int archiveAfterMonths;
+
+    /**
+     * Creates the partitions for the upcoming months and archives COMPLETED tasks
+     * from partitions older than the retention period, on every shard.
+     * Each shard is maintained in one transaction holding an advisory lock, a shard locked by an overlapping
+     * run, e.g. of another instance, is skipped.
+     */
+    public void maintainPartitions() {
+        int[] archived = new int[1];
+        shardRouter.forEachShard(shard -> archived[0] += transactionTemplate.execute(status -> {
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK, Boolean.class))) {
+                log.info("Task partitions on shard {} are maintained by another run, skipping", shard);
+                return 0;
+            }
+            log.info("Maintaining task partitions on shard {}", shard);
+            createFuturePartitions();
+            return archive();
+        }));
+        if (archived[0] > 0) {
+            taskService.publishBulkChange();
+        }
+    }
+
+    /**
+     * Makes sure that monthly partitions exist from the current month up to the configured number of months ahead.
+     *
+     * @return Number of newly created partitions.
+     */
+    public int createFuturePartitions() {
+        Integer created = jdbcTemplate.queryForObject("SELECT ensure_task_partitions(?)", Integer.class, monthsAhead);
+        log.info("Created {} task partitions", created);
+        return created != null ? created : 0;
+    }
+
+    /**
+     * Moves COMPLETED tasks due before the retention period from the monthly and the default partitions into
+     * the task_archive table. Partitions left empty are detached and dropped. The rows are moved directly in the
+     * database, so listeners of the {@link TaskService} are notified about a bulk change afterwards.
+     *
+     * @return Number of archived tasks.
+     */
+    public int archiveCompletedTasks() {
+        int archived = archive();
+        if (archived > 0) {
+            taskService.publishBulkChange();
+        }
+        return archived;
+    }
+
+    private int archive() {
+        Integer archived = jdbcTemplate.queryForObject("SELECT archive_completed_tasks(?)", Integer.class, archiveAfterMonths);
+        log.info("Archived {} completed tasks", archived);
+        return archived != null ? archived : 0;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.data.ShardRouter;
+import com.example.taskmanager.data.Task;
+import com.example.taskmanager.data.TaskRepository;
+import com.example.taskmanager.data.TaskState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Searches tasks by any combination of state, assigned user and due date, ordered by identifier.
+ * With the {@link TaskBitmapIndex} the matching identifiers are selected in memory and only the requested page
+ * is loaded from the database, without it the search is a database query.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class TaskSearchService {
+
+    private final TaskRepository taskRepository;
+    private final ShardRouter shardRouter;
+    private final TaskBitmapIndex index;
+
+    /**
+     * Page of tasks with the total number of matching tasks.
+     */
+    public record TaskPage(List<Task> tasks, long total) {
+    }
+
+    /**
+     * Searches tasks matching all non-null criteria.
+     *
+     * @param state   The state of the tasks, or null for any.
+     * @param userId  The assigned user of the tasks, or null for any.
+     * @param dueDate The due date of the tasks, or null for any.
+     * @param page    The zero-based page number.
+     * @param size    The page size.
+     * @return The requested page of matching tasks ordered by identifier.
+     */
+    public TaskPage searchTasks(TaskState state, Integer userId, LocalDate dueDate, int page, int size) {
+        long offset = (long) page * size;
+        if (index != null) {
+            RoaringBitmap ids = index.filter(state, userId, dueDate);
+            long total = ids.getLongCardinality();
+            if (offset >= total) {
+                return new TaskPage(List.of(), total);
+            }
+            List<Integer> pageIds = new ArrayList<>(size);
+            PeekableIntIterator iterator = ids.getIntIterator();
+            iterator.advanceIfNeeded(ids.select((int) offset));
+            while (iterator.hasNext() && pageIds.size() < size) {
+                pageIds.add(iterator.next());
+            }
+            List<Task> tasks = new ArrayList<>(shardRouter.fanOut(() -> taskRepository.findAllById(pageIds)));
+            tasks.sort(Comparator.comparing(Task::getId));
+            return new TaskPage(tasks, total);
+        }
+
+        if (!shardRouter.isSharded()) {
+            Page<Task> tasks = taskRepository.search(state, userId, dueDate, PageRequest.of(page, size, Sort.by("id")));
+            return new TaskPage(tasks.getContent(), tasks.getTotalElements());
+        }
+        // Every shard returns its first offset + size matches, the page is cut from their merge.
+        PageRequest firstPages = PageRequest.of(0, (int) Math.min(offset + size, Integer.MAX_VALUE), Sort.by("id"));
+        List<Page<Task>> shardPages = shardRouter.fanOut(() -> List.of(taskRepository.search(state, userId, dueDate, firstPages)));
+        long total = shardPages.stream().mapToLong(Page::getTotalElements).sum();
+        List<Task> tasks = shardPages.stream()
+                .flatMap(shardPage -> shardPage.getContent().stream())
+                .sorted(Comparator.comparing(Task::getId))
+                .skip(offset)
+                .limit(size)
+                .toList();
+        return new TaskPage(tasks, total);
+    }
+
+    /**
+     * Counts tasks matching all non-null criteria per state.
+     *
+     * @param userId  The assigned user of the tasks, or null for any.
+     * @param dueDate The due date of the tasks, or null for any.
+     * @return Number of matching tasks for every state.
+     */
+    public Map<TaskState, Long> countTasksByState(Integer userId, LocalDate dueDate) {
+        if (index != null) {
+            return index.countByState(userId, dueDate);
+        }
+        Map<TaskState, Long> counts = new EnumMap<>(TaskState.class);
+        for (TaskState state : TaskState.values()) {
+            counts.put(state, 0L);
+        }
+        List<Object[]> rows = shardRouter.fanOut(() -> taskRepository.countByState(userId, dueDate));
+        for (Object[] row : rows) {
+            if (row[0] != null) {
+                counts.merge((TaskState) row[0], (Long) row[1], Long::sum);
+            }
+        }
+        return counts;
+    }
+}
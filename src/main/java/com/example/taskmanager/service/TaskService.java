@@ -1,18 +1,31 @@
 package com.example.taskmanager.service;
 
 import com.example.taskmanager.data.Task;
+import com.example.taskmanager.data.TaskField;
 import com.example.taskmanager.data.TaskRepository;
 import com.example.taskmanager.data.TaskState;
+import com.example.taskmanager.data.UpdatedTask;
 import com.example.taskmanager.dto.CreateTaskRequest;
+import com.example.taskmanager.dto.SparseTaskResponse;
 import com.example.taskmanager.dto.UpdateTaskRequest;
 import jakarta.annotation.Nonnull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 
 /**
@@ -23,6 +36,55 @@ import java.util.Optional;
 public class TaskService {
 
     private final TaskRepository taskRepository;
+    private final List<TaskChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers a listener notified after every committed task change.
+     *
+     * @param listener The listener to register.
+     */
+    public void addChangeListener(@Nonnull TaskChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Notifies listeners that tasks were changed in bulk directly in the database, e.g. by an import.
+     */
+    public void publishBulkChange() {
+        publish(TaskChange.bulk());
+    }
+
+    /**
+     * Notifies listeners of a change made by another instance of the application.
+     *
+     * @param change The change received from the other instance.
+     */
+    public void publishExternalChange(@Nonnull TaskChange change) {
+        publish(change);
+    }
+
+    /**
+     * Notifies the listeners of the change, within a transaction only after it commits. Listeners never see
+     * changes that are rolled back or whose commit fails.
+     */
+    protected void publish(TaskChange change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    notifyListeners(change);
+                }
+            });
+        } else {
+            notifyListeners(change);
+        }
+    }
+
+    private void notifyListeners(TaskChange change) {
+        for (TaskChangeListener listener : changeListeners) {
+            listener.onTaskChange(change);
+        }
+    }
 
     /**
      * Retrieves a task by its unique identifier.
@@ -59,18 +121,42 @@ public class TaskService {
     @Nonnull
     public Task addTask(@Nonnull CreateTaskRequest request) {
         log.info("Adding a new task: {}", request);
+        Task task = newTask(request);
+        taskRepository.save(task);
+        log.info("Added a new task: {}", task);
+        publish(TaskChange.created(task));
+        return task;
+    }
+
+    /**
+     * Adds new tasks to the system with one JDBC batch.
+     * The assigned users of the returned tasks carry only their identifiers.
+     *
+     * @param requests The requests containing task details.
+     * @return The newly created tasks in the order of the requests.
+     */
+    @Nonnull
+    public List<Task> addTasks(@Nonnull List<CreateTaskRequest> requests) {
+        log.info("Adding {} new tasks", requests.size());
+        List<Task> tasks = requests.stream().map(TaskService::newTask).toList();
+        taskRepository.insertAll(tasks);
+        tasks.forEach(task -> publish(TaskChange.created(task)));
+        return tasks;
+    }
+
+    private static Task newTask(CreateTaskRequest request) {
         Task task = new Task();
         task.setDescription(request.description());
         task.setDueDate(request.dueDate());
         task.setAssignedUser(request.assignedUser());
         task.setState(request.state());
-        taskRepository.save(task);
-        log.info("Added a new task: {}", task);
         return task;
     }
 
     /**
      * Updates an existing task in the system.
+     * Only the non-null fields of the request are written, with a single statement which also detects
+     * a missing task. The assigned user of the returned task carries only its identifier.
      *
      * @param taskId      The unique identifier of the task to update.
      * @param request The request containing updated task details.
@@ -79,34 +165,30 @@ public class TaskService {
     @Nonnull
     public Optional<Task> updateTask(@Nonnull Integer taskId, @Nonnull UpdateTaskRequest request) {
         log.info("Updating task with id {}: {}", taskId, request);
-        Optional<Task> task = taskRepository.findById(taskId);
-        if (task.isPresent()) {
-            if (Objects.nonNull(request.description())) {
-                task.get().setDescription(request.description());
-            }
-            if (Objects.nonNull(request.dueDate())) {
-                task.get().setDueDate(request.dueDate());
-            }
-            if (Objects.nonNull(request.assignedUser())) {
-                task.get().setAssignedUser(request.assignedUser());
-            }
-            if (Objects.nonNull(request.state())) {
-                task.get().setState(request.state());
-            }
-            taskRepository.save(task.get());
-            log.info("Updated task: {}", task.get());
+        Integer userId = Objects.nonNull(request.assignedUser()) ? request.assignedUser().getId() : null;
+        if (request.description() == null && request.dueDate() == null && userId == null && request.state() == null) {
+            return taskRepository.findById(taskId);
         }
-        return task;
+        Optional<UpdatedTask> updated = taskRepository.updateNonNullFields(taskId, request.description(),
+                request.dueDate(), userId, request.state());
+        if (updated.isPresent()) {
+            Task task = updated.get().task();
+            log.info("Updated task: {}", task);
+            publish(TaskChange.updated(updated.get().oldState(), updated.get().oldDueDate(),
+                    updated.get().oldUserId(), task));
+        }
+        return updated.map(UpdatedTask::task);
     }
 
     /**
      * Deletes a task by its unique identifier.
+     * The deleted values are returned by the delete statement, so listeners learn the state and user of the task.
      *
      * @param taskId The unique identifier of the task to delete.
      */
     public void deleteTask(@Nonnull Integer taskId) {
         log.info("Deleting task with id: {}", taskId);
-        taskRepository.deleteById(taskId);
+        taskRepository.deleteReturning(taskId).ifPresent(task -> publish(TaskChange.deleted(task)));
     }
 
     /**
@@ -145,20 +227,142 @@ public class TaskService {
         return taskRepository.findByDueDate(dueDate);
     }
 
+    /**
+     * Retrieves tasks due within a date range with a single range scan.
+     *
+     * @param from   The first due date, inclusive.
+     * @param to     The last due date, inclusive.
+     * @param userId The users unique identifier to filter tasks, or null for all users.
+     * @return List of tasks ordered by due date and ID.
+     */
+    @Nonnull
+    public List<Task> getTasksByDueDateRange(@Nonnull LocalDate from, @Nonnull LocalDate to, Integer userId) {
+        log.info("Fetching tasks due from {} to {} for user with id: {}", from, to, userId);
+        if (userId == null) {
+            return taskRepository.findByDueDateBetweenOrderByDueDateAscIdAsc(from, to);
+        }
+        return taskRepository.findByDueDateBetweenAndAssignedUserIdOrderByDueDateAscIdAsc(from, to, userId);
+    }
+
+    /**
+     * Counts tasks due within a date range per day and state.
+     *
+     * @param from   The first due date, inclusive.
+     * @param to     The last due date, inclusive.
+     * @param userId The users unique identifier to filter tasks, or null for all users.
+     * @return Number of tasks per state for every day with tasks, ordered by day.
+     */
+    @Nonnull
+    public Map<LocalDate, Map<TaskState, Long>> countTasksByDueDateRange(@Nonnull LocalDate from, @Nonnull LocalDate to,
+                                                                        Integer userId) {
+        log.info("Counting tasks due from {} to {} for user with id: {}", from, to, userId);
+        Map<LocalDate, Map<TaskState, Long>> counts = new TreeMap<>();
+        for (Object[] row : countRowsByDueDateAndState(from, to, userId)) {
+            if (row[1] != null) {
+                counts.computeIfAbsent((LocalDate) row[0], day -> new EnumMap<>(TaskState.class))
+                        .merge((TaskState) row[1], (Long) row[2], Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * @return Rows of due date, state and number of tasks.
+     */
+    protected List<Object[]> countRowsByDueDateAndState(LocalDate from, LocalDate to, Integer userId) {
+        return taskRepository.countByDueDateAndState(from, to, userId);
+    }
+
+    /**
+     * Retrieves the requested fields of all tasks.
+     *
+     * @param fields The fields to read.
+     * @return List of all tasks restricted to the fields.
+     */
+    @Nonnull
+    public List<SparseTaskResponse> getAllTasks(@Nonnull Set<TaskField> fields) {
+        log.info("Fetching fields {} of all tasks", fields);
+        return taskRepository.findFields(fields);
+    }
+
+    /**
+     * Retrieves the requested fields of tasks with a specific state.
+     *
+     * @param state  The state to filter tasks.
+     * @param fields The fields to read.
+     * @return List of tasks with the specified state restricted to the fields.
+     */
+    @Nonnull
+    public List<SparseTaskResponse> getTasksByState(@Nonnull TaskState state, @Nonnull Set<TaskField> fields) {
+        log.info("Fetching fields {} of tasks by state: {}", fields, state);
+        return taskRepository.findFieldsByState(fields, state);
+    }
+
+    /**
+     * Retrieves the requested fields of tasks with a specific user assigned.
+     *
+     * @param userId The users unique identifier to filter tasks.
+     * @param fields The fields to read.
+     * @return List of tasks with the specified user restricted to the fields.
+     */
+    @Nonnull
+    public List<SparseTaskResponse> getTasksForUser(@Nonnull Integer userId, @Nonnull Set<TaskField> fields) {
+        log.info("Fetching fields {} of tasks for user with id: {}", fields, userId);
+        return taskRepository.findFieldsByAssignedUserId(fields, userId);
+    }
+
+    /**
+     * Retrieves the requested fields of tasks with a specific due date.
+     *
+     * @param dueDate The date to filter tasks.
+     * @param fields  The fields to read.
+     * @return List of tasks with the specified due date restricted to the fields.
+     */
+    @Nonnull
+    public List<SparseTaskResponse> getTasksByDueDate(@Nonnull LocalDate dueDate, @Nonnull Set<TaskField> fields) {
+        log.info("Fetching fields {} of tasks by due date: {}", fields, dueDate);
+        return taskRepository.findFieldsByDueDate(fields, dueDate);
+    }
+
     /**
      * Updates the state for overdue tasks.
-     * Fetches tasks with a due date equal to the current date and updates the state to DELAYED
-     * for tasks that are currently in TO-DO state.
+     * Fetches tasks with a due date equal to the current date in TO-DO state in batches and updates the state of
+     * each batch to DELAYED with one statement. Updated tasks no longer match, so every batch is the first page of
+     * the remaining tasks.
+     *
+     * @param batchSize Maximum number of tasks loaded at once.
+     * @return Number of scanned and transitioned tasks.
      */
-    public void updateTaskStateForOverdueTasks() {
+    public OverdueTaskRun updateTaskStateForOverdueTasks(int batchSize) {
         log.info("Updating state for overdue tasks");
-        List<Task> overdueTasks = taskRepository.findByDueDateAndState(LocalDate.now(), TaskState.TODO);
+        PageRequest firstBatch = PageRequest.of(0, batchSize, Sort.by("id"));
+        long scanned = 0;
+        long transitioned = 0;
+        Slice<Task> batch;
+        do {
+            batch = taskRepository.findByDueDateAndState(LocalDate.now(), TaskState.TODO, firstBatch);
+            scanned += batch.getNumberOfElements();
+            if (!batch.hasContent()) {
+                break;
+            }
+            taskRepository.updateState(batch.map(Task::getId).getContent(), TaskState.DELAYED);
+            for (Task task : batch) {
+                task.setState(TaskState.DELAYED);
+                log.info("Updated state for task: {}", task);
+                publish(TaskChange.updated(TaskState.TODO, task.getDueDate(), TaskChange.userId(task), task));
+                transitioned++;
+            }
+        } while (batch.hasNext());
+        log.info("Updated state for {} overdue tasks", transitioned);
+        return new OverdueTaskRun(scanned, transitioned);
+    }
 
-        for (Task task : overdueTasks) {
-            task.setState(TaskState.DELAYED);
-            taskRepository.save(task);
-            log.info("Updated state for task: {}", task);
-        }
-        log.info("Updated state for {} overdue tasks", overdueTasks.size());
+    /**
+     * Counts the tasks {@link #updateTaskStateForOverdueTasks(int)} would update, without updating them.
+     *
+     * @return Number of overdue tasks in TO-DO state.
+     */
+    public long countOverdueTasks() {
+        return taskRepository.countByDueDateAndState(LocalDate.now(), TaskState.TODO);
     }
 }
@@ -0,0 +1,8 @@
+package com.example.taskmanager.service;
+
+/**
+ * Change of a single user made by {@link UserService}.
+ * A {@link ChangeType#BULK} change without user identifier stands for any number of changed users.
+ */
+public record UserChange(ChangeType type, Integer userId) {
+}
@@ -0,0 +1,10 @@
+package com.example.taskmanager.service;
+
+/**
+ * Listener notified by {@link UserService} after a user change has been written to the database.
+ */
+@FunctionalInterface
+public interface UserChangeListener {
+
+    void onUserChange(UserChange change);
+}
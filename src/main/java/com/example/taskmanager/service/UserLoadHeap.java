@@ -0,0 +1,144 @@
+package com.example.taskmanager.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Indexed binary min-heap of users ordered by their load, ties broken by the lower user id.
+ * The position of every user is indexed, so changing the load of a user is O(log users) and the least
+ * loaded user is O(1). Not thread-safe.
+ */
+public class UserLoadHeap {
+
+    private final Map<Integer, Integer> positions = new HashMap<>();
+    private int[] users = new int[16];
+    private long[] loads = new long[16];
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The user with the lowest load, or null without users.
+     */
+    public Integer peek() {
+        return size > 0 ? users[0] : null;
+    }
+
+    /**
+     * @return The load of the user, or null if the user is unknown.
+     */
+    public Long load(int userId) {
+        Integer position = positions.get(userId);
+        return position != null ? loads[position] : null;
+    }
+
+    public boolean contains(int userId) {
+        return positions.containsKey(userId);
+    }
+
+    /**
+     * Sets the load of a user, adding the user if unknown.
+     */
+    public void put(int userId, long load) {
+        Integer position = positions.get(userId);
+        if (position == null) {
+            if (size == users.length) {
+                users = Arrays.copyOf(users, size * 2);
+                loads = Arrays.copyOf(loads, size * 2);
+            }
+            users[size] = userId;
+            loads[size] = load;
+            positions.put(userId, size);
+            siftUp(size++);
+        } else {
+            long previous = loads[position];
+            loads[position] = load;
+            if (load < previous) {
+                siftUp(position);
+            } else {
+                siftDown(position);
+            }
+        }
+    }
+
+    /**
+     * Adds to the load of a user, adding the user if unknown. Loads never drop below zero.
+     */
+    public void add(int userId, long delta) {
+        Long load = load(userId);
+        put(userId, Math.max(0, (load != null ? load : 0) + delta));
+    }
+
+    public void remove(int userId) {
+        Integer position = positions.remove(userId);
+        if (position == null) {
+            return;
+        }
+        int last = --size;
+        if (position != last) {
+            int moved = users[last];
+            move(last, position);
+            siftUp(position);
+            siftDown(positions.get(moved));
+        }
+    }
+
+    public void clear() {
+        positions.clear();
+        size = 0;
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (!less(position, parent)) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && less(left, smallest)) {
+                smallest = left;
+            }
+            if (right < size && less(right, smallest)) {
+                smallest = right;
+            }
+            if (smallest == position) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private boolean less(int a, int b) {
+        return loads[a] < loads[b] || loads[a] == loads[b] && users[a] < users[b];
+    }
+
+    private void swap(int a, int b) {
+        int user = users[a];
+        long load = loads[a];
+        users[a] = users[b];
+        loads[a] = loads[b];
+        users[b] = user;
+        loads[b] = load;
+        positions.put(users[a], a);
+        positions.put(users[b], b);
+    }
+
+    private void move(int from, int to) {
+        users[to] = users[from];
+        loads[to] = loads[from];
+        positions.put(users[to], to);
+    }
+}
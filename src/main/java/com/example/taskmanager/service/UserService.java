@@ -1,15 +1,22 @@
 package com.example.taskmanager.service;
 
 import com.example.taskmanager.data.AppUser;
+import com.example.taskmanager.data.TaskState;
 import com.example.taskmanager.data.UserRepository;
 import com.example.taskmanager.dto.CreateUserRequest;
 import com.example.taskmanager.dto.UpdateUserRequest;
 import jakarta.annotation.Nonnull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 
 /**
@@ -20,7 +27,48 @@ import java.util.Optional;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final List<UserChangeListener> changeListeners = new CopyOnWriteArrayList<>();
 
+    /**
+     * Registers a listener notified after every committed user change.
+     *
+     * @param listener The listener to register.
+     */
+    public void addChangeListener(@Nonnull UserChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Notifies listeners of a change made by another instance of the application.
+     *
+     * @param change The change received from the other instance.
+     */
+    public void publishExternalChange(@Nonnull UserChange change) {
+        publish(change);
+    }
+
+    /**
+     * Notifies the listeners of the change, within a transaction only after it commits. Listeners never see
+     * changes that are rolled back or whose commit fails.
+     */
+    private void publish(UserChange change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    notifyListeners(change);
+                }
+            });
+        } else {
+            notifyListeners(change);
+        }
+    }
+
+    private void notifyListeners(UserChange change) {
+        for (UserChangeListener listener : changeListeners) {
+            listener.onUserChange(change);
+        }
+    }
 
     /**
      * Retrieves all users in the system.
@@ -33,6 +81,29 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    /**
+     * Counts the tasks in the given states of every user.
+     *
+     * @param states The states to count.
+     * @return Number of tasks per user id, users without such tasks have a count of zero.
+     */
+    @Nonnull
+    public Map<Integer, Long> countTasksPerUser(@Nonnull Collection<TaskState> states) {
+        log.info("Counting tasks in states {} per user", states);
+        Map<Integer, Long> counts = new HashMap<>();
+        for (Object[] row : countTaskRowsPerUser(states)) {
+            counts.merge((Integer) row[0], (Long) row[1], Long::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * @return Rows of user id and number of tasks.
+     */
+    protected List<Object[]> countTaskRowsPerUser(Collection<TaskState> states) {
+        return userRepository.countTasksPerUser(states);
+    }
+
     /**
      * Retrieves a user by its unique identifier.
      *
@@ -61,11 +132,12 @@ public class UserService {
         user.setUsername(request.username());
         userRepository.save(user);
         log.info("Added a new user: {}", user);
+        publish(new UserChange(ChangeType.CREATED, user.getId()));
         return user;
     }
 
     /**
-     * Updates an existing user.
+     * Updates an existing user with a single statement which also detects a missing user.
      *
      * @param userId  The unique identifier of the user to update.
      * @param request The request containing updated user details.
@@ -74,11 +146,10 @@ public class UserService {
     @Nonnull
     public Optional<AppUser> updateUser(@Nonnull Integer userId, @Nonnull UpdateUserRequest request) {
         log.info("Updating user with id {}: {}", userId, request);
-        Optional<AppUser> user = userRepository.findById(userId);
+        Optional<AppUser> user = userRepository.updateUsername(userId, request.username());
         if (user.isPresent()) {
-            user.get().setUsername(request.username());
-            userRepository.save(user.get());
             log.info("Updated user: {}", user.get());
+            publish(new UserChange(ChangeType.UPDATED, userId));
         }
         return user;
     }
@@ -91,5 +162,6 @@ public class UserService {
     public void deleteUser(@Nonnull Integer userId) {
         log.info("Deleting user with id: {}", userId);
         userRepository.deleteById(userId);
+        publish(new UserChange(ChangeType.DELETED, userId));
     }
 }
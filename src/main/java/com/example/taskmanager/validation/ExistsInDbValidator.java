@@ -1,6 +1,7 @@
 package com.example.taskmanager.validation;
 
 import com.example.taskmanager.data.AppUser;
+import com.example.taskmanager.data.ShardRouter;
 import com.example.taskmanager.data.UserRepository;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
@@ -13,9 +14,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 public class ExistsInDbValidator implements ConstraintValidator<ExistsInDb, AppUser> {
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private ShardRouter shardRouter;
 
     /**
      * Validates whether the given {@link AppUser} instance exists in the database.
+     * The user is looked up by id rather than counted, so the lookup is served from the second-level cache when enabled.
+     * The lookup runs on the shard owning the user.
      *
      * @param user    The user to validate.
      * @param context The validation context.
@@ -26,6 +31,7 @@ public class ExistsInDbValidator implements ConstraintValidator<ExistsInDb, AppU
         if (user == null) {
             return true;
         }
-        return userRepository.existsById(user.getId());
+        return shardRouter.callOn(shardRouter.shardForUser(user.getId()),
+                () -> userRepository.findById(user.getId()).isPresent());
     }
 }
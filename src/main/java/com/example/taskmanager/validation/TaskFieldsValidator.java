@@ -0,0 +1,32 @@
+package com.example.taskmanager.validation;
+
+import com.example.taskmanager.data.TaskField;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+/**
+ * Custom validator for the {@link ValidateTaskFields} annotation.
+ * This validator ensures that every listed field is a known task field.
+ */
+public class TaskFieldsValidator implements ConstraintValidator<ValidateTaskFields, String> {
+
+    /**
+     * Validates whether the given value parses as a list of task fields.
+     *
+     * @param value   The fields parameter to validate.
+     * @param context The validation context.
+     * @return true if the value is valid, false otherwise.
+     */
+    @Override
+    public boolean isValid(String value, ConstraintValidatorContext context) {
+        if (value == null) {
+            return true;
+        }
+        try {
+            TaskField.parse(value);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.taskmanager.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Custom validation annotation to ensure that a fields parameter lists known task fields only.
+ */
+@Target({FIELD, PARAMETER})
+@Retention(RUNTIME)
+@Constraint(validatedBy = TaskFieldsValidator.class)
+@Documented
+public @interface ValidateTaskFields {
+    String message() default "Must be a comma separated list of id, description, dueDate, assignedUser, assignedUser.id or state";
+    Class<?>[] groups() default {};
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,93 @@
+package com.example.taskmanager.web;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency limiter whose limit follows the observed latency (additive increase, multiplicative decrease).
+ * The limit grows by one while requests complete under the latency threshold and the limiter is at least
+ * half utilized, and shrinks by the backoff ratio when a request exceeds the threshold.
+ * Only requests started after the last decrease can trigger another one, so a single burst of slow
+ * requests does not collapse the limit.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile double limit;
+    private boolean decreased;
+    private long lastDecreaseNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      long latencyThresholdNanos, double backoffRatio) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= minLimit <= maxLimit");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Backoff ratio must be between 0 and 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Tries to admit a request.
+     *
+     * @return true if the request was admitted and {@link #release(long, long)} must be called, false otherwise.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases an admitted request and adjusts the limit from its latency.
+     *
+     * @param startNanos Value of {@link System#nanoTime()} when the request was admitted.
+     * @param endNanos   Value of {@link System#nanoTime()} when the request completed.
+     */
+    public void release(long startNanos, long endNanos) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        adjust(startNanos, endNanos, inFlightAtCompletion);
+    }
+
+    private synchronized void adjust(long startNanos, long endNanos, int inFlightAtCompletion) {
+        if (endNanos - startNanos > latencyThresholdNanos) {
+            if (!decreased || startNanos - lastDecreaseNanos > 0) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                decreased = true;
+                lastDecreaseNanos = endNanos;
+            }
+        } else if (inFlightAtCompletion * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+}
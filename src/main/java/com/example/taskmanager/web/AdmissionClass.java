@@ -0,0 +1,15 @@
+package com.example.taskmanager.web;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the cost class of a handler whose class cannot be inferred from its HTTP method and return type.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AdmissionClass {
+    RequestClass value();
+}
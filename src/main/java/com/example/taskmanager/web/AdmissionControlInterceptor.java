@@ -0,0 +1,73 @@
+package com.example.taskmanager.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Map;
+
+/**
+ * Interceptor admitting requests to the controllers through an {@link AdaptiveConcurrencyLimiter} per {@link RequestClass}.
+ * Requests over the limit are rejected immediately with TOO_MANY_REQUESTS and a Retry-After header
+ * instead of waiting for a database connection.
+ */
+@ManagedResource(objectName = "com.example.taskmanager:type=AdmissionControl")
+@RequiredArgsConstructor
+@Slf4j
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".start";
+    private static final String CLASS_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".class";
+
+    private final Map<RequestClass, AdaptiveConcurrencyLimiter> limiters;
+    private final long retryAfterSeconds;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        RequestClass requestClass = RequestClass.of(request, handlerMethod);
+        AdaptiveConcurrencyLimiter limiter = limiters.get(requestClass);
+        if (!limiter.tryAcquire()) {
+            log.warn("Rejected {} {} ({}), limit {} reached", request.getMethod(), request.getRequestURI(),
+                    requestClass, limiter.getLimit());
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            return false;
+        }
+        request.setAttribute(CLASS_ATTRIBUTE, requestClass);
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start != null) {
+            limiters.get((RequestClass) request.getAttribute(CLASS_ATTRIBUTE)).release((Long) start, System.nanoTime());
+        }
+    }
+
+    @ManagedOperation(description = "Current concurrency limit of the request class")
+    public int getLimit(String requestClass) {
+        return limiters.get(RequestClass.valueOf(requestClass)).getLimit();
+    }
+
+    @ManagedOperation(description = "Requests of the request class currently in flight")
+    public int getInFlight(String requestClass) {
+        return limiters.get(RequestClass.valueOf(requestClass)).getInFlight();
+    }
+
+    @ManagedOperation(description = "Requests of the request class rejected so far")
+    public long getRejectedCount(String requestClass) {
+        return limiters.get(RequestClass.valueOf(requestClass)).getRejectedCount();
+    }
+}
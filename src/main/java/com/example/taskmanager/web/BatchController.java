@@ -0,0 +1,439 @@
+package com.example.taskmanager.web;
+
+import com.example.taskmanager.config.BatchProperties;
+import com.example.taskmanager.data.AppUser;
+import com.example.taskmanager.data.ShardRouter;
+import com.example.taskmanager.data.Task;
+import com.example.taskmanager.data.TaskMapper;
+import com.example.taskmanager.data.UserMapper;
+import com.example.taskmanager.dto.BatchOperation;
+import com.example.taskmanager.dto.BatchOperationResult;
+import com.example.taskmanager.dto.BatchRequest;
+import com.example.taskmanager.dto.BatchResponse;
+import com.example.taskmanager.dto.CreateTaskRequest;
+import com.example.taskmanager.dto.CreateUserRequest;
+import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.dto.UpdateTaskRequest;
+import com.example.taskmanager.dto.UpdateUserRequest;
+import com.example.taskmanager.dto.UserResponse;
+import com.example.taskmanager.service.TaskAssigner;
+import com.example.taskmanager.service.TaskService;
+import com.example.taskmanager.service.UserService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Controller executing ordered lists of task and user operations in one request.
+ * Every operation mirrors a route of {@link TaskController} or {@link UserController}: creating, reading, updating
+ * and deleting single tasks and users. An operation may name the id it creates with a ref, later operations refer
+ * to it with "$ref" as a path segment or as the value of an "id" field in their body.
+ * An atomic batch runs in one transaction and consecutive task creations are inserted with one JDBC batch, the
+ * first failing operation rolls the transaction back and the remaining ones are not executed. Otherwise every
+ * operation runs in its own transaction and operations referring to the id of a failed operation are not executed.
+ * With sharding, a transaction cannot span the shards, so only non-atomic batches are supported.
+ */
+@RestController
+@RequestMapping("/api/batch")
+@RequiredArgsConstructor
+@Validated
+@Slf4j
+public class BatchController {
+
+    private static final int FAILED_DEPENDENCY = HttpStatus.FAILED_DEPENDENCY.value();
+    private static final String TASK_PATH = "/api/task";
+    private static final String USER_PATH = "/api/user";
+
+    private final TaskService taskService;
+    private final UserService userService;
+    private final TaskAssigner taskAssigner;
+    private final TaskMapper taskMapper;
+    private final UserMapper userMapper;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final BatchProperties properties;
+
+    /**
+     * Executes the operations of a batch in order.
+     *
+     * @param request The operations and whether they run in one transaction.
+     * @return The status and response body of every operation and HTTP status OK, BAD_REQUEST for an atomic batch
+     * with sharding, or PAYLOAD_TOO_LARGE if the batch has too many operations.
+     */
+    @Operation(summary = "Execute task and user operations in one request", responses = {
+            @ApiResponse(responseCode = "200", description = "Operations executed, see their statuses"),
+            @ApiResponse(responseCode = "400", description = "Bad request"),
+            @ApiResponse(responseCode = "413", description = "Too many operations")
+    })
+    @PostMapping
+    public ResponseEntity<BatchResponse> executeBatch(@Valid @RequestBody BatchRequest request) {
+        log.info("Endpoint /api/batch called: executeBatch with {} operations", request.operations().size());
+        if (request.operations().size() > properties.getMaxOperations()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        if (request.isAtomic() && shardRouter.isSharded()) {
+            return ResponseEntity.badRequest().build();
+        }
+        Batch batch = new Batch(request.operations());
+        boolean committed = request.isAtomic() ? batch.executeAtomically() : batch.executeEach();
+        return ResponseEntity.ok(new BatchResponse(committed, batch.results));
+    }
+
+    private static BatchOperationResult result(int status, String ref, Object body) {
+        return new BatchOperationResult(status, ref, body);
+    }
+
+    private static BatchOperationResult result(HttpStatus status, String ref, Object body) {
+        return result(status.value(), ref, body);
+    }
+
+    private static boolean isSuccessful(BatchOperationResult result) {
+        return result.status() >= 200 && result.status() < 300;
+    }
+
+    /**
+     * Execution state of one batch: the results so far and the ids created under a ref.
+     */
+    private class Batch {
+
+        private final List<BatchOperation> operations;
+        private final List<BatchOperationResult> results = new ArrayList<>();
+        private final Map<String, Integer> createdIds = new HashMap<>();
+        private final Set<String> failedRefs = new HashSet<>();
+
+        Batch(List<BatchOperation> operations) {
+            this.operations = operations;
+        }
+
+        boolean executeAtomically() {
+            Boolean committed = transactionTemplate.execute(status -> {
+                int index = 0;
+                while (index < operations.size()) {
+                    int executed = executeNext(index);
+                    if (!isSuccessful(results.get(results.size() - 1))) {
+                        status.setRollbackOnly();
+                        return false;
+                    }
+                    index += executed;
+                }
+                return true;
+            });
+            if (!Boolean.TRUE.equals(committed)) {
+                while (results.size() < operations.size()) {
+                    results.add(result(FAILED_DEPENDENCY, operations.get(results.size()).ref(), null));
+                }
+                return false;
+            }
+            return true;
+        }
+
+        boolean executeEach() {
+            for (BatchOperation operation : operations) {
+                BatchOperationResult result;
+                try {
+                    result = shardRouter.isSharded()
+                            ? execute(operation)
+                            : transactionTemplate.execute(status -> execute(operation));
+                } catch (RuntimeException e) {
+                    result = failure(operation, e);
+                }
+                record(operation, result);
+            }
+            return true;
+        }
+
+        /**
+         * Executes the operation at the index, together with the task creations following it when it creates
+         * a task itself. A failing operation ends the executed operations.
+         *
+         * @return Number of executed operations.
+         */
+        private int executeNext(int index) {
+            List<BatchOperation> creations = new ArrayList<>();
+            for (int next = index; next < operations.size() && isBatchableTaskCreation(operations.get(next)); next++) {
+                creations.add(operations.get(next));
+            }
+            if (creations.size() > 1) {
+                return createTasks(creations);
+            }
+            BatchOperation operation = operations.get(index);
+            BatchOperationResult result;
+            try {
+                result = execute(operation);
+            } catch (RuntimeException e) {
+                result = failure(operation, e);
+            }
+            record(operation, result);
+            return 1;
+        }
+
+        /**
+         * Automatically assigned tasks are created one by one, every task reserves its user before the next one
+         * is picked.
+         */
+        private boolean isBatchableTaskCreation(BatchOperation operation) {
+            return operation.method().equals("POST") && operation.path().equals(TASK_PATH);
+        }
+
+        /**
+         * Validates the task creations and inserts the valid ones before the first invalid one with one JDBC batch.
+         */
+        private int createTasks(List<BatchOperation> creations) {
+            List<CreateTaskRequest> requests = new ArrayList<>();
+            Set<String> pendingRefs = new HashSet<>();
+            BatchOperationResult invalid = null;
+            for (BatchOperation operation : creations) {
+                try {
+                    checkRef(operation, pendingRefs);
+                    requests.add(readBody(operation, CreateTaskRequest.class));
+                    if (operation.ref() != null) {
+                        pendingRefs.add(operation.ref());
+                    }
+                } catch (OperationFailure failure) {
+                    invalid = result(failure.status, operation.ref(), failure.body);
+                    break;
+                }
+            }
+            try {
+                List<Task> tasks = taskService.addTasks(requests);
+                for (int index = 0; index < tasks.size(); index++) {
+                    record(creations.get(index), result(HttpStatus.CREATED, creations.get(index).ref(),
+                            taskMapper.taskToTaskResponse(tasks.get(index))));
+                }
+            } catch (RuntimeException e) {
+                BatchOperation first = creations.get(0);
+                record(first, failure(first, e));
+                return 1;
+            }
+            if (invalid != null) {
+                BatchOperation operation = creations.get(requests.size());
+                record(operation, invalid);
+                return requests.size() + 1;
+            }
+            return requests.size();
+        }
+
+        private void record(BatchOperation operation, BatchOperationResult result) {
+            results.add(result);
+            if (operation.ref() == null) {
+                return;
+            }
+            if (!isSuccessful(result)) {
+                failedRefs.add(operation.ref());
+            } else if (result.body() instanceof TaskResponse task) {
+                createdIds.put(operation.ref(), task.id());
+            } else if (result.body() instanceof UserResponse user) {
+                createdIds.put(operation.ref(), user.id());
+            }
+        }
+
+        private void checkRef(BatchOperation operation, Set<String> pendingRefs) {
+            String ref = operation.ref();
+            if (ref != null && (createdIds.containsKey(ref) || failedRefs.contains(ref) || pendingRefs.contains(ref))) {
+                throw new OperationFailure(HttpStatus.BAD_REQUEST, Map.of("ref", "Ref is already used"));
+            }
+        }
+
+        private BatchOperationResult failure(BatchOperation operation, RuntimeException e) {
+            if (e instanceof OperationFailure failure) {
+                return result(failure.status, operation.ref(), failure.body);
+            }
+            if (e instanceof DataIntegrityViolationException) {
+                log.warn("Batch operation {} {} violates a constraint: {}", operation.method(), operation.path(), e.getMessage());
+                return result(HttpStatus.CONFLICT, operation.ref(), null);
+            }
+            log.error("Batch operation {} {} failed", operation.method(), operation.path(), e);
+            return result(HttpStatus.INTERNAL_SERVER_ERROR, operation.ref(), null);
+        }
+
+        private BatchOperationResult execute(BatchOperation operation) {
+            checkRef(operation, Set.of());
+            String path = operation.path();
+            String query = null;
+            int queryStart = path.indexOf('?');
+            if (queryStart >= 0) {
+                query = path.substring(queryStart + 1);
+                path = path.substring(0, queryStart);
+            }
+            if (path.equals(TASK_PATH) && operation.method().equals("POST")) {
+                return createTask(operation, query);
+            }
+            if (path.equals(USER_PATH) && operation.method().equals("POST") && query == null) {
+                return createUser(operation);
+            }
+            if (query == null && path.startsWith(TASK_PATH + "/")) {
+                return executeOnTask(operation, resolveId(path.substring(TASK_PATH.length() + 1)));
+            }
+            if (query == null && path.startsWith(USER_PATH + "/")) {
+                return executeOnUser(operation, resolveId(path.substring(USER_PATH.length() + 1)));
+            }
+            throw new OperationFailure(HttpStatus.NOT_FOUND, null);
+        }
+
+        private BatchOperationResult createTask(BatchOperation operation, String query) {
+            CreateTaskRequest request = readBody(operation, CreateTaskRequest.class);
+            if (query != null) {
+                if (!query.equals("assign=auto")) {
+                    throw new OperationFailure(HttpStatus.BAD_REQUEST, Map.of("assign", "Assign must be auto"));
+                }
+                if (request.assignedUser() != null) {
+                    throw new OperationFailure(HttpStatus.BAD_REQUEST, null);
+                }
+                Optional<Integer> userId = taskAssigner.reserveLeastLoadedUser();
+                if (userId.isEmpty()) {
+                    throw new OperationFailure(HttpStatus.CONFLICT, null);
+                }
+                AppUser user = new AppUser();
+                user.setId(userId.get());
+                request = new CreateTaskRequest(request.description(), request.dueDate(), user, request.state());
+            }
+            Task task = taskService.addTask(request);
+            return result(HttpStatus.CREATED, operation.ref(), taskMapper.taskToTaskResponse(task));
+        }
+
+        private BatchOperationResult createUser(BatchOperation operation) {
+            AppUser user = userService.addUser(readBody(operation, CreateUserRequest.class));
+            return result(HttpStatus.CREATED, operation.ref(), userMapper.userToUserResponse(user));
+        }
+
+        private BatchOperationResult executeOnTask(BatchOperation operation, Integer taskId) {
+            return switch (operation.method()) {
+                case "GET" -> taskService.getTaskById(taskId)
+                        .map(task -> result(HttpStatus.OK, operation.ref(), taskMapper.taskToTaskResponse(task)))
+                        .orElseGet(() -> result(HttpStatus.NOT_FOUND, operation.ref(), null));
+                case "PUT" -> taskService.updateTask(taskId, readBody(operation, UpdateTaskRequest.class)).isPresent()
+                        ? result(HttpStatus.NO_CONTENT, operation.ref(), null)
+                        : result(HttpStatus.NOT_FOUND, operation.ref(), null);
+                case "DELETE" -> {
+                    taskService.deleteTask(taskId);
+                    yield result(HttpStatus.NO_CONTENT, operation.ref(), null);
+                }
+                default -> throw new OperationFailure(HttpStatus.METHOD_NOT_ALLOWED, null);
+            };
+        }
+
+        private BatchOperationResult executeOnUser(BatchOperation operation, Integer userId) {
+            return switch (operation.method()) {
+                case "GET" -> userService.getUserById(userId)
+                        .map(user -> result(HttpStatus.OK, operation.ref(), userMapper.userToUserResponse(user)))
+                        .orElseGet(() -> result(HttpStatus.NOT_FOUND, operation.ref(), null));
+                case "PUT" -> userService.updateUser(userId, readBody(operation, UpdateUserRequest.class)).isPresent()
+                        ? result(HttpStatus.NO_CONTENT, operation.ref(), null)
+                        : result(HttpStatus.NOT_FOUND, operation.ref(), null);
+                case "DELETE" -> {
+                    userService.deleteUser(userId);
+                    yield result(HttpStatus.NO_CONTENT, operation.ref(), null);
+                }
+                default -> throw new OperationFailure(HttpStatus.METHOD_NOT_ALLOWED, null);
+            };
+        }
+
+        private Integer resolveId(String segment) {
+            if (segment.startsWith("$")) {
+                return resolveRef(segment.substring(1));
+            }
+            try {
+                return Integer.valueOf(segment);
+            } catch (NumberFormatException e) {
+                throw new OperationFailure(HttpStatus.NOT_FOUND, null);
+            }
+        }
+
+        private Integer resolveRef(String ref) {
+            Integer id = createdIds.get(ref);
+            if (id != null) {
+                return id;
+            }
+            if (failedRefs.contains(ref)) {
+                throw new OperationFailure(HttpStatus.FAILED_DEPENDENCY, Map.of("ref", "Operation " + ref + " failed"));
+            }
+            throw new OperationFailure(HttpStatus.BAD_REQUEST, Map.of("ref", "Unknown ref " + ref));
+        }
+
+        /**
+         * Reads and validates the body like the route does, after resolving refs in "id" fields.
+         */
+        private <T> T readBody(BatchOperation operation, Class<T> type) {
+            if (operation.body() == null || operation.body().isNull()) {
+                throw new OperationFailure(HttpStatus.BAD_REQUEST, Map.of("body", "Body must not be empty"));
+            }
+            T body;
+            try {
+                body = objectMapper.treeToValue(resolveRefs(operation.body().deepCopy()), type);
+            } catch (JsonProcessingException e) {
+                throw new OperationFailure(HttpStatus.BAD_REQUEST, Map.of("body", e.getOriginalMessage()));
+            } catch (IllegalArgumentException e) {
+                throw new OperationFailure(HttpStatus.BAD_REQUEST, Map.of("body", String.valueOf(e.getMessage())));
+            }
+            Set<ConstraintViolation<T>> violations = validator.validate(body);
+            if (!violations.isEmpty()) {
+                Map<String, String> errors = new HashMap<>();
+                violations.forEach(violation -> errors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+                throw new OperationFailure(HttpStatus.BAD_REQUEST, errors);
+            }
+            return body;
+        }
+
+        private JsonNode resolveRefs(JsonNode node) {
+            if (node instanceof ObjectNode object) {
+                Iterator<Map.Entry<String, JsonNode>> fields = object.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    JsonNode value = field.getValue();
+                    if (field.getKey().equals("id") && value.isTextual() && value.asText().startsWith("$")) {
+                        field.setValue(IntNode.valueOf(resolveRef(value.asText().substring(1))));
+                    } else {
+                        resolveRefs(value);
+                    }
+                }
+            } else if (node instanceof ArrayNode array) {
+                array.forEach(this::resolveRefs);
+            }
+            return node;
+        }
+    }
+
+    /**
+     * Ends an operation with the status and body the route would have responded with.
+     */
+    private static class OperationFailure extends RuntimeException {
+        private final int status;
+        private final transient Object body;
+
+        OperationFailure(HttpStatus status, Object body) {
+            super(null, null, false, false);
+            this.status = status.value();
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.taskmanager.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.Collection;
+
+/**
+ * Cost class of a request, each class has its own concurrency budget.
+ */
+public enum RequestClass {
+    POINT_READ,
+    LIST,
+    WRITE;
+
+    /**
+     * Classifies a request: the class declared by {@link AdmissionClass} on the handler takes precedence,
+     * otherwise every non-GET request is a write, a GET request is a list if its handler returns a collection
+     * and a point read otherwise.
+     *
+     * @param request The HTTP request.
+     * @param handler The handler method serving the request.
+     * @return The class of the request.
+     */
+    public static RequestClass of(HttpServletRequest request, HandlerMethod handler) {
+        AdmissionClass declared = handler.getMethodAnnotation(AdmissionClass.class);
+        if (declared != null) {
+            return declared.value();
+        }
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return WRITE;
+        }
+        ResolvableType returnType = ResolvableType.forMethodReturnType(handler.getMethod());
+        if (ResponseEntity.class.equals(returnType.resolve())) {
+            returnType = returnType.getGeneric(0);
+        }
+        Class<?> body = returnType.resolve();
+        return body != null && Collection.class.isAssignableFrom(body) ? LIST : POINT_READ;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.taskmanager.web;
+
+import com.example.taskmanager.dto.SparseTaskResponse;
+import com.example.taskmanager.dto.TaskPageResponse;
+import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.dto.UserResponse;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Set;
+
+/**
+ * Writes task and user responses, sparse task responses, task pages and collections of them
+ * with {@link ResponseJsonWriter}.
+ * Registered before the Jackson converter, every other type and every request body is left to Jackson.
+ */
+public class ResponseJsonMessageConverter extends WriteOnlyHttpMessageConverter<Object> {
+
+    private static final Set<Class<?>> RESPONSE_TYPES = Set.of(TaskResponse.class, SparseTaskResponse.class,
+            UserResponse.class, TaskPageResponse.class);
+    private static final Set<Class<?>> ELEMENT_TYPES = Set.of(TaskResponse.class, SparseTaskResponse.class, UserResponse.class);
+
+    public ResponseJsonMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return RESPONSE_TYPES.contains(clazz);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        ResolvableType resolved = type != null ? ResolvableType.forType(type) : ResolvableType.forClass(clazz);
+        if (resolved.asCollection() != ResolvableType.NONE) {
+            Class<?> element = resolved.asCollection().getGeneric(0).resolve();
+            return ELEMENT_TYPES.contains(element) && canWrite(mediaType);
+        }
+        return supports(resolved.toClass()) && canWrite(mediaType);
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        ResponseJsonWriter writer = new ResponseJsonWriter(outputMessage.getBody());
+        writer.write(value);
+        writer.flush();
+    }
+}
@@ -0,0 +1,331 @@
+package com.example.taskmanager.web;
+
+import com.example.taskmanager.data.AppUser;
+import com.example.taskmanager.data.TaskField;
+import com.example.taskmanager.data.TaskState;
+import com.example.taskmanager.dto.SparseTaskResponse;
+import com.example.taskmanager.dto.TaskPageResponse;
+import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.dto.UserResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Writes task and user responses as UTF-8 JSON straight into an output stream, without reflection.
+ * Property names and task states are encoded once, numbers and dates are written digit by digit into the buffer.
+ * The output is identical to the one of the Jackson ObjectMapper configured by Spring Boot.
+ */
+public class ResponseJsonWriter {
+
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] ID = ascii("{\"id\":");
+    private static final byte[] DESCRIPTION = ascii(",\"description\":");
+    private static final byte[] DUE_DATE = ascii(",\"dueDate\":");
+    private static final byte[] ASSIGNED_USER = ascii(",\"assignedUser\":");
+    private static final byte[] STATE = ascii(",\"state\":");
+    private static final byte[] USERNAME = ascii(",\"username\":");
+    private static final byte[] TASKS = ascii("{\"tasks\":");
+    private static final byte[] TOTAL = ascii(",\"total\":");
+    private static final byte[] PAGE = ascii(",\"page\":");
+    private static final byte[] SIZE = ascii(",\"size\":");
+    private static final byte[] HEX = ascii("0123456789ABCDEF");
+    private static final byte[][] STATES = new byte[TaskState.values().length][];
+    private static final byte[][] FIELD_NAMES = new byte[TaskField.values().length][];
+
+    static {
+        for (TaskState state : TaskState.values()) {
+            STATES[state.ordinal()] = ascii('"' + state.name() + '"');
+        }
+        for (TaskField field : TaskField.values()) {
+            String name = field == TaskField.ASSIGNED_USER_ID ? "assignedUser" : field.getJsonName();
+            FIELD_NAMES[field.ordinal()] = ascii('"' + name + "\":");
+        }
+    }
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int position;
+
+    public ResponseJsonWriter(OutputStream out) {
+        this(out, 8192);
+    }
+
+    public ResponseJsonWriter(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.buffer = new byte[Math.max(bufferSize, 64)];
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Writes a supported response: a task, a task restricted to some fields, a user, a page of tasks
+     * or a collection of those.
+     *
+     * @param value The response to write.
+     * @throws IllegalArgumentException If the value is of another type.
+     */
+    public void write(Object value) throws IOException {
+        if (value instanceof TaskResponse task) {
+            writeTask(task);
+        } else if (value instanceof SparseTaskResponse task) {
+            writeSparseTask(task);
+        } else if (value instanceof UserResponse user) {
+            writeUser(user);
+        } else if (value instanceof TaskPageResponse page) {
+            writeTaskPage(page);
+        } else if (value instanceof Collection<?> values) {
+            writeByte('[');
+            boolean first = true;
+            for (Object element : values) {
+                if (!first) {
+                    writeByte(',');
+                }
+                first = false;
+                write(element);
+            }
+            writeByte(']');
+        } else if (value == null) {
+            writeBytes(NULL);
+        } else {
+            throw new IllegalArgumentException("Unsupported response type " + value.getClass().getName());
+        }
+    }
+
+    public void writeTask(TaskResponse task) throws IOException {
+        writeBytes(ID);
+        writeInteger(task.id());
+        writeBytes(DESCRIPTION);
+        writeString(task.description());
+        writeBytes(DUE_DATE);
+        writeDate(task.dueDate());
+        writeBytes(ASSIGNED_USER);
+        AppUser user = task.assignedUser();
+        if (user == null) {
+            writeBytes(NULL);
+        } else {
+            writeUser(user.getId(), user.getUsername());
+        }
+        writeBytes(STATE);
+        TaskState state = task.state();
+        writeBytes(state != null ? STATES[state.ordinal()] : NULL);
+        writeByte('}');
+    }
+
+    public void writeSparseTask(SparseTaskResponse task) throws IOException {
+        writeByte('{');
+        boolean first = true;
+        for (TaskField field : task.fields()) {
+            if (!first) {
+                writeByte(',');
+            }
+            first = false;
+            writeBytes(FIELD_NAMES[field.ordinal()]);
+            switch (field) {
+                case ID -> writeInteger(task.id());
+                case DESCRIPTION -> writeString(task.description());
+                case DUE_DATE -> writeDate(task.dueDate());
+                case ASSIGNED_USER -> {
+                    if (task.userId() == null) {
+                        writeBytes(NULL);
+                    } else {
+                        writeUser(task.userId(), task.username());
+                    }
+                }
+                case ASSIGNED_USER_ID -> {
+                    if (task.userId() == null) {
+                        writeBytes(NULL);
+                    } else {
+                        writeBytes(ID);
+                        writeInteger(task.userId());
+                        writeByte('}');
+                    }
+                }
+                case STATE -> writeBytes(task.state() != null ? STATES[task.state().ordinal()] : NULL);
+            }
+        }
+        writeByte('}');
+    }
+
+    public void writeUser(UserResponse user) throws IOException {
+        writeUser(user.id(), user.username());
+    }
+
+    private void writeUser(Integer id, String username) throws IOException {
+        writeBytes(ID);
+        writeInteger(id);
+        writeBytes(USERNAME);
+        writeString(username);
+        writeByte('}');
+    }
+
+    public void writeTaskPage(TaskPageResponse page) throws IOException {
+        writeBytes(TASKS);
+        write(page.tasks());
+        writeBytes(TOTAL);
+        writeLong(page.total());
+        writeBytes(PAGE);
+        writeLong(page.page());
+        writeBytes(SIZE);
+        writeLong(page.size());
+        writeByte('}');
+    }
+
+    /**
+     * Writes the buffered bytes to the output stream, the stream itself is not flushed.
+     */
+    public void flush() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private void writeInteger(Integer value) throws IOException {
+        if (value == null) {
+            writeBytes(NULL);
+        } else {
+            writeLong(value);
+        }
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            writeBytes(ascii(Long.toString(value)));
+            return;
+        }
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        int end = position + digits;
+        for (int index = end - 1; index >= position; index--) {
+            buffer[index] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position = end;
+    }
+
+    /**
+     * Writes an ISO-8601 local date, years outside 0-9999 take the slow path of {@link LocalDate#toString()}.
+     */
+    private void writeDate(LocalDate date) throws IOException {
+        if (date == null) {
+            writeBytes(NULL);
+            return;
+        }
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            writeString(date.toString());
+            return;
+        }
+        int month = date.getMonthValue();
+        int day = date.getDayOfMonth();
+        ensureCapacity(12);
+        byte[] b = buffer;
+        int p = position;
+        b[p] = '"';
+        b[p + 1] = (byte) ('0' + year / 1000);
+        b[p + 2] = (byte) ('0' + year / 100 % 10);
+        b[p + 3] = (byte) ('0' + year / 10 % 10);
+        b[p + 4] = (byte) ('0' + year % 10);
+        b[p + 5] = '-';
+        b[p + 6] = (byte) ('0' + month / 10);
+        b[p + 7] = (byte) ('0' + month % 10);
+        b[p + 8] = '-';
+        b[p + 9] = (byte) ('0' + day / 10);
+        b[p + 10] = (byte) ('0' + day % 10);
+        b[p + 11] = '"';
+        position = p + 12;
+    }
+
+    /**
+     * Writes a quoted string encoded as UTF-8, escaping quotes, backslashes and control characters like Jackson.
+     */
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            writeBytes(NULL);
+            return;
+        }
+        writeByte('"');
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    writeByte(c);
+                } else {
+                    writeEscaped(c);
+                }
+            } else if (c < 0x800) {
+                ensureCapacity(2);
+                buffer[position++] = (byte) (0xC0 | c >> 6);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                ensureCapacity(4);
+                buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogates have no UTF-8 encoding, they are replaced like String.getBytes does.
+                writeByte('?');
+            } else {
+                ensureCapacity(3);
+                buffer[position++] = (byte) (0xE0 | c >> 12);
+                buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        writeByte('"');
+    }
+
+    private void writeEscaped(char c) throws IOException {
+        ensureCapacity(6);
+        buffer[position++] = '\\';
+        switch (c) {
+            case '"' -> buffer[position++] = '"';
+            case '\\' -> buffer[position++] = '\\';
+            case '\b' -> buffer[position++] = 'b';
+            case '\f' -> buffer[position++] = 'f';
+            case '\n' -> buffer[position++] = 'n';
+            case '\r' -> buffer[position++] = 'r';
+            case '\t' -> buffer[position++] = 't';
+            default -> {
+                buffer[position++] = 'u';
+                buffer[position++] = '0';
+                buffer[position++] = '0';
+                buffer[position++] = HEX[c >> 4];
+                buffer[position++] = HEX[c & 0xF];
+            }
+        }
+    }
+
+    private void writeByte(int value) throws IOException {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void ensureCapacity(int length) throws IOException {
+        if (position + length > buffer.length) {
+            flush();
+        }
+    }
+}
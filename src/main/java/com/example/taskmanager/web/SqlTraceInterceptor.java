@@ -0,0 +1,31 @@
+package com.example.taskmanager.web;
+
+import com.example.taskmanager.data.SqlTrace;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Interceptor tagging the SQL statements of a request with its handler, e.g. TaskController.getAllTasks.
+ * The tag stays set until the request completes, so statements of lazy loading during serialization are included.
+ */
+public class SqlTraceInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            SqlTrace.setTag(tag(handlerMethod));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        SqlTrace.clearTag();
+    }
+
+    static String tag(HandlerMethod handlerMethod) {
+        return handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+    }
+}
@@ -1,19 +1,36 @@
 package com.example.taskmanager.web;
 
+import com.example.taskmanager.config.TaskCalendarProperties;
+import com.example.taskmanager.data.AppUser;
 import com.example.taskmanager.data.Task;
+import com.example.taskmanager.data.TaskField;
 import com.example.taskmanager.data.TaskMapper;
 import com.example.taskmanager.data.TaskState;
+import com.example.taskmanager.dto.CalendarDayResponse;
+import com.example.taskmanager.dto.CalendarDaySummaryResponse;
 import com.example.taskmanager.dto.CreateTaskRequest;
+import com.example.taskmanager.dto.SparseTaskResponse;
+import com.example.taskmanager.dto.TaskCountResponse;
+import com.example.taskmanager.dto.TaskImportResponse;
+import com.example.taskmanager.dto.TaskPageResponse;
 import com.example.taskmanager.dto.TaskResponse;
 import com.example.taskmanager.dto.UpdateTaskRequest;
+import com.example.taskmanager.service.TaskAssigner;
+import com.example.taskmanager.service.TaskImportService;
+import com.example.taskmanager.service.TaskSearchService;
 import com.example.taskmanager.service.TaskService;
+import com.example.taskmanager.validation.ValidateTaskFields;
 import com.example.taskmanager.validation.ValidateTaskState;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -23,10 +40,17 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -42,6 +66,10 @@ public class TaskController {
 
     private final TaskService taskService;
     private final TaskMapper taskMapper;
+    private final TaskImportService taskImportService;
+    private final TaskSearchService taskSearchService;
+    private final TaskAssigner taskAssigner;
+    private final TaskCalendarProperties calendarProperties;
 
     /**
      * Maps a single Task entity to a TaskResponse DTO.
@@ -81,6 +109,22 @@ public class TaskController {
         return ResponseEntity.ok(responses);
     }
 
+    /**
+     * Retrieves the requested fields of all tasks.
+     *
+     * @param fields Comma separated fields to return, e.g. "id,state"; the assigned user is joined only when
+     *               "assignedUser" is requested, "assignedUser.id" is read from the task.
+     * @return List of tasks restricted to the fields and HTTP status OK.
+     */
+    @Operation(summary = "Get the requested fields of all tasks", responses = {
+            @ApiResponse(responseCode = "200", description = "List of tasks restricted to the fields")
+    })
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<SparseTaskResponse>> getAllTasks(@RequestParam @ValidateTaskFields String fields) {
+        log.info("Endpoint /api/task called: getAllTasks with fields");
+        return ResponseEntity.ok(taskService.getAllTasks(TaskField.parse(fields)));
+    }
+
     /**
      * Retrieves a specific task by its ID.
      *
@@ -104,22 +148,59 @@ public class TaskController {
 
     /**
      * Adds a new task.
+     * With assign=auto the task is assigned to the user with the fewest open tasks.
      *
      * @param request The request body containing task details.
-     * @return Created task and HTTP status CREATED if successful, or BAD_REQUEST if validation fails.
+     * @param assign  "auto" to assign the task automatically, the request must not contain an assigned user then.
+     * @return Created task and HTTP status CREATED if successful, BAD_REQUEST if validation fails,
+     * or CONFLICT if the task should be assigned automatically but there are no users.
      */
     @Operation(summary = "Add a new task", responses = {
             @ApiResponse(responseCode = "201", description = "Task created"),
-            @ApiResponse(responseCode = "400", description = "Bad request")
+            @ApiResponse(responseCode = "400", description = "Bad request"),
+            @ApiResponse(responseCode = "409", description = "No user to assign the task to")
     })
     @PostMapping
-    public ResponseEntity<TaskResponse> addTask(@Valid @RequestBody CreateTaskRequest request) {
+    public ResponseEntity<TaskResponse> addTask(@Valid @RequestBody CreateTaskRequest request,
+                                                @RequestParam(required = false)
+                                                @Pattern(regexp = "auto", message = "Assign must be auto") String assign) {
         log.info("Endpoint /api/task called: addTask");
+        if (assign != null) {
+            if (request.assignedUser() != null) {
+                return ResponseEntity.badRequest().build();
+            }
+            Optional<Integer> userId = taskAssigner.leastLoadedUser();
+            if (userId.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+            AppUser user = new AppUser();
+            user.setId(userId.get());
+            request = new CreateTaskRequest(request.description(), request.dueDate(), user, request.state());
+        }
         Task createdTask = taskService.addTask(request);
         TaskResponse response = mapTaskToResponse(createdTask);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Imports tasks from an uploaded CSV file with the columns description, due_date, user_id and state.
+     *
+     * @param file The CSV file.
+     * @return Number of imported and rejected rows with the line numbers of rejected rows, and HTTP status OK.
+     * @throws IOException If the uploaded file cannot be read.
+     */
+    @Operation(summary = "Import tasks from a CSV file", responses = {
+            @ApiResponse(responseCode = "200", description = "Valid rows imported, invalid rows reported")
+    })
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<TaskImportResponse> importTasks(@RequestParam("file") MultipartFile file) throws IOException {
+        log.info("Endpoint /api/task/import called: importTasks");
+        try (InputStream csv = file.getInputStream()) {
+            TaskImportResponse response = taskImportService.importTasks(csv);
+            return ResponseEntity.ok(response);
+        }
+    }
+
     /**
      * Updates an existing task.
      *
@@ -176,6 +257,24 @@ public class TaskController {
         return ResponseEntity.ok(responses);
     }
 
+    /**
+     * Retrieves the requested fields of tasks assigned to a user.
+     *
+     * @param userId The ID of the user.
+     * @param fields Comma separated fields to return, e.g. "id,state"; the assigned user is joined only when
+     *               "assignedUser" is requested, "assignedUser.id" is read from the task.
+     * @return List of tasks restricted to the fields and HTTP status OK.
+     */
+    @Operation(summary = "Get the requested fields of tasks by assigned user ID", responses = {
+            @ApiResponse(responseCode = "200", description = "List of tasks by assigned user restricted to the fields")
+    })
+    @GetMapping(value = "/user/{userId}", params = "fields")
+    public ResponseEntity<List<SparseTaskResponse>> getTasksForUser(@PathVariable Integer userId,
+                                                                    @RequestParam @ValidateTaskFields String fields) {
+        log.info("Endpoint /api/task/user called: getTasksForUser with fields");
+        return ResponseEntity.ok(taskService.getTasksForUser(userId, TaskField.parse(fields)));
+    }
+
     /**
      * Retrieves tasks based on their state.
      *
@@ -193,6 +292,24 @@ public class TaskController {
         return ResponseEntity.ok(responses);
     }
 
+    /**
+     * Retrieves the requested fields of tasks based on their state.
+     *
+     * @param state  The state of the tasks to retrieve.
+     * @param fields Comma separated fields to return, e.g. "id,state"; the assigned user is joined only when
+     *               "assignedUser" is requested, "assignedUser.id" is read from the task.
+     * @return List of tasks restricted to the fields and HTTP status OK.
+     */
+    @Operation(summary = "Get the requested fields of tasks by state", responses = {
+            @ApiResponse(responseCode = "200", description = "List of tasks by state restricted to the fields")
+    })
+    @GetMapping(value = "/state/{state}", params = "fields")
+    public ResponseEntity<List<SparseTaskResponse>> getTasksByState(@PathVariable @ValidateTaskState TaskState state,
+                                                                    @RequestParam @ValidateTaskFields String fields) {
+        log.info("Endpoint /api/task/state called: getTasksByState with fields");
+        return ResponseEntity.ok(taskService.getTasksByState(state, TaskField.parse(fields)));
+    }
+
     /**
      * Retrieves tasks based on their due date.
      *
@@ -210,4 +327,129 @@ public class TaskController {
         return ResponseEntity.ok(responses);
     }
 
+    /**
+     * Retrieves the requested fields of tasks based on their due date.
+     *
+     * @param dueDate The due date for tasks to retrieve.
+     * @param fields Comma separated fields to return, e.g. "id,state"; the assigned user is joined only when
+     *               "assignedUser" is requested, "assignedUser.id" is read from the task.
+     * @return List of tasks restricted to the fields and HTTP status OK.
+     */
+    @Operation(summary = "Get the requested fields of tasks by due date", responses = {
+            @ApiResponse(responseCode = "200", description = "List of tasks by due date restricted to the fields")
+    })
+    @GetMapping(value = "/date/{dueDate}", params = "fields")
+    public ResponseEntity<List<SparseTaskResponse>> getTasksByDueDate(@PathVariable LocalDate dueDate,
+                                                                      @RequestParam @ValidateTaskFields String fields) {
+        log.info("Endpoint /api/task/date called: getTasksByDueDate with fields");
+        return ResponseEntity.ok(taskService.getTasksByDueDate(dueDate, TaskField.parse(fields)));
+    }
+
+    /**
+     * Searches tasks by any combination of state, assigned user and due date.
+     *
+     * @param state   The state of the tasks, optional.
+     * @param userId  The ID of the assigned user, optional.
+     * @param dueDate The due date of the tasks, optional.
+     * @param page    The zero-based page number.
+     * @param size    The page size.
+     * @return Page of tasks ordered by ID with the total number of matching tasks and HTTP status OK.
+     */
+    @Operation(summary = "Search tasks by state, assigned user and due date", responses = {
+            @ApiResponse(responseCode = "200", description = "Page of matching tasks")
+    })
+    @GetMapping("/search")
+    @AdmissionClass(RequestClass.LIST)
+    public ResponseEntity<TaskPageResponse> searchTasks(@RequestParam(required = false) @ValidateTaskState TaskState state,
+                                                        @RequestParam(required = false) Integer userId,
+                                                        @RequestParam(required = false) LocalDate dueDate,
+                                                        @RequestParam(defaultValue = "0") @Min(0) int page,
+                                                        @RequestParam(defaultValue = "50") @Min(1) @Max(1000) int size) {
+        log.info("Endpoint /api/task/search called: searchTasks");
+        TaskSearchService.TaskPage tasks = taskSearchService.searchTasks(state, userId, dueDate, page, size);
+        return ResponseEntity.ok(new TaskPageResponse(mapTaskToResponse(tasks.tasks()), tasks.total(), page, size));
+    }
+
+    /**
+     * Counts tasks per state, optionally restricted to an assigned user and a due date.
+     *
+     * @param userId  The ID of the assigned user, optional.
+     * @param dueDate The due date of the tasks, optional.
+     * @return Total number of matching tasks with the number per state and HTTP status OK.
+     */
+    @Operation(summary = "Count tasks per state", responses = {
+            @ApiResponse(responseCode = "200", description = "Number of matching tasks per state")
+    })
+    @GetMapping("/count")
+    @AdmissionClass(RequestClass.LIST)
+    public ResponseEntity<TaskCountResponse> countTasks(@RequestParam(required = false) Integer userId,
+                                                        @RequestParam(required = false) LocalDate dueDate) {
+        log.info("Endpoint /api/task/count called: countTasks");
+        Map<TaskState, Long> byState = taskSearchService.countTasksByState(userId, dueDate);
+        long total = byState.values().stream().mapToLong(Long::longValue).sum();
+        return ResponseEntity.ok(new TaskCountResponse(total, byState));
+    }
+
+    /**
+     * Retrieves tasks due within a date range grouped per day.
+     *
+     * @param from   The first due date, inclusive.
+     * @param to     The last due date, inclusive.
+     * @param userId The ID of the assigned user, optional.
+     * @return Days with tasks in ascending order with their tasks and HTTP status OK,
+     * or BAD_REQUEST if the range is reversed or longer than the configured maximum.
+     */
+    @Operation(summary = "Get tasks due within a date range grouped per day", responses = {
+            @ApiResponse(responseCode = "200", description = "Days with their tasks"),
+            @ApiResponse(responseCode = "400", description = "Invalid or too long date range")
+    })
+    @GetMapping("/calendar")
+    public ResponseEntity<List<CalendarDayResponse>> getCalendar(@RequestParam LocalDate from, @RequestParam LocalDate to,
+                                                                 @RequestParam(required = false) Integer userId) {
+        log.info("Endpoint /api/task/calendar called: getCalendar");
+        if (!isValidCalendarRange(from, to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<CalendarDayResponse> days = new ArrayList<>();
+        List<TaskResponse> dayTasks = null;
+        for (Task task : taskService.getTasksByDueDateRange(from, to, userId)) {
+            if (dayTasks == null || !task.getDueDate().equals(days.get(days.size() - 1).date())) {
+                dayTasks = new ArrayList<>();
+                days.add(new CalendarDayResponse(task.getDueDate(), dayTasks));
+            }
+            dayTasks.add(mapTaskToResponse(task));
+        }
+        return ResponseEntity.ok(days);
+    }
+
+    /**
+     * Counts tasks due within a date range per day and state.
+     *
+     * @param from   The first due date, inclusive.
+     * @param to     The last due date, inclusive.
+     * @param userId The ID of the assigned user, optional.
+     * @return Days with tasks in ascending order with the number of tasks per state and HTTP status OK,
+     * or BAD_REQUEST if the range is reversed or longer than the configured maximum.
+     */
+    @Operation(summary = "Count tasks due within a date range per day and state", responses = {
+            @ApiResponse(responseCode = "200", description = "Days with their number of tasks per state"),
+            @ApiResponse(responseCode = "400", description = "Invalid or too long date range")
+    })
+    @GetMapping(value = "/calendar", params = "summary=true")
+    public ResponseEntity<List<CalendarDaySummaryResponse>> getCalendarSummary(@RequestParam LocalDate from,
+                                                                               @RequestParam LocalDate to,
+                                                                               @RequestParam(required = false) Integer userId) {
+        log.info("Endpoint /api/task/calendar called: getCalendarSummary");
+        if (!isValidCalendarRange(from, to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<CalendarDaySummaryResponse> days = taskService.countTasksByDueDateRange(from, to, userId).entrySet().stream()
+                .map(day -> new CalendarDaySummaryResponse(day.getKey(), day.getValue()))
+                .toList();
+        return ResponseEntity.ok(days);
+    }
+
+    private boolean isValidCalendarRange(LocalDate from, LocalDate to) {
+        return !to.isBefore(from) && ChronoUnit.DAYS.between(from, to) < calendarProperties.getMaxDays();
+    }
 }
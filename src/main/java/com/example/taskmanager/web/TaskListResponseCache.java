@@ -0,0 +1,209 @@
+package com.example.taskmanager.web;
+
+import com.example.taskmanager.data.TaskState;
+import com.example.taskmanager.service.ChangeType;
+import com.example.taskmanager.service.TaskChange;
+import com.example.taskmanager.service.TaskChangeListener;
+import com.example.taskmanager.service.UserChange;
+import com.example.taskmanager.service.UserChangeListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Filter serving the task list endpoints by state and by due date from a short-lived cache of serialized responses.
+ * Concurrent identical requests missing the cache are coalesced: the first one runs the query and the others
+ * wait for its response. Entries are evicted by the state and due date keys touched by every task change.
+ * Requests with query parameters, e.g. a fields selection, are not cached. Keys are built from the parsed state and
+ * due date, so every spelling of a path maps to the key evicted by the changes. A request waits for the first one
+ * at most for the coalescing timeout, then runs its own query.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class TaskListResponseCache extends OncePerRequestFilter implements TaskChangeListener, UserChangeListener {
+
+    private static final Pattern LIST_PATH = Pattern.compile("^/api/task/(state|date)/([^/]+)$");
+
+    private final long ttlNanos;
+    private final long coalesceTimeoutNanos;
+
+    private final Map<String, CachedResponse> responses = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private record CachedResponse(byte[] body, String contentType, long expiresAtNanos) {
+    }
+
+    /**
+     * @return The key of the state or due date of a list request, null for other requests and invalid values.
+     */
+    private static String key(HttpServletRequest request) {
+        Matcher matcher = LIST_PATH.matcher(request.getRequestURI());
+        if (!matcher.matches()) {
+            return null;
+        }
+        String value = UriUtils.decode(matcher.group(2), StandardCharsets.UTF_8);
+        try {
+            return matcher.group(1).equals("state") ? stateKey(TaskState.valueOf(value)) : dateKey(LocalDate.parse(value));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod()) || request.getQueryString() != null || key(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = key(request);
+        CachedResponse cached = responses.get(key);
+        if (cached != null) {
+            if (cached.expiresAtNanos() - System.nanoTime() > 0) {
+                write(response, cached);
+                return;
+            }
+            responses.remove(key, cached);
+        }
+
+        CompletableFuture<CachedResponse> own = new CompletableFuture<>();
+        CompletableFuture<CachedResponse> leader = inFlight.putIfAbsent(key, own);
+        if (leader != null) {
+            CachedResponse shared = await(leader);
+            if (shared != null) {
+                write(response, shared);
+            } else {
+                filterChain.doFilter(request, response);
+            }
+            return;
+        }
+
+        long generation = invalidations.get();
+        CachedResponse result = null;
+        try {
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            filterChain.doFilter(request, wrapper);
+            if (wrapper.getStatus() == HttpStatus.OK.value()) {
+                result = new CachedResponse(wrapper.getContentAsByteArray(), wrapper.getContentType(),
+                        System.nanoTime() + ttlNanos);
+                store(key, result, generation);
+            }
+            wrapper.copyBodyToResponse();
+        } finally {
+            inFlight.remove(key, own);
+            own.complete(result);
+        }
+    }
+
+    /**
+     * @return The response of the first request, or null if it failed, was not cacheable or took longer than the
+     * coalescing timeout.
+     */
+    private CachedResponse await(CompletableFuture<CachedResponse> leader) throws ServletException {
+        try {
+            return leader.get(coalesceTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Interrupted while waiting for a coalesced response", e);
+        }
+    }
+
+    /**
+     * Caches a response unless an invalidation happened since its query started.
+     * The generation is checked again after the put, so a concurrent invalidation either sees the entry or discards it.
+     */
+    private void store(String key, CachedResponse response, long generation) {
+        if (invalidations.get() != generation) {
+            return;
+        }
+        responses.put(key, response);
+        if (invalidations.get() != generation) {
+            responses.remove(key, response);
+        }
+    }
+
+    private static void write(HttpServletResponse response, CachedResponse cached) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(cached.contentType());
+        response.setContentLength(cached.body().length);
+        response.getOutputStream().write(cached.body());
+    }
+
+    /**
+     * Evicts the responses of the states and due dates touched by the change.
+     * A bulk change, or a deletion without the old values of the task, evicts everything.
+     *
+     * @param change The task change.
+     */
+    @Override
+    public void onTaskChange(TaskChange change) {
+        if (change.type() == ChangeType.BULK || change.type() == ChangeType.DELETED
+                && change.oldState() == null && change.oldDueDate() == null) {
+            invalidateAll();
+            return;
+        }
+        invalidations.incrementAndGet();
+        Stream.of(stateKey(change.oldState()), stateKey(change.newState()),
+                        dateKey(change.oldDueDate()), dateKey(change.newDueDate()))
+                .filter(Objects::nonNull)
+                .forEach(key -> {
+                    responses.remove(key);
+                    inFlight.remove(key);
+                });
+    }
+
+    /**
+     * Evicts everything, cached task responses embed the assigned user.
+     *
+     * @param change The user change.
+     */
+    @Override
+    public void onUserChange(UserChange change) {
+        if (change.type() != ChangeType.CREATED) {
+            invalidateAll();
+        }
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        responses.clear();
+        inFlight.clear();
+        log.debug("Invalidated all cached task list responses");
+    }
+
+    private static String stateKey(TaskState state) {
+        return state != null ? "state:" + state : null;
+    }
+
+    private static String dateKey(LocalDate dueDate) {
+        return dueDate != null ? "date:" + dueDate : null;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.taskmanager.web;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.lang.reflect.Type;
+
+/**
+ * Base of converters that only write responses. It reports every type as unreadable, so request bodies
+ * are left to the other converters and the read methods are never reached.
+ *
+ * @param <T> The type of the written values.
+ */
+public abstract class WriteOnlyHttpMessageConverter<T> extends AbstractGenericHttpMessageConverter<T> {
+
+    protected WriteOnlyHttpMessageConverter(MediaType... supportedMediaTypes) {
+        super(supportedMediaTypes);
+    }
+
+    @Override
+    public final boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public final boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected final T readInternal(Class<? extends T> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException(getClass().getSimpleName() + " does not read request bodies", inputMessage);
+    }
+
+    @Override
+    public final T read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException(getClass().getSimpleName() + " does not read request bodies", inputMessage);
+    }
+}
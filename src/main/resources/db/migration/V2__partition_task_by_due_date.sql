@@ -0,0 +1,133 @@
+-- Turns task into a table range-partitioned by due_date (one partition per month)
+-- and adds task_archive for COMPLETED tasks moved out of old partitions.
+--
+-- A partitioned table cannot have a primary key that does not include the partition
+-- column, and due_date is nullable, so id uniqueness is guaranteed by task_id_seq and
+-- every partition carries a plain index on id for lookups by primary key.
+
+ALTER TABLE task RENAME TO task_legacy;
+ALTER SEQUENCE task_id_seq OWNED BY NONE;
+
+CREATE TABLE task (
+    id INTEGER NOT NULL DEFAULT nextval('task_id_seq'),
+    description VARCHAR(255) NOT NULL,
+    due_date DATE,
+    user_id INTEGER REFERENCES app_user(id),
+    state VARCHAR(255)
+) PARTITION BY RANGE (due_date);
+
+ALTER SEQUENCE task_id_seq OWNED BY task.id;
+
+-- Tasks without a due date or outside of every monthly partition.
+CREATE TABLE task_default PARTITION OF task DEFAULT;
+
+CREATE INDEX task_id_idx ON task (id);
+CREATE INDEX task_user_id_idx ON task (user_id);
+
+CREATE TABLE task_archive (
+    id INTEGER PRIMARY KEY,
+    description VARCHAR(255) NOT NULL,
+    due_date DATE,
+    user_id INTEGER,
+    state VARCHAR(255),
+    archived_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+-- Creates the monthly partition containing the given day, unless it already exists.
+-- Rows for that month that landed in task_default are moved into the new partition
+-- before it is attached, otherwise ATTACH PARTITION would reject the range.
+CREATE FUNCTION create_task_partition(day DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    lower_bound DATE := date_trunc('month', day)::DATE;
+    upper_bound DATE := (date_trunc('month', day) + INTERVAL '1 month')::DATE;
+    partition_name TEXT := 'task_' || to_char(lower_bound, 'YYYY_MM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE task INCLUDING DEFAULTS)', partition_name);
+    EXECUTE format(
+            'WITH moved AS (DELETE FROM task_default WHERE due_date >= %L AND due_date < %L RETURNING *) '
+            'INSERT INTO %I SELECT * FROM moved',
+            lower_bound, upper_bound, partition_name);
+    EXECUTE format('ALTER TABLE task ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+            partition_name, lower_bound, upper_bound);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Makes sure partitions exist from the current month up to months_ahead months in the future.
+-- Returns the number of partitions created.
+CREATE FUNCTION ensure_task_partitions(months_ahead INTEGER) RETURNS INTEGER AS $$
+DECLARE
+    created INTEGER := 0;
+BEGIN
+    FOR i IN 0..months_ahead LOOP
+        IF create_task_partition((date_trunc('month', current_date) + make_interval(months => i))::DATE) THEN
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Moves COMPLETED tasks from partitions that ended more than retention_months ago into
+-- task_archive. Partitions left empty afterwards are detached and dropped.
+-- Returns the number of archived tasks.
+CREATE FUNCTION archive_completed_tasks(retention_months INTEGER) RETURNS INTEGER AS $$
+DECLARE
+    cutoff DATE := (date_trunc('month', current_date) - make_interval(months => retention_months))::DATE;
+    archived INTEGER := 0;
+    moved INTEGER;
+    remaining BOOLEAN;
+    partition_name TEXT;
+BEGIN
+    FOREACH partition_name IN ARRAY ARRAY(
+            SELECT c.relname::TEXT
+            FROM pg_inherits i
+                     JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'task'::regclass
+              AND c.relname ~ '^task_[0-9]{4}_[0-9]{2}$'
+              AND to_date(substring(c.relname FROM 6), 'YYYY_MM') + INTERVAL '1 month' <= cutoff)
+    LOOP
+        EXECUTE format(
+                'WITH moved AS (DELETE FROM %I WHERE state = %L RETURNING id, description, due_date, user_id, state) '
+                'INSERT INTO task_archive (id, description, due_date, user_id, state) SELECT * FROM moved',
+                partition_name, 'COMPLETED');
+        GET DIAGNOSTICS moved = ROW_COUNT;
+        archived := archived + moved;
+
+        EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I)', partition_name) INTO remaining;
+        IF NOT remaining THEN
+            EXECUTE format('ALTER TABLE task DETACH PARTITION %I', partition_name);
+            EXECUTE format('DROP TABLE %I', partition_name);
+        END IF;
+    END LOOP;
+    RETURN archived;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Partitions for the existing data (at most two years back) and the next three months.
+DO $$
+DECLARE
+    first_month DATE;
+BEGIN
+    SELECT greatest(date_trunc('month', coalesce(min(due_date), current_date)),
+                    date_trunc('month', current_date) - INTERVAL '24 months')::DATE
+    INTO first_month
+    FROM task_legacy;
+
+    WHILE first_month < date_trunc('month', current_date) LOOP
+        PERFORM create_task_partition(first_month);
+        first_month := (first_month + INTERVAL '1 month')::DATE;
+    END LOOP;
+    PERFORM ensure_task_partitions(3);
+END;
+$$;
+
+INSERT INTO task (id, description, due_date, user_id, state)
+SELECT id, description, due_date, user_id, state
+FROM task_legacy;
+
+DROP TABLE task_legacy;
@@ -0,0 +1,16 @@
+-- Interleaves the identifier sequences of the shards: shard ${shard_index} of ${shard_count} generates
+-- only identifiers with (id - 1) mod ${shard_count} = ${shard_index}, so every user and task identifier
+-- determines the shard it was created on. With a single database this restarts the sequences unchanged.
+DO $$
+DECLARE
+    next_id BIGINT;
+BEGIN
+    SELECT coalesce(max(id), 0) + 1 INTO next_id FROM app_user;
+    next_id := next_id + (((${shard_index} - (next_id - 1)) % ${shard_count}) + ${shard_count}) % ${shard_count};
+    EXECUTE format('ALTER SEQUENCE app_user_id_seq INCREMENT BY %s RESTART WITH %s', ${shard_count}, next_id);
+
+    SELECT coalesce(max(id), 0) + 1 INTO next_id FROM task;
+    next_id := next_id + (((${shard_index} - (next_id - 1)) % ${shard_count}) + ${shard_count}) % ${shard_count};
+    EXECUTE format('ALTER SEQUENCE task_id_seq INCREMENT BY %s RESTART WITH %s', ${shard_count}, next_id);
+END;
+$$;
@@ -0,0 +1,3 @@
+-- Supports range scans over due dates, e.g. the calendar endpoint, and counting
+-- tasks per day and state from the index alone. Created on every partition of task.
+CREATE INDEX task_due_date_state_idx ON task (due_date, state);
@@ -0,0 +1,121 @@
+-- Rewrites task into a compact row layout: the state is stored as a SMALLINT code (see TaskState)
+-- instead of its name, and the fixed-width columns come first in order of decreasing alignment,
+-- so no padding is needed before them and the variable-length description ends the row.
+--
+-- Before: id int4 | description varchar | (pad) due_date date | user_id int4 | state varchar
+-- After:  id int4 | user_id int4 | due_date date | state int2 | description varchar
+--
+-- A PostgreSQL enum would take 4 bytes, SMALLINT takes 2 and new states need no ALTER TYPE.
+-- app_user (id int4, username varchar) is already ordered this way and is left unchanged.
+
+ALTER TABLE task RENAME TO task_legacy;
+ALTER SEQUENCE task_id_seq OWNED BY NONE;
+
+-- The partitions keep their names, create_task_partition would skip the months that exist.
+DO $$
+DECLARE
+    partition_name TEXT;
+BEGIN
+    FOR partition_name IN
+        SELECT c.relname::TEXT
+        FROM pg_inherits i
+                 JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'task_legacy'::regclass
+    LOOP
+        EXECUTE format('ALTER TABLE %I RENAME TO %I', partition_name, partition_name || '_legacy');
+    END LOOP;
+END;
+$$;
+
+CREATE TABLE task (
+    id INTEGER NOT NULL DEFAULT nextval('task_id_seq'),
+    user_id INTEGER REFERENCES app_user(id),
+    due_date DATE,
+    state SMALLINT,
+    description VARCHAR(255) NOT NULL
+) PARTITION BY RANGE (due_date);
+
+CREATE TABLE task_default PARTITION OF task DEFAULT;
+
+-- Same monthly partitions as before and the next three months.
+DO $$
+DECLARE
+    partition_name TEXT;
+BEGIN
+    FOR partition_name IN
+        SELECT c.relname::TEXT
+        FROM pg_inherits i
+                 JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'task_legacy'::regclass
+          AND c.relname ~ '^task_[0-9]{4}_[0-9]{2}_legacy$'
+    LOOP
+        PERFORM create_task_partition(to_date(substring(partition_name FROM 6 FOR 7), 'YYYY_MM'));
+    END LOOP;
+    PERFORM ensure_task_partitions(3);
+END;
+$$;
+
+INSERT INTO task (id, user_id, due_date, state, description)
+SELECT id,
+       user_id,
+       due_date,
+       CASE state
+           WHEN 'TODO' THEN 1
+           WHEN 'IN_PROGRESS' THEN 2
+           WHEN 'COMPLETED' THEN 3
+           WHEN 'DELAYED' THEN 4
+       END,
+       description
+FROM task_legacy;
+
+DROP TABLE task_legacy;
+
+ALTER SEQUENCE task_id_seq OWNED BY task.id;
+
+-- Created after the copy, building an index at once is faster than maintaining it per row.
+CREATE INDEX task_id_idx ON task (id);
+CREATE INDEX task_user_id_idx ON task (user_id);
+CREATE INDEX task_due_date_state_idx ON task (due_date, state);
+
+ANALYZE task;
+
+ALTER TABLE task_archive ALTER COLUMN state TYPE SMALLINT USING CASE state
+    WHEN 'TODO' THEN 1
+    WHEN 'IN_PROGRESS' THEN 2
+    WHEN 'COMPLETED' THEN 3
+    WHEN 'DELAYED' THEN 4
+END;
+
+-- Same as in V2, COMPLETED is now matched by its code.
+CREATE OR REPLACE FUNCTION archive_completed_tasks(retention_months INTEGER) RETURNS INTEGER AS $$
+DECLARE
+    cutoff DATE := (date_trunc('month', current_date) - make_interval(months => retention_months))::DATE;
+    archived INTEGER := 0;
+    moved INTEGER;
+    remaining BOOLEAN;
+    partition_name TEXT;
+BEGIN
+    FOREACH partition_name IN ARRAY ARRAY(
+            SELECT c.relname::TEXT
+            FROM pg_inherits i
+                     JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'task'::regclass
+              AND c.relname ~ '^task_[0-9]{4}_[0-9]{2}$'
+              AND to_date(substring(c.relname FROM 6), 'YYYY_MM') + INTERVAL '1 month' <= cutoff)
+    LOOP
+        EXECUTE format(
+                'WITH moved AS (DELETE FROM %I WHERE state = 3 RETURNING id, description, due_date, user_id, state) '
+                'INSERT INTO task_archive (id, description, due_date, user_id, state) SELECT * FROM moved',
+                partition_name);
+        GET DIAGNOSTICS moved = ROW_COUNT;
+        archived := archived + moved;
+
+        EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I)', partition_name) INTO remaining;
+        IF NOT remaining THEN
+            EXECUTE format('ALTER TABLE task DETACH PARTITION %I', partition_name);
+            EXECUTE format('DROP TABLE %I', partition_name);
+        END IF;
+    END LOOP;
+    RETURN archived;
+END;
+$$ LANGUAGE plpgsql;
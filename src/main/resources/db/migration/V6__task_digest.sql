@@ -0,0 +1,21 @@
+-- Daily digests of the tasks due soon or DELAYED per user, written by TaskDigestService.
+-- task_digest_run records the progress of the run for a digest date: the digests of all users up to
+-- last_user_id are written, so a run interrupted by a crash continues after that user.
+
+CREATE TABLE task_digest (
+    digest_date DATE NOT NULL,
+    user_id INTEGER NOT NULL REFERENCES app_user(id) ON DELETE CASCADE,
+    due_soon INTEGER NOT NULL,
+    delayed INTEGER NOT NULL,
+    tasks JSONB NOT NULL,
+    PRIMARY KEY (digest_date, user_id)
+);
+
+CREATE TABLE task_digest_run (
+    digest_date DATE PRIMARY KEY,
+    last_user_id INTEGER NOT NULL DEFAULT 0,
+    users INTEGER NOT NULL DEFAULT 0,
+    tasks INTEGER NOT NULL DEFAULT 0,
+    started_at TIMESTAMP NOT NULL DEFAULT now(),
+    completed_at TIMESTAMP
+);
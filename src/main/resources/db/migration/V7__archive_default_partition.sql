@@ -0,0 +1,41 @@
+-- Same as in V5, COMPLETED tasks of old months in task_default are archived as well. They land there when
+-- their month is older than the partitions created by V2, or after the partition of their month was dropped.
+CREATE OR REPLACE FUNCTION archive_completed_tasks(retention_months INTEGER) RETURNS INTEGER AS $$
+DECLARE
+    cutoff DATE := (date_trunc('month', current_date) - make_interval(months => retention_months))::DATE;
+    archived INTEGER := 0;
+    moved INTEGER;
+    remaining BOOLEAN;
+    partition_name TEXT;
+BEGIN
+    FOREACH partition_name IN ARRAY ARRAY(
+            SELECT c.relname::TEXT
+            FROM pg_inherits i
+                     JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'task'::regclass
+              AND c.relname ~ '^task_[0-9]{4}_[0-9]{2}$'
+              AND to_date(substring(c.relname FROM 6), 'YYYY_MM') + INTERVAL '1 month' <= cutoff)
+    LOOP
+        EXECUTE format(
+                'WITH moved AS (DELETE FROM %I WHERE state = 3 RETURNING id, description, due_date, user_id, state) '
+                'INSERT INTO task_archive (id, description, due_date, user_id, state) SELECT * FROM moved',
+                partition_name);
+        GET DIAGNOSTICS moved = ROW_COUNT;
+        archived := archived + moved;
+
+        EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I)', partition_name) INTO remaining;
+        IF NOT remaining THEN
+            EXECUTE format('ALTER TABLE task DETACH PARTITION %I', partition_name);
+            EXECUTE format('DROP TABLE %I', partition_name);
+        END IF;
+    END LOOP;
+
+    EXECUTE format(
+            'WITH moved AS (DELETE FROM task_default WHERE state = 3 AND due_date < %L '
+            'RETURNING id, description, due_date, user_id, state) '
+            'INSERT INTO task_archive (id, description, due_date, user_id, state) SELECT * FROM moved',
+            cutoff);
+    GET DIAGNOSTICS moved = ROW_COUNT;
+    RETURN archived + moved;
+END;
+$$ LANGUAGE plpgsql;
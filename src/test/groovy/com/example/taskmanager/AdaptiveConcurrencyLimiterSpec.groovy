@@ -0,0 +1,67 @@
+package com.example.taskmanager
+
+import com.example.taskmanager.web.AdaptiveConcurrencyLimiter
+import spock.lang.Specification
+
+class AdaptiveConcurrencyLimiterSpec extends Specification {
+    private static final long THRESHOLD = 100
+
+    void "should reject requests over the limit"() {
+        given:
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, THRESHOLD, 0.5)
+
+        expect:
+        limiter.tryAcquire()
+        limiter.tryAcquire()
+        !limiter.tryAcquire()
+
+        and:
+        limiter.inFlight == 2
+        limiter.rejectedCount == 1
+    }
+
+    void "should increase the limit when fast requests use the limiter"() {
+        given:
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, THRESHOLD, 0.5)
+        limiter.tryAcquire()
+        limiter.tryAcquire()
+
+        when:
+        limiter.release(0, 10)
+
+        then:
+        limiter.limit == 3
+        limiter.inFlight == 1
+    }
+
+    void "should decrease the limit once for a burst of slow requests"() {
+        given:
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 10, THRESHOLD, 0.5)
+        3.times { limiter.tryAcquire() }
+
+        when:
+        limiter.release(0, 500)
+        limiter.release(10, 510)
+
+        then:
+        limiter.limit == 4
+
+        when:
+        limiter.release(600, 1000)
+
+        then:
+        limiter.limit == 2
+    }
+
+    void "should not decrease the limit below the minimum"() {
+        given:
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 2, 10, THRESHOLD, 0.5)
+        limiter.tryAcquire()
+
+        when:
+        limiter.release(0, 500)
+
+        then:
+        limiter.limit == 2
+    }
+}
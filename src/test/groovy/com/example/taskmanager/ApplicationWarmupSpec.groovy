@@ -0,0 +1,77 @@
+package com.example.taskmanager
+
+import com.example.taskmanager.data.ShardRouter
+import com.example.taskmanager.data.TaskMapper
+import com.example.taskmanager.data.TaskRepository
+import com.example.taskmanager.data.TaskState
+import com.example.taskmanager.data.UserMapper
+import com.example.taskmanager.data.UserRepository
+import com.example.taskmanager.service.ApplicationWarmup
+import com.example.taskmanager.service.TaskSearchService
+import com.example.taskmanager.service.UserService
+import com.fasterxml.jackson.databind.ObjectMapper
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import jakarta.validation.Validator
+import org.mapstruct.factory.Mappers
+import org.springframework.data.domain.Pageable
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.sql.Connection
+import java.sql.SQLException
+
+class ApplicationWarmupSpec extends Specification {
+    private DataSource dataSource = Mock()
+    private TaskRepository taskRepository = Mock()
+    private UserRepository userRepository = Mock()
+    private UserService userService = Mock()
+    private TaskSearchService taskSearchService = Mock()
+    private Validator validator = Mock()
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+
+    private ApplicationWarmup warmup(int connections, int iterations) {
+        new ApplicationWarmup(dataSource, new ShardRouter(1, null), taskRepository, userRepository, userService, taskSearchService,
+                Mappers.getMapper(TaskMapper), Mappers.getMapper(UserMapper), new ObjectMapper().findAndRegisterModules(),
+                validator, meterRegistry, connections, iterations, true)
+    }
+
+    void "should open connections, preload users and exercise queries"() {
+        given:
+        Connection connection = Mock()
+
+        when:
+        warmup(3, 2).run(null)
+
+        then:
+        3 * dataSource.getConnection() >> connection
+        3 * connection.close()
+        1 * userService.getAllUsers() >> []
+        1 * taskRepository.findAll(_ as Pageable)
+        2 * taskRepository.findById(0) >> Optional.empty()
+        2 * taskRepository.findByState(null)
+        2 * taskRepository.search(TaskState.TODO, 0, _, _)
+        2 * userRepository.findById(0) >> Optional.empty()
+        2 * taskSearchService.searchTasks(_, 0, _, 0, 1)
+        2 * validator.validate(_)
+        0 * userService.getUserById(_)
+
+        and:
+        meterRegistry.get(ApplicationWarmup.DURATION_METRIC).timeGauge().value() >= 0
+    }
+
+    void "should complete the warmup when a step fails"() {
+        given:
+        ApplicationWarmup warmup = warmup(2, 1)
+
+        when:
+        warmup.run(null)
+
+        then:
+        1 * dataSource.getConnection() >> { throw new SQLException("Connection refused") }
+        1 * taskRepository.findById(0) >> { throw new IllegalStateException("Database unavailable") }
+        notThrown(Exception)
+
+        and:
+        warmup.durationMillis >= 0
+    }
+}
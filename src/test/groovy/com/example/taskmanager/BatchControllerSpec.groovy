@@ -0,0 +1,183 @@
+package com.example.taskmanager
+
+import com.example.taskmanager.config.BatchProperties
+import com.example.taskmanager.data.AppUser
+import com.example.taskmanager.data.ShardRouter
+import com.example.taskmanager.data.Task
+import com.example.taskmanager.data.TaskMapper
+import com.example.taskmanager.data.TaskState
+import com.example.taskmanager.data.UserMapper
+import com.example.taskmanager.dto.BatchOperation
+import com.example.taskmanager.dto.BatchRequest
+import com.example.taskmanager.dto.BatchResponse
+import com.example.taskmanager.dto.CreateTaskRequest
+import com.example.taskmanager.dto.CreateUserRequest
+import com.example.taskmanager.dto.UpdateTaskRequest
+import com.example.taskmanager.service.TaskAssigner
+import com.example.taskmanager.service.TaskService
+import com.example.taskmanager.service.UserService
+import com.example.taskmanager.web.BatchController
+import com.fasterxml.jackson.databind.ObjectMapper
+import jakarta.validation.ConstraintViolation
+import jakarta.validation.Path
+import jakarta.validation.Validator
+import org.mapstruct.factory.Mappers
+import org.springframework.http.HttpStatus
+import org.springframework.http.ResponseEntity
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.TransactionStatus
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import org.springframework.transaction.support.TransactionTemplate
+import spock.lang.Specification
+
+import java.time.LocalDate
+
+class BatchControllerSpec extends Specification {
+    private TaskService taskService = Mock()
+    private UserService userService = Mock()
+    private Validator validator = Stub()
+    private TransactionStatus transactionStatus = Mock()
+    private PlatformTransactionManager transactionManager = Stub() {
+        getTransaction(_) >> transactionStatus
+    }
+    private TaskAssigner taskAssigner = Mock()
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+
+    void cleanup() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization()
+        }
+    }
+
+    private BatchController controller(int shardCount = 1, int maxOperations = 100) {
+        new BatchController(taskService, userService, taskAssigner,
+                Mappers.getMapper(TaskMapper), Mappers.getMapper(UserMapper), objectMapper, validator,
+                new TransactionTemplate(transactionManager), new ShardRouter(shardCount, null),
+                new BatchProperties(maxOperations: maxOperations))
+    }
+
+    private BatchOperation operation(String method, String path, String body = null, String ref = null) {
+        new BatchOperation(method, path, body != null ? objectMapper.readTree(body) : null, ref)
+    }
+
+    private static Task task(Integer id, Integer userId) {
+        new Task(id: id, description: "task", dueDate: LocalDate.of(2030, 1, 1),
+                assignedUser: new AppUser(id: userId), state: TaskState.TODO)
+    }
+
+    void "should create tasks referring to a user created earlier with one insert"() {
+        given:
+        BatchRequest request = new BatchRequest(null, [
+                operation("POST", "/api/user", '{"username":"alice"}', "alice"),
+                operation("POST", "/api/task", '{"description":"a","dueDate":"2030-01-01","assignedUser":{"id":"$alice"}}', "a"),
+                operation("POST", "/api/task", '{"description":"b","dueDate":"2030-01-01","assignedUser":{"id":"$alice"}}'),
+                operation("PUT", "/api/task/\$a", '{"state":"IN_PROGRESS"}')
+        ])
+
+        when:
+        ResponseEntity<BatchResponse> response = controller().executeBatch(request)
+
+        then:
+        1 * userService.addUser(new CreateUserRequest("alice")) >> new AppUser(id: 7, username: "alice")
+        1 * taskService.addTasks({ List<CreateTaskRequest> requests ->
+            requests*.description == ["a", "b"] && requests*.assignedUser*.id == [7, 7]
+        }) >> [task(11, 7), task(12, 7)]
+        1 * taskService.updateTask(11, new UpdateTaskRequest(null, null, null, TaskState.IN_PROGRESS)) >> Optional.of(task(11, 7))
+        0 * transactionStatus.setRollbackOnly()
+
+        and:
+        response.statusCode == HttpStatus.OK
+        response.body.committed()
+        response.body.results()*.status() == [201, 201, 201, 204]
+        response.body.results()[1].body().id() == 11
+    }
+
+    void "should roll back an atomic batch at the first failing operation"() {
+        given:
+        BatchRequest request = new BatchRequest(true, [
+                operation("POST", "/api/user", '{"username":"alice"}', "alice"),
+                operation("PUT", "/api/task/5", '{"state":"COMPLETED"}'),
+                operation("DELETE", "/api/user/\$alice")
+        ])
+
+        when:
+        BatchResponse response = controller().executeBatch(request).body
+
+        then:
+        1 * userService.addUser(_) >> new AppUser(id: 7, username: "alice")
+        1 * taskService.updateTask(5, _) >> Optional.empty()
+        0 * userService.deleteUser(_)
+        1 * transactionStatus.setRollbackOnly()
+
+        and:
+        !response.committed()
+        response.results()*.status() == [201, 404, 424]
+    }
+
+    void "should assign the automatically assigned tasks of an atomic batch to different users"() {
+        given:
+        taskAssigner = new TaskAssigner(new UserService(null) {
+            @Override
+            Map<Integer, Long> countTasksPerUser(Collection<TaskState> states) {
+                [1: 0L, 2: 0L, 3: 0L]
+            }
+        })
+        taskAssigner.rebuild()
+        TransactionSynchronizationManager.initSynchronization()
+        BatchRequest request = new BatchRequest(true, (1..3).collect {
+            operation("POST", "/api/task?assign=auto", '{"description":"task","dueDate":"2030-01-01"}')
+        })
+        List<Integer> userIds = []
+
+        when:
+        BatchResponse response = controller().executeBatch(request).body
+
+        then:
+        3 * taskService.addTask(_) >> { CreateTaskRequest taskRequest ->
+            userIds << taskRequest.assignedUser().id
+            task(10 + userIds.size(), taskRequest.assignedUser().id)
+        }
+
+        and:
+        response.committed()
+        userIds == [1, 2, 3]
+    }
+
+    void "should continue a non-atomic batch and skip operations depending on failed ones"() {
+        given:
+        BatchRequest request = new BatchRequest(false, [
+                operation("POST", "/api/task", '{"description":""}', "broken"),
+                operation("DELETE", "/api/task/\$broken"),
+                operation("GET", "/api/user/3"),
+                operation("GET", "/api/unknown/1")
+        ])
+        validator.validate({ it instanceof CreateTaskRequest }) >> ([Stub(ConstraintViolation) {
+            getPropertyPath() >> Stub(Path) { toString() >> "description" }
+            getMessage() >> "Description must not be blank"
+        }] as Set)
+
+        when:
+        BatchResponse response = controller().executeBatch(request).body
+
+        then:
+        0 * taskService.addTask(_)
+        0 * taskService.deleteTask(_)
+        1 * userService.getUserById(3) >> Optional.of(new AppUser(id: 3, username: "bob"))
+
+        and:
+        response.committed()
+        response.results()*.status() == [400, 424, 200, 404]
+        response.results()[0].body() == [description: "Description must not be blank"]
+    }
+
+    void "should reject atomic batches with sharding"() {
+        expect:
+        controller(2).executeBatch(new BatchRequest(null, [operation("GET", "/api/task/1")])).statusCode == HttpStatus.BAD_REQUEST
+    }
+
+    void "should reject batches over the maximum number of operations"() {
+        expect:
+        controller(1, 1).executeBatch(new BatchRequest(false, [operation("GET", "/api/task/1"), operation("GET", "/api/task/2")]))
+                .statusCode == HttpStatus.PAYLOAD_TOO_LARGE
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.taskmanager
+
+import com.example.taskmanager.data.AppUser
+import com.example.taskmanager.data.Task
+import com.example.taskmanager.data.TaskState
+import com.example.taskmanager.service.CacheInvalidationBus
+import com.example.taskmanager.service.ChangeNotice
+import com.example.taskmanager.service.ChangeType
+import com.example.taskmanager.service.TaskChange
+import com.example.taskmanager.service.TaskService
+import com.example.taskmanager.service.UserChange
+import com.example.taskmanager.service.UserService
+import jakarta.persistence.Cache
+import jakarta.persistence.EntityManagerFactory
+import org.hibernate.SessionFactory
+import org.postgresql.PGNotification
+import org.springframework.jdbc.core.JdbcTemplate
+import spock.lang.Specification
+
+import java.time.LocalDate
+
+class CacheInvalidationBusSpec extends Specification {
+    private TaskService taskService = Mock()
+    private UserService userService = Mock()
+    private Cache entityCache = Mock()
+    private org.hibernate.Cache hibernateCache = Mock()
+    private EntityManagerFactory entityManagerFactory = Stub() {
+        getCache() >> entityCache
+        unwrap(SessionFactory) >> Stub(SessionFactory) {
+            getCache() >> hibernateCache
+        }
+    }
+    private CacheInvalidationBus bus = new CacheInvalidationBus(Mock(JdbcTemplate), taskService, userService,
+            entityManagerFactory, "jdbc:postgresql://localhost/test", "test", "test", 0, 1000)
+
+    private PGNotification notification(String nodeId, Object... changes) {
+        List<String> notices = changes.collect { it instanceof TaskChange ? ChangeNotice.encode(it) : ChangeNotice.encode(it as UserChange) }
+        String payload = ChangeNotice.payloads(nodeId, notices)[0]
+        Stub(PGNotification) {
+            getName() >> CacheInvalidationBus.CHANNEL
+            getParameter() >> payload
+        }
+    }
+
+    void "should replay the notices of another instance to the local listeners"() {
+        given:
+        TaskChange taskChange = new TaskChange(ChangeType.UPDATED, 12, TaskState.TODO, TaskState.DELAYED,
+                LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 2), 3, 3)
+        UserChange userChange = new UserChange(ChangeType.DELETED, 9)
+
+        when:
+        bus.apply([notification("other", taskChange, userChange)])
+
+        then:
+        1 * entityCache.evict(Task, 12)
+        1 * taskService.publishExternalChange(taskChange)
+        1 * entityCache.evict(AppUser, 9)
+        1 * userService.publishExternalChange(userChange)
+        1 * hibernateCache.evictQueryRegions()
+        bus.receivedNotices == 2
+    }
+
+    void "should evict every task for a bulk notice"() {
+        when:
+        bus.apply([notification("other", TaskChange.bulk())])
+
+        then:
+        1 * entityCache.evict(Task)
+        1 * taskService.publishExternalChange(TaskChange.bulk())
+    }
+
+    void "should replay repeated notices of a batch in order"() {
+        given:
+        TaskChange toB = new TaskChange(ChangeType.UPDATED, 5, TaskState.TODO, TaskState.IN_PROGRESS, null, null, 1, 1)
+        TaskChange toA = new TaskChange(ChangeType.UPDATED, 5, TaskState.IN_PROGRESS, TaskState.TODO, null, null, 1, 1)
+
+        when:
+        bus.apply([notification("other", toB, toA), notification("other", toB)])
+
+        then:
+        1 * taskService.publishExternalChange(toB)
+
+        then:
+        1 * taskService.publishExternalChange(toA)
+
+        then:
+        1 * taskService.publishExternalChange(toB)
+        bus.receivedNotices == 3
+    }
+
+    void "should apply repeated bulk notices of a batch once"() {
+        when:
+        bus.apply([notification("other", TaskChange.bulk()), notification("third", TaskChange.bulk())])
+
+        then:
+        1 * taskService.publishExternalChange(TaskChange.bulk())
+        bus.receivedNotices == 1
+    }
+
+    void "should ignore its own notices"() {
+        when:
+        bus.apply([notification(bus.nodeId, TaskChange.deleted(5), new UserChange(ChangeType.DELETED, 9))])
+
+        then:
+        0 * taskService._
+        0 * userService._
+        0 * entityCache._
+        0 * hibernateCache._
+        bus.receivedNotices == 0
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.taskmanager
+
+import com.example.taskmanager.data.TaskState
+import com.example.taskmanager.service.ChangeNotice
+import com.example.taskmanager.service.ChangeType
+import com.example.taskmanager.service.TaskChange
+import com.example.taskmanager.service.UserChange
+import spock.lang.Specification
+
+import java.time.LocalDate
+
+class ChangeNoticeSpec extends Specification {
+
+    void "should encode and decode task changes"() {
+        expect:
+        ChangeNotice.isTaskNotice(ChangeNotice.encode(change))
+        ChangeNotice.decodeTaskChange(ChangeNotice.encode(change)) == change
+
+        where:
+        change << [
+                new TaskChange(ChangeType.UPDATED, 12, TaskState.TODO, TaskState.DELAYED,
+                        LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 1), 3, null),
+                TaskChange.deleted(5),
+                TaskChange.bulk()
+        ]
+    }
+
+    void "should encode and decode user changes"() {
+        given:
+        UserChange change = new UserChange(ChangeType.DELETED, 9)
+
+        expect:
+        ChangeNotice.encode(change) == "U,DELETED,9"
+        !ChangeNotice.isTaskNotice(ChangeNotice.encode(change))
+        ChangeNotice.decodeUserChange(ChangeNotice.encode(change)) == change
+    }
+
+    void "should pack notices into payloads within the limit"() {
+        given:
+        List<String> notices = (1..2000).collect { ChangeNotice.encode(TaskChange.deleted(it)) }
+
+        when:
+        List<String> payloads = ChangeNotice.payloads("node1", notices)
+
+        then:
+        payloads.size() > 1
+        payloads.every { it.length() <= ChangeNotice.MAX_PAYLOAD_LENGTH && it.startsWith("node1\n") }
+        payloads.collectMany { it.split("\n").drop(1) as List } == notices
+    }
+}
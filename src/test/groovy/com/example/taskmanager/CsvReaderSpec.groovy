@@ -0,0 +1,48 @@
+package com.example.taskmanager
+
+import com.example.taskmanager.service.CsvReader
+import spock.lang.Specification
+
+class CsvReaderSpec extends Specification {
+
+    void "should read records with their line numbers"() {
+        given:
+        CsvReader reader = new CsvReader(new StringReader("a,2025-01-01,1,TODO\r\nb,,,\n"))
+
+        when:
+        List<String> first = reader.next()
+
+        then:
+        first == ["a", "2025-01-01", "1", "TODO"]
+        reader.recordLine == 1
+
+        when:
+        List<String> second = reader.next()
+
+        then:
+        second == ["b", null, null, null]
+        reader.recordLine == 2
+
+        and:
+        reader.next() == null
+    }
+
+    void "should read quoted fields with commas, quotes and line breaks"() {
+        given:
+        CsvReader reader = new CsvReader(new StringReader('"a, ""b""\nc",,"",DONE\nnext'))
+
+        when:
+        List<String> first = reader.next()
+
+        then:
+        first == ['a, "b"\nc', null, "", "DONE"]
+        reader.recordLine == 1
+
+        when:
+        List<String> second = reader.next()
+
+        then:
+        second == ["next"]
+        reader.recordLine == 3
+    }
+}
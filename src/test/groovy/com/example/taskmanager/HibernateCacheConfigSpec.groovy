@@ -0,0 +1,90 @@
+package com.example.taskmanager
+
+import com.example.taskmanager.config.HibernateCacheConfig
+import com.example.taskmanager.config.TaskCacheProperties
+import com.example.taskmanager.data.Task
+import com.example.taskmanager.data.TaskState
+import com.example.taskmanager.service.TaskChange
+import com.example.taskmanager.service.TaskChangeListener
+import com.example.taskmanager.service.TaskService
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration
+import jakarta.persistence.EntityManagerFactory
+import org.hibernate.Cache
+import org.hibernate.SessionFactory
+import org.hibernate.cache.jcache.ConfigSettings
+import org.hibernate.cfg.AvailableSettings
+import spock.lang.Specification
+
+import javax.cache.CacheManager
+import java.time.Duration
+import java.time.LocalDate
+
+class HibernateCacheConfigSpec extends Specification {
+    private HibernateCacheConfig config = new HibernateCacheConfig()
+    private CacheManager cacheManager
+
+    void cleanup() {
+        cacheManager?.close()
+    }
+
+    void "should create the configured regions"() {
+        given:
+        TaskCacheProperties properties = new TaskCacheProperties()
+        properties.regions.task = new TaskCacheProperties.Region(maximumSize: 100, expireAfterWrite: Duration.ofMinutes(10))
+        properties.regions.appUser = new TaskCacheProperties.Region()
+
+        when:
+        cacheManager = config.hibernateCacheManager(properties)
+
+        then:
+        CaffeineConfiguration task = cacheManager.getCache("task").getConfiguration(CaffeineConfiguration)
+        task.maximumSize.asLong == 100
+        task.expireAfterWrite.asLong == Duration.ofMinutes(10).toNanos()
+        task.statisticsEnabled
+
+        and:
+        CaffeineConfiguration user = cacheManager.getCache("appUser").getConfiguration(CaffeineConfiguration)
+        user.maximumSize.asLong == 10_000
+        user.expireAfterWrite.asLong == Duration.ofHours(1).toNanos()
+    }
+
+    void "should enable the second-level and query cache with the created manager"() {
+        given:
+        cacheManager = config.hibernateCacheManager(new TaskCacheProperties())
+        Map<String, Object> properties = [:]
+
+        when:
+        config.hibernateCacheCustomizer(cacheManager).customize(properties)
+
+        then:
+        properties[AvailableSettings.USE_SECOND_LEVEL_CACHE] == true
+        properties[AvailableSettings.USE_QUERY_CACHE] == true
+        properties[ConfigSettings.CACHE_MANAGER].is(cacheManager)
+    }
+
+    void "should register an evictor removing tasks and query results on bulk changes only"() {
+        given:
+        Cache cache = Mock()
+        EntityManagerFactory entityManagerFactory = Stub() {
+            unwrap(SessionFactory) >> Stub(SessionFactory) {
+                getCache() >> cache
+            }
+        }
+        TaskService taskService = Mock()
+        TaskChangeListener listener = config.hibernateCacheEvictor(entityManagerFactory, taskService)
+        Task task = new Task(id: 1, description: "task", dueDate: LocalDate.of(2030, 1, 1), state: TaskState.TODO)
+
+        when:
+        listener.onTaskChange(TaskChange.created(task))
+
+        then:
+        0 * cache._
+
+        when:
+        listener.onTaskChange(TaskChange.bulk())
+
+        then:
+        1 * cache.evictEntityData(Task)
+        1 * cache.evictQueryRegions()
+    }
+}
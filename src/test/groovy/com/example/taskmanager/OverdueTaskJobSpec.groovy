@@ -0,0 +1,82 @@
+package com.example.taskmanager
+
+import com.example.taskmanager.service.OverdueTaskJob
+import com.example.taskmanager.service.OverdueTaskRun
+import com.example.taskmanager.service.TaskService
+import org.springframework.scheduling.TaskScheduler
+import spock.lang.Specification
+
+import java.util.concurrent.ScheduledFuture
+
+class OverdueTaskJobSpec extends Specification {
+    private TaskService taskService = Mock()
+    private TaskScheduler taskScheduler = Mock()
+    private OverdueTaskJob job = new OverdueTaskJob(taskService, taskScheduler, "0 0 * * * ?", 100)
+
+    void "should record the result of a run"() {
+        when:
+        String summary = job.runNow()
+
+        then:
+        1 * taskService.updateTaskStateForOverdueTasks(100) >> new OverdueTaskRun(5, 4)
+
+        and:
+        summary == "Scanned 5 and transitioned 4 tasks"
+        job.lastRunScanned == 5
+        job.lastRunTransitioned == 4
+        job.runCount == 1
+        job.lastRunStart != null
+        job.failureCount == 0
+    }
+
+    void "should record a failed run"() {
+        given:
+        taskService.updateTaskStateForOverdueTasks(_) >> { throw new IllegalStateException("database down") }
+
+        when:
+        job.runNow()
+
+        then:
+        job.failureCount == 1
+        job.lastFailure.contains("database down")
+        !job.running
+    }
+
+    void "should count tasks in a dry run without updating them"() {
+        when:
+        long count = job.dryRun()
+
+        then:
+        1 * taskService.countOverdueTasks() >> 7
+        0 * taskService.updateTaskStateForOverdueTasks(_)
+
+        and:
+        count == 7
+    }
+
+    void "should reschedule when the cron expression changes"() {
+        given:
+        ScheduledFuture<?> first = Mock()
+        taskScheduler.schedule(_, _) >> first
+        job.start()
+
+        when:
+        job.cronExpression = "0 */5 * * * ?"
+
+        then:
+        1 * first.cancel(false)
+        1 * taskScheduler.schedule(_, _)
+
+        and:
+        job.cronExpression == "0 */5 * * * ?"
+    }
+
+    void "should reject an invalid cron expression"() {
+        when:
+        job.cronExpression = "every minute"
+
+        then:
+        thrown(IllegalArgumentException)
+        job.cronExpression == "0 0 * * * ?"
+    }
+}
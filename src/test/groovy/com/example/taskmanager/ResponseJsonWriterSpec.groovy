@@ -0,0 +1,108 @@
+package com.example.taskmanager
+
+import com.example.taskmanager.data.AppUser
+import com.example.taskmanager.data.TaskField
+import com.example.taskmanager.data.TaskState
+import com.example.taskmanager.dto.SparseTaskResponse
+import com.example.taskmanager.dto.TaskPageResponse
+import com.example.taskmanager.dto.TaskResponse
+import com.example.taskmanager.dto.UserResponse
+import com.example.taskmanager.web.ResponseJsonMessageConverter
+import com.example.taskmanager.web.ResponseJsonWriter
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.SerializationFeature
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule
+import org.springframework.core.ParameterizedTypeReference
+import org.springframework.http.MediaType
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+import java.time.LocalDate
+
+class ResponseJsonWriterSpec extends Specification {
+    private ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+
+    private static String write(Object value, int bufferSize = 8192) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream()
+        ResponseJsonWriter writer = new ResponseJsonWriter(out, bufferSize)
+        writer.write(value)
+        writer.flush()
+        return out.toString(StandardCharsets.UTF_8)
+    }
+
+    void "should write tasks like the ObjectMapper"() {
+        given:
+        AppUser user = new AppUser(id: 7, username: "jane")
+        TaskResponse task = new TaskResponse(id, description, dueDate, assigned ? user : null, state)
+
+        expect:
+        write(task) == objectMapper.writeValueAsString(task)
+
+        where:
+        id   | description                     | dueDate                   | assigned | state
+        1    | "Write report"                  | LocalDate.of(2024, 3, 9)  | true     | TaskState.TODO
+        -42  | "Quote \" and \\ backslash"     | LocalDate.of(987, 12, 31) | false    | TaskState.DELAYED
+        null | "Tab\tnew line\ncontrol\u0001"  | null                      | true     | null
+        3    | "Ünïcödé € and emoji 😀" | LocalDate.of(12024, 1, 1) | true | TaskState.COMPLETED
+        4    | null                            | LocalDate.of(2024, 10, 1) | false    | TaskState.IN_PROGRESS
+    }
+
+    void "should write lists and pages like the ObjectMapper"() {
+        given:
+        List<TaskResponse> tasks = (1..200).collect {
+            new TaskResponse(it, "Task " + it, LocalDate.of(2024, 1, 1).plusDays(it), null, TaskState.TODO)
+        }
+        List<UserResponse> users = [new UserResponse(1, "jane"), new UserResponse(2, null)]
+        TaskPageResponse page = new TaskPageResponse(tasks.take(2), 200, 0, 2)
+
+        expect: "a small buffer is flushed repeatedly"
+        write(tasks, 64) == objectMapper.writeValueAsString(tasks)
+        write(users) == objectMapper.writeValueAsString(users)
+        write([]) == "[]"
+        write(page) == objectMapper.writeValueAsString(page)
+    }
+
+    void "should write only the requested fields like the ObjectMapper"() {
+        given:
+        SparseTaskResponse task = new SparseTaskResponse(TaskField.parse(fields), 5, "Review", LocalDate.of(2024, 5, 6),
+                userId, "jane", TaskState.IN_PROGRESS)
+
+        expect:
+        write(task) == objectMapper.writeValueAsString(task)
+        write(task) == json
+
+        where:
+        fields                   | userId || json
+        "id,state"               | 7      || '{"id":5,"state":"IN_PROGRESS"}'
+        "state,id"               | 7      || '{"id":5,"state":"IN_PROGRESS"}'
+        "assignedUser.id"        | 7      || '{"assignedUser":{"id":7}}'
+        "assignedUser.id"        | null   || '{"assignedUser":null}'
+        "assignedUser,dueDate"   | 7      || '{"dueDate":"2024-05-06","assignedUser":{"id":7,"username":"jane"}}'
+    }
+
+    void "should reject unknown fields"() {
+        when:
+        TaskField.parse(fields)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        fields << ["id,owner", "", " , "]
+    }
+
+    void "should write responses and leave request bodies to the other converters"() {
+        given:
+        ResponseJsonMessageConverter converter = new ResponseJsonMessageConverter()
+        def taskList = new ParameterizedTypeReference<List<TaskResponse>>() {}.type
+
+        expect:
+        converter.canWrite(taskList, List, MediaType.APPLICATION_JSON)
+        converter.canWrite(TaskPageResponse, MediaType.APPLICATION_JSON)
+        !converter.canWrite(String, MediaType.APPLICATION_JSON)
+        !converter.canRead(TaskResponse, MediaType.APPLICATION_JSON)
+        !converter.canRead(taskList, null, MediaType.APPLICATION_JSON)
+    }
+}
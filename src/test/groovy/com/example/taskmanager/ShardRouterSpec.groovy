@@ -0,0 +1,48 @@
+package com.example.taskmanager
+
+import com.example.taskmanager.data.ShardRouter
+import spock.lang.Specification
+
+import java.util.concurrent.Executors
+
+class ShardRouterSpec extends Specification {
+
+    void "should derive the shard from the identifier"() {
+        given:
+        ShardRouter router = new ShardRouter(3, null)
+
+        expect:
+        router.shardForUser(userId) == shard
+
+        where:
+        userId | shard
+        1      | 0
+        2      | 1
+        3      | 2
+        4      | 0
+        null   | 0
+    }
+
+    void "should set the current shard only while running the work"() {
+        given:
+        ShardRouter router = new ShardRouter(2, null)
+
+        when:
+        int shardInside = router.callOn(1, { ShardRouter.currentShard() })
+
+        then:
+        shardInside == 1
+        ShardRouter.currentShard() == 0
+    }
+
+    void "should fan out queries to all shards"() {
+        given:
+        ShardRouter router = new ShardRouter(3, Executors.newFixedThreadPool(3))
+
+        when:
+        List<Integer> result = router.fanOut({ [ShardRouter.currentShard()] })
+
+        then:
+        result == [0, 1, 2]
+    }
+}
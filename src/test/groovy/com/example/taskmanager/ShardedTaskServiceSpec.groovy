@@ -0,0 +1,177 @@
+package com.example.taskmanager
+
+import com.example.taskmanager.data.AppUser
+import com.example.taskmanager.data.ShardRouter
+import com.example.taskmanager.data.Task
+import com.example.taskmanager.data.TaskRepository
+import com.example.taskmanager.data.TaskState
+import com.example.taskmanager.data.UpdatedTask
+import com.example.taskmanager.dto.UpdateTaskRequest
+import com.example.taskmanager.service.ChangeType
+import com.example.taskmanager.service.ShardedTaskService
+import com.example.taskmanager.service.TaskChange
+import org.springframework.dao.DataAccessResourceFailureException
+import spock.lang.Specification
+
+import java.time.LocalDate
+
+/**
+ * Runs the sharded service against one in-memory task table per shard, selected by the current shard of the thread.
+ * Task 1 is created on shard 0, users 1 and 2 live on shards 0 and 1.
+ */
+class ShardedTaskServiceSpec extends Specification {
+    private static final LocalDate DUE_DATE = LocalDate.of(2030, 1, 1)
+
+    private List<Map<Integer, Task>> shards = [[:], [:]]
+    private TaskRepository repository = Stub()
+    private ShardedTaskService service = new ShardedTaskService(repository, new ShardRouter(2, null))
+    private List<TaskChange> changes = []
+    private Integer failingShard
+    private boolean deletedWhileMoving
+
+    void setup() {
+        repository.findById(_) >> { Integer id -> Optional.ofNullable(copy(shard()[id])) }
+        repository.existsById(_) >> { Integer id -> shard().containsKey(id) }
+        repository.insertWithId(_) >> { Task task ->
+            shard()[task.id] = copy(task)
+            if (deletedWhileMoving) {
+                shards[0].remove(task.id)
+            }
+        }
+        repository.deleteReturning(_) >> { Integer id ->
+            if (ShardRouter.currentShard() == failingShard) {
+                throw new DataAccessResourceFailureException("Shard " + failingShard + " is down")
+            }
+            Optional.ofNullable(shard().remove(id))
+        }
+        repository.updateNonNullFields(*_) >> { Integer id, String description, LocalDate dueDate, Integer userId,
+                                               TaskState state ->
+            Task task = shard()[id]
+            if (task == null) {
+                return Optional.empty()
+            }
+            TaskState oldState = task.state
+            task.description = description ?: task.description
+            task.state = state ?: task.state
+            return Optional.of(new UpdatedTask(copy(task), oldState, task.dueDate, task.assignedUser?.id))
+        }
+        service.addChangeListener { changes << it }
+    }
+
+    private Map<Integer, Task> shard() {
+        shards[ShardRouter.currentShard()]
+    }
+
+    private static Task task(Integer id, Integer userId) {
+        new Task(id: id, description: "task", dueDate: DUE_DATE, assignedUser: new AppUser(id: userId), state: TaskState.TODO)
+    }
+
+    private static Task copy(Task task) {
+        task != null ? new Task(id: task.id, description: task.description, dueDate: task.dueDate,
+                assignedUser: task.assignedUser, state: task.state) : null
+    }
+
+    void "should find a task on the shard it was created on"() {
+        given:
+        shards[0][1] = task(1, 1)
+
+        expect:
+        service.getTaskById(1).get().assignedUser.id == 1
+    }
+
+    void "should find a task moved to another shard"() {
+        given:
+        shards[1][1] = task(1, 2)
+
+        expect:
+        service.getTaskById(1).get().assignedUser.id == 2
+        !service.getTaskById(3).isPresent()
+    }
+
+    void "should update a task in place on its shard"() {
+        given:
+        shards[0][1] = task(1, 1)
+
+        when:
+        Optional<Task> updated = service.updateTask(1, new UpdateTaskRequest(null, null, null, TaskState.COMPLETED))
+
+        then:
+        updated.get().state == TaskState.COMPLETED
+        shards[0][1].state == TaskState.COMPLETED
+        shards[1].isEmpty()
+    }
+
+    void "should move a task reassigned to a user on another shard"() {
+        given:
+        shards[0][1] = task(1, 1)
+
+        when:
+        Optional<Task> moved = service.updateTask(1, new UpdateTaskRequest("moved", null, new AppUser(id: 2), null))
+
+        then:
+        moved.get().assignedUser.id == 2
+        shards[0].isEmpty()
+        shards[1][1].description == "moved"
+        shards[1][1].assignedUser.id == 2
+
+        and:
+        changes.size() == 1
+        changes[0].type() == ChangeType.UPDATED
+        changes[0].oldUserId() == 1
+        changes[0].newUserId() == 2
+    }
+
+    void "should update a moved task on the shard it was moved to"() {
+        given:
+        shards[1][1] = task(1, 2)
+
+        when:
+        Optional<Task> updated = service.updateTask(1, new UpdateTaskRequest(null, null, null, TaskState.IN_PROGRESS))
+
+        then:
+        updated.get().state == TaskState.IN_PROGRESS
+        shards[1][1].state == TaskState.IN_PROGRESS
+    }
+
+    void "should delete a task moved to another shard"() {
+        given:
+        shards[1][1] = task(1, 2)
+
+        when:
+        service.deleteTask(1)
+
+        then:
+        shards[1].isEmpty()
+        changes*.type() == [ChangeType.DELETED]
+        changes[0].oldUserId() == 2
+    }
+
+    void "should remove the copy on the target shard when the delete on the source shard fails"() {
+        given:
+        shards[0][1] = task(1, 1)
+        failingShard = 0
+
+        when:
+        service.updateTask(1, new UpdateTaskRequest(null, null, new AppUser(id: 2), null))
+
+        then:
+        thrown(DataAccessResourceFailureException)
+        shards[0][1].assignedUser.id == 1
+        shards[1].isEmpty()
+        changes.isEmpty()
+    }
+
+    void "should not resurrect a task deleted while it was moved"() {
+        given:
+        shards[0][1] = task(1, 1)
+        deletedWhileMoving = true
+
+        when:
+        Optional<Task> moved = service.updateTask(1, new UpdateTaskRequest(null, null, new AppUser(id: 2), null))
+
+        then:
+        !moved.isPresent()
+        shards[1].isEmpty()
+        changes.isEmpty()
+    }
+}
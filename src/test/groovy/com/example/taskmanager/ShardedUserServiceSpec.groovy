@@ -0,0 +1,73 @@
+package com.example.taskmanager
+
+import com.example.taskmanager.data.AppUser
+import com.example.taskmanager.data.ShardRouter
+import com.example.taskmanager.data.UserRepository
+import com.example.taskmanager.dto.CreateUserRequest
+import com.example.taskmanager.dto.UpdateUserRequest
+import com.example.taskmanager.service.ShardedUserService
+import spock.lang.Specification
+
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
+/**
+ * Runs the sharded service against one in-memory user table per shard, selected by the current shard of the thread.
+ */
+class ShardedUserServiceSpec extends Specification {
+    private List<Map<Integer, AppUser>> shards = [[:], [:]]
+    private UserRepository repository = Stub()
+    private ExecutorService executor = Executors.newFixedThreadPool(2)
+    private ShardedUserService service = new ShardedUserService(repository, new ShardRouter(2, executor))
+
+    void setup() {
+        repository.findById(_) >> { Integer id -> Optional.ofNullable(shard()[id]) }
+        repository.findAll() >> { shard().values().toList() }
+        repository.updateUsername(_, _) >> { Integer id, String username ->
+            shard()[id]?.username = username
+            Optional.ofNullable(shard()[id])
+        }
+        repository.deleteById(_) >> { Integer id -> shard().remove(id) }
+        repository.save(_) >> { AppUser user ->
+            user.id = 1 + ShardRouter.currentShard() + 2 * shard().size()
+            shard()[user.id] = user
+        }
+    }
+
+    void cleanup() {
+        executor.shutdownNow()
+    }
+
+    private Map<Integer, AppUser> shard() {
+        shards[ShardRouter.currentShard()]
+    }
+
+    void "should spread new users over the shards and read them from their shard"() {
+        when:
+        AppUser first = service.addUser(new CreateUserRequest("first"))
+        AppUser second = service.addUser(new CreateUserRequest("second"))
+
+        then:
+        shards[0].keySet() == [first.id] as Set
+        shards[1].keySet() == [second.id] as Set
+        service.getUserById(second.id).get().username == "second"
+        service.getAllUsers()*.username.toSet() == ["first", "second"] as Set
+    }
+
+    void "should update and delete a user on its shard"() {
+        given:
+        shards[1][2] = new AppUser(id: 2, username: "old")
+
+        when:
+        Optional<AppUser> updated = service.updateUser(2, new UpdateUserRequest("new"))
+
+        then:
+        updated.get().username == "new"
+
+        when:
+        service.deleteUser(2)
+
+        then:
+        shards[1].isEmpty()
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.taskmanager
+
+import com.example.taskmanager.config.ShardingConfig
+import org.springframework.boot.test.context.runner.ApplicationContextRunner
+import spock.lang.Specification
+
+class ShardingConfigSpec extends Specification {
+    private ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(ShardingConfig)
+            .withPropertyValues("sharding.enabled=true",
+                    "sharding.shards[0].url=jdbc:postgresql://localhost:5332/task-manager")
+
+    void "should refuse to start together with the second-level cache"() {
+        expect:
+        contextRunner.withPropertyValues("task-cache.enabled=true").run { context ->
+            assert context.startupFailure != null
+            Throwable cause = context.startupFailure
+            while (cause.cause != null) {
+                cause = cause.cause
+            }
+            assert cause instanceof IllegalStateException
+            assert cause.message.contains("task-cache.enabled")
+        }
+    }
+}
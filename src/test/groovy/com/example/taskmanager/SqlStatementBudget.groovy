@@ -0,0 +1,27 @@
+package com.example.taskmanager
+
+import com.example.taskmanager.data.SqlTrace
+
+/**
+ * Statement budget for specs running against a traced data source, an N+1 regression exceeds the budget
+ * and fails the spec:
+ * <pre>
+ * SqlStatementBudget.atMost(2) { service.getTasksForUser(userId) }
+ * </pre>
+ */
+class SqlStatementBudget {
+
+    /**
+     * Runs the operation and fails when it issued more statements on the current thread than allowed.
+     *
+     * @return The result of the operation.
+     */
+    static <T> T atMost(long maxStatements, Closure<T> operation) {
+        T result = null
+        long issued = SqlTrace.count { result = operation.call() }
+        if (issued > maxStatements) {
+            throw new AssertionError("Expected at most $maxStatements SQL statements, but $issued were issued".toString())
+        }
+        result
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.taskmanager
+
+import com.example.taskmanager.data.SqlTrace
+import com.example.taskmanager.data.SqlTraceListener
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.sql.Connection
+import java.sql.PreparedStatement
+import java.sql.ResultSet
+
+class SqlTraceSpec extends Specification {
+    private PreparedStatement statement = Mock() {
+        executeQuery() >> Stub(ResultSet)
+    }
+    private Connection connection = Mock() {
+        prepareStatement(_ as String) >> statement
+    }
+    private DataSource target = Mock() {
+        getConnection() >> connection
+    }
+
+    private static void query(DataSource dataSource, int times) {
+        dataSource.getConnection().withCloseable { connection ->
+            times.times {
+                PreparedStatement statement = connection.prepareStatement("SELECT * FROM task WHERE id = ?")
+                statement.setInt(1, it)
+                statement.executeQuery()
+            }
+        }
+    }
+
+    void "should record statements per tag"() {
+        given:
+        SqlTraceListener listener = new SqlTraceListener(1000)
+        DataSource dataSource = ProxyDataSourceBuilder.create(target).listener(listener).build()
+
+        when:
+        SqlTrace.runTagged("TaskController.getAllTasks") { query(dataSource, 3) }
+        query(dataSource, 1)
+
+        then:
+        listener.statementCount == 4
+        listener.statisticsByTag.keySet() == ["TaskController.getAllTasks", SqlTrace.UNTAGGED] as Set
+        listener.statisticsByTag["TaskController.getAllTasks"].startsWith("statements=3,")
+        listener.slowStatementCount == 0
+    }
+
+    void "should count statements over the slow query threshold"() {
+        given:
+        SqlTraceListener listener = new SqlTraceListener(0)
+        DataSource dataSource = ProxyDataSourceBuilder.create(target).listener(listener).build()
+
+        when:
+        query(dataSource, 2)
+
+        then:
+        listener.slowStatementCount == 2
+    }
+
+    void "should count the statements of the current thread"() {
+        given:
+        DataSource dataSource = ProxyDataSourceBuilder.create(target).listener(new SqlTraceListener(1000)).build()
+
+        when:
+        long outer = SqlTrace.count {
+            query(dataSource, 1)
+            assert SqlTrace.count { query(dataSource, 2) } == 2
+        }
+
+        then:
+        outer == 3
+    }
+
+    void "should pass within the statement budget"() {
+        given:
+        DataSource dataSource = ProxyDataSourceBuilder.create(target).listener(new SqlTraceListener(1000)).build()
+
+        expect:
+        SqlStatementBudget.atMost(2) { query(dataSource, 2); "done" } == "done"
+    }
+
+    void "should fail when the statement budget is exceeded"() {
+        given:
+        DataSource dataSource = ProxyDataSourceBuilder.create(target).listener(new SqlTraceListener(1000)).build()
+
+        when:
+        SqlStatementBudget.atMost(2) { query(dataSource, 3) }
+
+        then:
+        AssertionError error = thrown()
+        error.message == "Expected at most 2 SQL statements, but 3 were issued"
+    }
+}
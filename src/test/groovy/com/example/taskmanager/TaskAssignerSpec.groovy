@@ -0,0 +1,237 @@
+package com.example.taskmanager
+
+import com.example.taskmanager.data.TaskState
+import com.example.taskmanager.service.ChangeType
+import com.example.taskmanager.service.TaskAssigner
+import com.example.taskmanager.service.TaskChange
+import com.example.taskmanager.service.UserChange
+import com.example.taskmanager.service.UserLoadHeap
+import com.example.taskmanager.service.UserService
+import org.springframework.transaction.support.TransactionSynchronization
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import spock.lang.Specification
+
+class TaskAssignerSpec extends Specification {
+    private UserService userService = Mock()
+
+    void cleanup() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization()
+        }
+    }
+
+    private static void complete(int status) {
+        TransactionSynchronizationManager.synchronizations*.afterCompletion(status)
+    }
+
+    private static TaskAssigner assigner(Map<Integer, Long> counts) {
+        UserService userService = new UserService(null) {
+            @Override
+            Map<Integer, Long> countTasksPerUser(Collection<TaskState> states) {
+                counts
+            }
+        }
+        TaskAssigner assigner = new TaskAssigner(userService)
+        assigner.rebuild()
+        assigner
+    }
+
+    private static TaskChange created(Integer userId, TaskState state) {
+        new TaskChange(ChangeType.CREATED, 1, null, state, null, null, null, userId)
+    }
+
+    void "should pick the user with the fewest open tasks"() {
+        expect:
+        assigner([1: 5L, 2: 2L, 3: 7L]).leastLoadedUser() == Optional.of(2)
+    }
+
+    void "should break ties by the lower user id"() {
+        expect:
+        assigner([4: 1L, 2: 1L, 3: 1L]).leastLoadedUser() == Optional.of(2)
+    }
+
+    void "should pick no user without users"() {
+        expect:
+        assigner([:]).leastLoadedUser() == Optional.empty()
+    }
+
+    void "should count open tasks of created, updated and deleted tasks"() {
+        given:
+        TaskAssigner assigner = assigner([1: 0L, 2: 1L])
+
+        when:
+        assigner.onTaskChange(created(1, TaskState.TODO))
+        assigner.onTaskChange(created(1, TaskState.IN_PROGRESS))
+
+        then:
+        assigner.leastLoadedUser() == Optional.of(2)
+        assigner.getOpenTasks(1) == 2
+
+        when:
+        assigner.onTaskChange(new TaskChange(ChangeType.UPDATED, 1, TaskState.TODO, TaskState.COMPLETED,
+                null, null, 1, 1))
+        assigner.onTaskChange(new TaskChange(ChangeType.DELETED, 2, TaskState.IN_PROGRESS, null, null, null, 1, null))
+
+        then:
+        assigner.getOpenTasks(1) == 0
+        assigner.leastLoadedUser() == Optional.of(1)
+    }
+
+    void "should not count completed tasks"() {
+        given:
+        TaskAssigner assigner = assigner([1: 0L, 2: 0L])
+
+        when:
+        assigner.onTaskChange(created(1, TaskState.COMPLETED))
+
+        then:
+        assigner.getOpenTasks(1) == 0
+        assigner.leastLoadedUser() == Optional.of(1)
+    }
+
+    void "should move open tasks between users"() {
+        given:
+        TaskAssigner assigner = assigner([1: 1L, 2: 1L])
+
+        when:
+        assigner.onTaskChange(new TaskChange(ChangeType.UPDATED, 1, TaskState.TODO, TaskState.DELAYED, null, null, 1, 2))
+
+        then:
+        assigner.getOpenTasks(1) == 0
+        assigner.getOpenTasks(2) == 2
+    }
+
+    void "should add and remove users"() {
+        given:
+        TaskAssigner assigner = assigner([1: 3L])
+
+        when:
+        assigner.onUserChange(new UserChange(ChangeType.CREATED, 2))
+
+        then:
+        assigner.leastLoadedUser() == Optional.of(2)
+
+        when:
+        assigner.onUserChange(new UserChange(ChangeType.DELETED, 2))
+
+        then:
+        assigner.leastLoadedUser() == Optional.of(1)
+        assigner.userCount == 1
+    }
+
+    void "should reload the counts after a bulk change"() {
+        given:
+        TaskAssigner assigner = new TaskAssigner(userService)
+
+        when:
+        assigner.rebuild()
+        assigner.onTaskChange(TaskChange.bulk())
+
+        then:
+        1 * userService.countTasksPerUser(TaskAssigner.OPEN_STATES) >> [1: 1L, 2: 0L]
+        1 * userService.countTasksPerUser(TaskAssigner.OPEN_STATES) >> [1: 0L, 2: 4L]
+
+        and:
+        assigner.leastLoadedUser() == Optional.of(1)
+    }
+
+    void "should replay changes published while the counts are reloaded"() {
+        given:
+        TaskAssigner assigner = new TaskAssigner(userService)
+
+        when:
+        assigner.rebuild()
+
+        then:
+        1 * userService.countTasksPerUser(TaskAssigner.OPEN_STATES) >> {
+            assigner.onTaskChange(created(1, TaskState.TODO))
+            assigner.onUserChange(new UserChange(ChangeType.CREATED, 3))
+            assigner.onTaskChange(created(3, TaskState.TODO))
+            [1: 2L, 2: 2L]
+        }
+
+        and:
+        assigner.getOpenTasks(1) == 3
+        assigner.getOpenTasks(2) == 2
+        assigner.getOpenTasks(3) == 1
+        assigner.leastLoadedUser() == Optional.of(3)
+    }
+
+    void "should count reserved users for the next pick of the transaction"() {
+        given:
+        TaskAssigner assigner = assigner([1: 0L, 2: 0L])
+        TransactionSynchronizationManager.initSynchronization()
+
+        when:
+        Optional<Integer> first = assigner.reserveLeastLoadedUser()
+        Optional<Integer> second = assigner.reserveLeastLoadedUser()
+
+        then:
+        first == Optional.of(1)
+        second == Optional.of(2)
+        assigner.getOpenTasks(1) == 1
+        assigner.getOpenTasks(2) == 1
+    }
+
+    void "should not count the committed task of a reservation again"() {
+        given:
+        TaskAssigner assigner = assigner([1: 0L, 2: 0L])
+        TransactionSynchronizationManager.initSynchronization()
+        assigner.reserveLeastLoadedUser()
+        assigner.reserveLeastLoadedUser()
+
+        when:
+        assigner.onTaskChange(created(1, TaskState.TODO))
+        assigner.onTaskChange(created(2, TaskState.COMPLETED))
+        complete(TransactionSynchronization.STATUS_COMMITTED)
+
+        then:
+        assigner.getOpenTasks(1) == 1
+        assigner.getOpenTasks(2) == 0
+    }
+
+    void "should undo the reservations of a rolled back transaction"() {
+        given:
+        TaskAssigner assigner = assigner([1: 0L, 2: 1L])
+        TransactionSynchronizationManager.initSynchronization()
+        assigner.reserveLeastLoadedUser()
+        assigner.reserveLeastLoadedUser()
+
+        when:
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK)
+
+        then:
+        assigner.getOpenTasks(1) == 0
+        assigner.getOpenTasks(2) == 1
+    }
+
+    void "should keep the heap ordered through random changes"() {
+        given:
+        UserLoadHeap heap = new UserLoadHeap()
+        Map<Integer, Long> loads = [:]
+        Random random = new Random(42)
+
+        expect:
+        2000.times {
+            int userId = random.nextInt(50)
+            switch (random.nextInt(3)) {
+                case 0:
+                    long load = random.nextInt(20)
+                    heap.put(userId, load)
+                    loads[userId] = load
+                    break
+                case 1:
+                    long delta = random.nextInt(5) - 2
+                    heap.add(userId, delta)
+                    loads[userId] = Math.max(0L, (loads[userId] ?: 0L) + delta)
+                    break
+                default:
+                    heap.remove(userId)
+                    loads.remove(userId)
+            }
+            Integer expected = loads.min { a, b -> a.value <=> b.value ?: a.key <=> b.key }?.key
+            assert heap.peek() == expected
+            assert heap.size() == loads.size()
+        }
+    }
+}
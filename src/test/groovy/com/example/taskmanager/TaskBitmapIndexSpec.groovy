@@ -0,0 +1,129 @@
+package com.example.taskmanager
+
+import com.example.taskmanager.data.ShardRouter
+import com.example.taskmanager.data.TaskState
+import com.example.taskmanager.service.ChangeType
+import com.example.taskmanager.service.TaskBitmapIndex
+import com.example.taskmanager.service.TaskChange
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.transaction.support.TransactionTemplate
+import spock.lang.Specification
+
+import java.time.LocalDate
+import java.util.concurrent.ExecutorService
+
+class TaskBitmapIndexSpec extends Specification {
+    private JdbcTemplate jdbcTemplate = Mock()
+    private TransactionTemplate transactionTemplate = Mock()
+    private List<Runnable> queuedRebuilds = []
+    private ExecutorService rebuildExecutor = Stub() {
+        execute(_) >> { Runnable rebuild -> queuedRebuilds << rebuild }
+    }
+    private TaskBitmapIndex index = new TaskBitmapIndex(jdbcTemplate, transactionTemplate, new ShardRouter(1, null), 100,
+            rebuildExecutor)
+    private LocalDate today = LocalDate.now()
+
+    private void create(int id, TaskState state, Integer userId, LocalDate dueDate) {
+        index.onTaskChange(new TaskChange(ChangeType.CREATED, id, null, state, null, dueDate, null, userId))
+    }
+
+    void "should answer filters as intersections"() {
+        given:
+        create(1, TaskState.TODO, 1, today)
+        create(2, TaskState.TODO, 2, today)
+        create(3, TaskState.COMPLETED, 1, today)
+        create(4, TaskState.TODO, 1, today.plusDays(1))
+
+        expect:
+        index.filter(TaskState.TODO, 1, today).toArray() as List == [1]
+        index.filter(TaskState.TODO, null, null).toArray() as List == [1, 2, 4]
+        index.filter(null, 1, null).toArray() as List == [1, 3, 4]
+        index.filter(null, null, null).toArray() as List == [1, 2, 3, 4]
+        index.filter(TaskState.DELAYED, null, null).isEmpty()
+    }
+
+    void "should move updated tasks between buckets"() {
+        given:
+        create(1, TaskState.TODO, 1, today)
+
+        when:
+        index.onTaskChange(new TaskChange(ChangeType.UPDATED, 1, TaskState.TODO, TaskState.DELAYED,
+                today, today, 1, 2))
+
+        then:
+        index.filter(TaskState.TODO, null, null).isEmpty()
+        index.filter(null, 1, null).isEmpty()
+        index.filter(TaskState.DELAYED, 2, today).toArray() as List == [1]
+    }
+
+    void "should remove deleted tasks from every bucket"() {
+        given:
+        create(1, TaskState.TODO, 1, today)
+        create(2, TaskState.TODO, 1, today)
+
+        when:
+        index.onTaskChange(TaskChange.deleted(1))
+
+        then:
+        index.size == 1
+        index.filter(TaskState.TODO, 1, today).toArray() as List == [2]
+    }
+
+    void "should count tasks per state"() {
+        given:
+        create(1, TaskState.TODO, 1, today)
+        create(2, TaskState.COMPLETED, 1, today)
+        create(3, TaskState.COMPLETED, 2, today)
+
+        expect:
+        index.countByState(1, null) == [(TaskState.TODO): 1L, (TaskState.IN_PROGRESS): 0L,
+                                        (TaskState.COMPLETED): 1L, (TaskState.DELAYED): 0L]
+    }
+
+    void "should repair the index when it differs from the database"() {
+        given: "a database without tasks"
+        create(1, TaskState.TODO, 1, today)
+
+        when:
+        String report = index.verify()
+
+        then:
+        report != "consistent"
+        index.size == 0
+
+        and:
+        index.verify() == "consistent"
+    }
+
+    void "should rebuild in the background on bulk changes and coalesce them"() {
+        given: "a database without tasks"
+        create(1, TaskState.TODO, 1, today)
+
+        when:
+        index.onTaskChange(TaskChange.bulk())
+        index.onTaskChange(TaskChange.bulk())
+
+        then: "one rebuild is queued and the old index still answers"
+        queuedRebuilds.size() == 1
+        index.size == 1
+
+        when:
+        queuedRebuilds.remove(0).run()
+
+        then:
+        index.size == 0
+    }
+
+    void "should queue another rebuild for a bulk change during a rebuild"() {
+        given:
+        index.onTaskChange(TaskChange.bulk())
+        Runnable running = queuedRebuilds.remove(0)
+        transactionTemplate.executeWithoutResult(_) >> { index.onTaskChange(TaskChange.bulk()) }
+
+        when:
+        running.run()
+
+        then:
+        queuedRebuilds.size() == 1
+    }
+}
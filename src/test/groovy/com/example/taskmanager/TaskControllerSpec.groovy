@@ -0,0 +1,84 @@
+package com.example.taskmanager
+
+import com.example.taskmanager.config.TaskCalendarProperties
+import com.example.taskmanager.data.AppUser
+import com.example.taskmanager.data.Task
+import com.example.taskmanager.data.TaskMapper
+import com.example.taskmanager.data.TaskState
+import com.example.taskmanager.dto.CalendarDayResponse
+import com.example.taskmanager.service.TaskAssigner
+import com.example.taskmanager.service.TaskImportService
+import com.example.taskmanager.service.TaskSearchService
+import com.example.taskmanager.service.TaskService
+import com.example.taskmanager.web.TaskController
+import org.mapstruct.factory.Mappers
+import org.springframework.http.HttpStatus
+import spock.lang.Specification
+
+import java.time.LocalDate
+
+class TaskControllerSpec extends Specification {
+    private TaskService taskService = Mock()
+    private TaskCalendarProperties calendarProperties = new TaskCalendarProperties(maxDays: 7)
+    private TaskController controller = new TaskController(taskService, Mappers.getMapper(TaskMapper),
+            Mock(TaskImportService), Mock(TaskSearchService), Mock(TaskAssigner), calendarProperties)
+    private LocalDate from = LocalDate.of(2030, 1, 1)
+
+    private static Task task(Integer id, LocalDate dueDate) {
+        new Task(id: id, description: "task", dueDate: dueDate, assignedUser: new AppUser(id: 1), state: TaskState.TODO)
+    }
+
+    void "should group the tasks of the range per day"() {
+        given:
+        LocalDate second = from.plusDays(1)
+        LocalDate fifth = from.plusDays(4)
+
+        when:
+        def response = controller.getCalendar(from, from.plusDays(6), 1)
+
+        then:
+        1 * taskService.getTasksByDueDateRange(from, from.plusDays(6), 1) >>
+                [task(1, second), task(2, second), task(3, fifth)]
+        response.statusCode == HttpStatus.OK
+        response.body*.date() == [second, fifth]
+        response.body.collect { CalendarDayResponse day -> day.tasks()*.id() } == [[1, 2], [3]]
+    }
+
+    void "should return no days for a range without tasks"() {
+        when:
+        def response = controller.getCalendar(from, from, null)
+
+        then:
+        1 * taskService.getTasksByDueDateRange(from, from, null) >> []
+        response.statusCode == HttpStatus.OK
+        response.body.isEmpty()
+    }
+
+    void "should reject reversed and too long ranges"() {
+        when:
+        def tasks = controller.getCalendar(from, from.plusDays(days), null)
+        def summary = controller.getCalendarSummary(from, from.plusDays(days), null)
+
+        then:
+        0 * taskService._
+        tasks.statusCode == HttpStatus.BAD_REQUEST
+        summary.statusCode == HttpStatus.BAD_REQUEST
+
+        where:
+        days << [-1, 7, 30]
+    }
+
+    void "should count the tasks of the range per day and state"() {
+        given:
+        Map<TaskState, Long> counts = [(TaskState.TODO): 2L, (TaskState.COMPLETED): 1L]
+
+        when:
+        def response = controller.getCalendarSummary(from, from.plusDays(6), null)
+
+        then:
+        1 * taskService.countTasksByDueDateRange(from, from.plusDays(6), null) >> new TreeMap([(from): counts])
+        response.statusCode == HttpStatus.OK
+        response.body*.date() == [from]
+        response.body[0].counts() == counts
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.taskmanager
+
+import com.example.taskmanager.data.ShardRouter
+import com.example.taskmanager.data.TaskState
+import com.example.taskmanager.service.TaskDigestRun
+import com.example.taskmanager.service.TaskDigestService
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.jdbc.core.PreparedStatementCreator
+import org.springframework.jdbc.core.RowCallbackHandler
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.TransactionStatus
+import org.springframework.transaction.support.TransactionTemplate
+import spock.lang.Specification
+
+import java.sql.Connection
+import java.sql.Date
+import java.sql.PreparedStatement
+import java.sql.ResultSet
+import java.time.LocalDate
+
+class TaskDigestServiceSpec extends Specification {
+    private static final LocalDate TODAY = LocalDate.of(2030, 1, 10)
+
+    private JdbcTemplate jdbcTemplate = Mock()
+    private PreparedStatement statement = Mock()
+    private Connection connection = Stub() {
+        prepareStatement(_) >> statement
+    }
+    private PlatformTransactionManager transactionManager = Stub() {
+        getTransaction(_) >> Stub(TransactionStatus)
+    }
+    private TaskDigestService service = new TaskDigestService(jdbcTemplate, new TransactionTemplate(transactionManager),
+            new ShardRouter(1, null), new ObjectMapper().getFactory(), 3, 2, 100, 7)
+    private boolean lockHeldElsewhere = false
+
+    void setup() {
+        jdbcTemplate.queryForObject({ it.contains("pg_try_advisory_xact_lock") }, Boolean, *_) >> { !lockHeldElsewhere }
+    }
+
+    private static ResultSet row(int id, int userId, TaskState state, LocalDate dueDate) {
+        [getInt    : { String column -> column == "id" ? id : userId },
+         getShort  : { String column -> state.code },
+         getString : { String column -> "task " + id },
+         getDate   : { String column -> dueDate != null ? Date.valueOf(dueDate) : null }] as ResultSet
+    }
+
+    void "should group the tasks of every user into one digest and write them in batches"() {
+        given:
+        jdbcTemplate.queryForMap(_, _) >> [last_user_id: 0, completed_at: null]
+        List<ResultSet> rows = [
+                row(1, 1, TaskState.DELAYED, TODAY.minusDays(5)),
+                row(2, 1, TaskState.TODO, TODAY.plusDays(1)),
+                row(3, 2, TaskState.IN_PROGRESS, TODAY),
+                row(4, 5, TaskState.DELAYED, null)
+        ]
+
+        when:
+        TaskDigestRun run = service.generateDigests(TODAY)
+
+        then:
+        1 * jdbcTemplate.query(_ as PreparedStatementCreator, _ as RowCallbackHandler) >> {
+            PreparedStatementCreator creator, RowCallbackHandler handler ->
+                creator.createPreparedStatement(connection)
+                rows.each { handler.processRow(it) }
+        }
+        1 * statement.setInt(1, 0)
+        1 * statement.setDate(6, Date.valueOf(TODAY.plusDays(3)))
+
+        and:
+        1 * jdbcTemplate.batchUpdate(_, { List<Object[]> digests ->
+            digests.collect { it[1..3] } == [[1, 1, 1], [2, 1, 0]]
+                    && digests[0][4] == '[{"id":1,"description":"task 1","dueDate":"2030-01-05","state":"DELAYED"},'
+                    + '{"id":2,"description":"task 2","dueDate":"2030-01-11","state":"TODO"}]'
+        })
+        1 * jdbcTemplate.update({ it.contains("last_user_id = ?") }, 2, 2, 3, Date.valueOf(TODAY))
+        1 * jdbcTemplate.batchUpdate(_, { List<Object[]> digests ->
+            digests.size() == 1 && digests[0][4] == '[{"id":4,"description":"task 4","dueDate":null,"state":"DELAYED"}]'
+        })
+        1 * jdbcTemplate.update({ it.contains("last_user_id = ?") }, 5, 1, 1, Date.valueOf(TODAY))
+        1 * jdbcTemplate.update({ it.contains("completed_at = now()") }, Date.valueOf(TODAY))
+
+        and:
+        run == new TaskDigestRun(TODAY, 3, 4, false)
+    }
+
+    void "should continue an interrupted run after the last written user"() {
+        given:
+        jdbcTemplate.queryForMap(_, _) >> [last_user_id: 2, completed_at: null]
+
+        when:
+        TaskDigestRun run = service.generateDigests(TODAY)
+
+        then:
+        1 * jdbcTemplate.query(_ as PreparedStatementCreator, _ as RowCallbackHandler) >> {
+            PreparedStatementCreator creator, RowCallbackHandler handler ->
+                creator.createPreparedStatement(connection)
+                handler.processRow(row(4, 5, TaskState.DELAYED, null))
+        }
+        1 * statement.setInt(1, 2)
+        1 * jdbcTemplate.update({ it.contains("last_user_id = ?") }, 5, 1, 1, Date.valueOf(TODAY))
+
+        and:
+        run.resumed()
+        run.users() == 1
+    }
+
+    void "should skip a date whose run completed"() {
+        given:
+        jdbcTemplate.queryForMap(_, _) >> [last_user_id: 7, completed_at: new Date(0)]
+
+        when:
+        TaskDigestRun run = service.generateDigests(TODAY)
+
+        then:
+        0 * jdbcTemplate.query(*_)
+        0 * jdbcTemplate.batchUpdate(*_)
+        run.users() == 0
+    }
+
+    void "should skip a date whose run holds the lock on another instance"() {
+        given:
+        lockHeldElsewhere = true
+
+        when:
+        TaskDigestRun run = service.generateDigests(TODAY)
+
+        then:
+        0 * jdbcTemplate.queryForMap(*_)
+        0 * jdbcTemplate.query(*_)
+        0 * jdbcTemplate.batchUpdate(*_)
+        0 * jdbcTemplate.update({ it.contains("last_user_id = ?") }, *_)
+        0 * jdbcTemplate.update({ it.contains("completed_at = now()") }, *_)
+        run.users() == 0
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.taskmanager
+
+import com.example.taskmanager.dto.CreateTaskRequest
+import com.example.taskmanager.dto.TaskImportResponse
+import com.example.taskmanager.dto.TaskImportResponse.RejectedRow
+import com.example.taskmanager.service.TaskImportService
+import com.example.taskmanager.service.TaskService
+import jakarta.validation.ConstraintViolation
+import jakarta.validation.Validator
+import org.postgresql.PGConnection
+import org.postgresql.copy.CopyIn
+import org.postgresql.copy.CopyManager
+import org.springframework.jdbc.core.ConnectionCallback
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.TransactionStatus
+import org.springframework.transaction.support.TransactionTemplate
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+import java.sql.Connection
+import java.sql.ResultSet
+import java.sql.Statement
+
+class TaskImportServiceSpec extends Specification {
+    private JdbcTemplate jdbcTemplate = Mock()
+    private TaskService taskService = Mock()
+    private PlatformTransactionManager transactionManager = Stub() {
+        getTransaction(_) >> Stub(TransactionStatus)
+    }
+    private Validator validator = Stub()
+    private CopyIn copyIn = Stub()
+    private Statement statement = Stub()
+    private Connection connection = Stub()
+    private ByteArrayOutputStream staged = new ByteArrayOutputStream()
+    private List<Long> unknownUserLines = []
+
+    void setup() {
+        CopyManager copyManager = Stub() {
+            copyIn(_) >> copyIn
+        }
+        connection.unwrap(PGConnection) >> Stub(PGConnection) {
+            getCopyAPI() >> copyManager
+        }
+        connection.createStatement() >> statement
+        copyIn.writeToCopy(_, _, _) >> { byte[] bytes, int offset, int length -> staged.write(bytes, offset, length) }
+        statement.executeQuery(_) >> { unknownUsers() }
+        statement.executeUpdate(_) >> { stagedRows().size() - unknownUserLines.size() }
+        jdbcTemplate.execute(_ as ConnectionCallback) >> { ConnectionCallback callback -> callback.doInConnection(connection) }
+        validator.validate(_) >> { CreateTaskRequest request ->
+            request.description()?.trim() ? [] as Set : [violation("Description must not be blank")] as Set
+        }
+    }
+
+    private TaskImportResponse importCsv(String csv, int maxReportedRejections = 10) {
+        new TaskImportService(jdbcTemplate, new TransactionTemplate(transactionManager), validator, taskService,
+                maxReportedRejections).importTasks(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)))
+    }
+
+    private List<String> stagedRows() {
+        new String(staged.toByteArray(), StandardCharsets.UTF_8).readLines()
+    }
+
+    private ResultSet unknownUsers() {
+        Iterator<Long> lines = unknownUserLines.iterator()
+        Long current = null
+        [next   : { -> (current = lines.hasNext() ? lines.next() : null) != null },
+         getLong: { int column -> current },
+         close  : { -> }] as ResultSet
+    }
+
+    private static ConstraintViolation violation(String message) {
+        [getMessage: { -> message }] as ConstraintViolation
+    }
+
+    void "should skip the header and stage valid rows with their line numbers"() {
+        when:
+        TaskImportResponse response = importCsv('''description,due_date,user_id,state
+Write report,2099-01-01,1,TODO
+"Quoted, ""description""",,,IN_PROGRESS
+''')
+
+        then:
+        stagedRows() == ['2,"Write report",2099-01-01,1,1', '3,"Quoted, ""description""",,,2']
+        response == new TaskImportResponse(2, 0, [])
+        1 * taskService.publishBulkChange()
+    }
+
+    void "should import a first row starting with description when it is not the header"() {
+        when:
+        TaskImportResponse response = importCsv("description,2099-01-01,,TODO\n")
+
+        then:
+        stagedRows() == ['1,"description",2099-01-01,,1']
+        response.imported() == 1
+    }
+
+    void "should report rejected rows with their line numbers"() {
+        given:
+        unknownUserLines << 7L
+
+        when:
+        TaskImportResponse response = importCsv('''Valid,2099-01-01,,TODO
+Bad date,01.01.2099,,TODO
+Bad user,2099-01-01,one,TODO
+Bad state,2099-01-01,,DONE
+,2099-01-01,,TODO
+Too few columns,2099-01-01
+Unknown user,2099-01-01,99,TODO
+''')
+
+        then:
+        response.imported() == 1
+        response.rejected() == 6
+        response.rejectedRows() == [
+                new RejectedRow(2, "Due date must be in format yyyy-MM-dd"),
+                new RejectedRow(3, "User id must be a number"),
+                new RejectedRow(4, "Must be TODO, IN_PROGRESS, COMPLETED or DELAYED"),
+                new RejectedRow(5, "Description must not be blank"),
+                new RejectedRow(6, "Expected 4 columns: description, due_date, user_id, state"),
+                new RejectedRow(7, "User not present in table app_user")
+        ]
+    }
+
+    void "should count all rejected rows but report only the configured number"() {
+        when:
+        TaskImportResponse response = importCsv("a,x,,TODO\nb,x,,TODO\nc,x,,TODO\n", 2)
+
+        then:
+        response.rejected() == 3
+        response.rejectedRows()*.line() == [1L, 2L]
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.taskmanager
+
+import com.example.taskmanager.data.Task
+import com.example.taskmanager.data.TaskState
+import com.example.taskmanager.service.ChangeType
+import com.example.taskmanager.service.TaskChange
+import com.example.taskmanager.web.TaskListResponseCache
+import jakarta.servlet.FilterChain
+import org.springframework.mock.web.MockHttpServletRequest
+import org.springframework.mock.web.MockHttpServletResponse
+import spock.lang.Specification
+
+import java.time.LocalDate
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class TaskListResponseCacheSpec extends Specification {
+    private FilterChain chain = Mock()
+    private TaskListResponseCache cache = new TaskListResponseCache(TimeUnit.MINUTES.toNanos(1), TimeUnit.MILLISECONDS.toNanos(200))
+
+    private MockHttpServletResponse get(String uri) {
+        MockHttpServletResponse response = new MockHttpServletResponse()
+        cache.doFilter(new MockHttpServletRequest("GET", uri), response, chain)
+        return response
+    }
+
+    void "should serve repeated list requests from the cache"() {
+        when:
+        MockHttpServletResponse first = get("/api/task/state/TODO")
+        MockHttpServletResponse second = get("/api/task/state/TODO")
+
+        then:
+        1 * chain.doFilter(_, _) >> { req, res -> res.contentType = "application/json"; res.writer.write("[]") }
+
+        and:
+        first.contentAsString == "[]"
+        second.contentAsString == "[]"
+    }
+
+    void "should evict the state touched by a task change"() {
+        given:
+        get("/api/task/state/TODO")
+        get("/api/task/state/COMPLETED")
+
+        when:
+        cache.onTaskChange(new TaskChange(ChangeType.UPDATED, 1, TaskState.TODO, TaskState.IN_PROGRESS,
+                LocalDate.now(), LocalDate.now(), null, null))
+        get("/api/task/state/TODO")
+        get("/api/task/state/COMPLETED")
+
+        then:
+        1 * chain.doFilter(_, _)
+    }
+
+    void "should evict only the state and due date of a deleted task"() {
+        given:
+        LocalDate dueDate = LocalDate.of(2030, 1, 1)
+        get("/api/task/state/TODO")
+        get("/api/task/state/COMPLETED")
+        get("/api/task/date/2030-01-01")
+        get("/api/task/date/2030-01-02")
+
+        when:
+        cache.onTaskChange(TaskChange.deleted(new Task(id: 1, state: TaskState.TODO, dueDate: dueDate)))
+        get("/api/task/state/TODO")
+        get("/api/task/state/COMPLETED")
+        get("/api/task/date/2030-01-01")
+        get("/api/task/date/2030-01-02")
+
+        then:
+        2 * chain.doFilter(_, _)
+    }
+
+    void "should evict everything for a deleted task without its old values"() {
+        given:
+        get("/api/task/state/TODO")
+        get("/api/task/date/2030-01-01")
+
+        when:
+        cache.onTaskChange(TaskChange.deleted(1))
+        get("/api/task/state/TODO")
+        get("/api/task/date/2030-01-01")
+
+        then:
+        2 * chain.doFilter(_, _)
+    }
+
+    void "should not filter other endpoints"() {
+        when:
+        get("/api/task/1")
+        get("/api/task/1")
+
+        then:
+        2 * chain.doFilter(_, _)
+    }
+
+    void "should evict a date requested in another spelling"() {
+        given:
+        get("/api/task/date/2030-01-05")
+        get("/api/task/date/2030%2D01%2D05")
+
+        when:
+        cache.onTaskChange(new TaskChange(ChangeType.UPDATED, 1, TaskState.TODO, TaskState.TODO,
+                LocalDate.of(2030, 1, 5), LocalDate.of(2030, 1, 5), null, null))
+        get("/api/task/date/2030%2D01%2D05")
+
+        then:
+        1 * chain.doFilter(_, _)
+    }
+
+    void "should not cache invalid states and dates"() {
+        when:
+        get(uri)
+        get(uri)
+
+        then:
+        2 * chain.doFilter(_, _)
+
+        where:
+        uri << ["/api/task/state/DONE", "/api/task/date/2030-1-5", "/api/task/date/%ZZ"]
+    }
+
+    void "should run its own query when the first request takes longer than the coalescing timeout"() {
+        given:
+        CountDownLatch leaderStarted = new CountDownLatch(1)
+        CountDownLatch releaseLeader = new CountDownLatch(1)
+        chain.doFilter(_, _) >> { req, res ->
+            if (leaderStarted.count > 0) {
+                leaderStarted.countDown()
+                releaseLeader.await(5, TimeUnit.SECONDS)
+            }
+            res.writer.write("[]")
+        }
+        Thread leader = Thread.start { get("/api/task/state/TODO") }
+        leaderStarted.await(5, TimeUnit.SECONDS)
+
+        when:
+        MockHttpServletResponse follower = get("/api/task/state/TODO")
+
+        then:
+        follower.contentAsString == "[]"
+
+        cleanup:
+        releaseLeader.countDown()
+        leader.join()
+    }
+}
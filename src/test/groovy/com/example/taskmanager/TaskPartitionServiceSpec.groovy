@@ -0,0 +1,58 @@
+package com.example.taskmanager
+
+import com.example.taskmanager.data.ShardRouter
+import com.example.taskmanager.service.TaskPartitionService
+import com.example.taskmanager.service.TaskService
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.TransactionStatus
+import org.springframework.transaction.support.TransactionTemplate
+import spock.lang.Specification
+
+class TaskPartitionServiceSpec extends Specification {
+    private JdbcTemplate jdbcTemplate = Mock()
+    private TaskService taskService = Mock()
+    private PlatformTransactionManager transactionManager = Mock()
+
+    private TaskPartitionService service(int shardCount) {
+        new TaskPartitionService(jdbcTemplate, new TransactionTemplate(transactionManager), taskService,
+                new ShardRouter(shardCount, null), 3, 12)
+    }
+
+    void "should create partitions and archive completed tasks of every shard under the lock"() {
+        when:
+        service(2).maintainPartitions()
+
+        then:
+        2 * transactionManager.getTransaction(_) >> Stub(TransactionStatus)
+        2 * jdbcTemplate.queryForObject({ it.contains("pg_try_advisory_xact_lock") }, Boolean) >> true
+        2 * jdbcTemplate.queryForObject("SELECT ensure_task_partitions(?)", Integer, 3) >> 1
+        2 * jdbcTemplate.queryForObject("SELECT archive_completed_tasks(?)", Integer, 12) >>> [0, 4]
+        2 * transactionManager.commit(_)
+
+        and:
+        1 * taskService.publishBulkChange()
+    }
+
+    void "should skip a shard maintained by an overlapping run"() {
+        when:
+        service(1).maintainPartitions()
+
+        then:
+        1 * transactionManager.getTransaction(_) >> Stub(TransactionStatus)
+        1 * jdbcTemplate.queryForObject({ it.contains("pg_try_advisory_xact_lock") }, Boolean) >> false
+        0 * jdbcTemplate.queryForObject({ it.contains("ensure_task_partitions") }, *_)
+        0 * jdbcTemplate.queryForObject({ it.contains("archive_completed_tasks") }, *_)
+        0 * taskService.publishBulkChange()
+    }
+
+    void "should not publish a bulk change when nothing was archived"() {
+        when:
+        int archived = service(1).archiveCompletedTasks()
+
+        then:
+        1 * jdbcTemplate.queryForObject("SELECT archive_completed_tasks(?)", Integer, 12) >> 0
+        0 * taskService.publishBulkChange()
+        archived == 0
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.taskmanager
+
+import com.example.taskmanager.data.Task
+import com.example.taskmanager.data.TaskRepositoryCustomImpl
+import jakarta.persistence.EntityManagerFactory
+import org.hibernate.Cache
+import org.hibernate.SessionFactory
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate
+import org.springframework.transaction.support.TransactionSynchronization
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import spock.lang.Specification
+
+class TaskRepositoryCustomImplSpec extends Specification {
+    private NamedParameterJdbcTemplate jdbcTemplate = Stub() {
+        query(_ as String, _, _) >> [new Task(id: 1)]
+    }
+    private Cache cache = Mock()
+    private EntityManagerFactory entityManagerFactory = Stub() {
+        unwrap(SessionFactory) >> Stub(SessionFactory) {
+            getCache() >> cache
+        }
+    }
+    private TaskRepositoryCustomImpl repository = new TaskRepositoryCustomImpl(jdbcTemplate, entityManagerFactory)
+
+    void cleanup() {
+        if (TransactionSynchronizationManager.synchronizationActive) {
+            TransactionSynchronizationManager.clearSynchronization()
+        }
+    }
+
+    void "should evict a deleted task right away outside of a transaction"() {
+        when:
+        repository.deleteReturning(1)
+
+        then:
+        1 * cache.evictEntityData(Task, 1)
+        1 * cache.evictQueryRegions()
+    }
+
+    void "should evict a deleted task again once the enclosing transaction completes"() {
+        given:
+        TransactionSynchronizationManager.initSynchronization()
+
+        when:
+        repository.deleteReturning(1)
+
+        then:
+        1 * cache.evictEntityData(Task, 1)
+        1 * cache.evictQueryRegions()
+
+        when:
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.synchronizations
+        TransactionSynchronizationManager.clearSynchronization()
+        synchronizations*.afterCompletion(TransactionSynchronization.STATUS_COMMITTED)
+
+        then:
+        1 * cache.evictEntityData(Task, 1)
+        1 * cache.evictQueryRegions()
+    }
+}
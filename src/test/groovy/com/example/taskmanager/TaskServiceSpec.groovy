@@ -1,11 +1,21 @@
 package com.example.taskmanager
 
+import com.example.taskmanager.data.AppUser
 import com.example.taskmanager.data.Task
 import com.example.taskmanager.data.TaskRepository
 import com.example.taskmanager.data.TaskState
+import com.example.taskmanager.data.UpdatedTask
 import com.example.taskmanager.dto.CreateTaskRequest
 import com.example.taskmanager.dto.UpdateTaskRequest
+import com.example.taskmanager.service.ChangeType
+import com.example.taskmanager.service.OverdueTaskRun
+import com.example.taskmanager.service.TaskChange
+import com.example.taskmanager.service.TaskChangeListener
 import com.example.taskmanager.service.TaskService
+import org.springframework.data.domain.Pageable
+import org.springframework.data.domain.SliceImpl
+import org.springframework.transaction.support.TransactionSynchronization
+import org.springframework.transaction.support.TransactionSynchronizationManager
 import spock.lang.Specification
 
 import java.time.LocalDate
@@ -117,9 +127,8 @@ class TaskServiceSpec extends Specification {
     void "should update an existing task"() {
         given:
         Integer taskId = 1
-        Task existingTask = new Task(description: "oldDescription", state: TaskState.TODO)
-        existingTask.setId(taskId)
         String newDescription = "newDescription"
+        Task updatedTask = new Task(id: taskId, description: newDescription, state: TaskState.TODO)
         UpdateTaskRequest request = new UpdateTaskRequest(newDescription, null, null, TaskState.TODO)
 
         and:
@@ -130,12 +139,33 @@ class TaskServiceSpec extends Specification {
 
         then:
         result.isPresent()
+        result.get().description == newDescription
 
         and:
-        1 * this.repository.findById(taskId) >> Optional.of(existingTask)
+        1 * this.repository.updateNonNullFields(taskId, newDescription, null, null, TaskState.TODO) >>
+                Optional.of(new UpdatedTask(updatedTask, TaskState.TODO, null, null))
 
         and:
-        1 * this.repository.save(_) >> new Task().setDescription(newDescription)
+        0 * this.repository.findById(_)
+        0 * this.repository.save(_)
+    }
+
+    void "should return empty when the task to update does not exist"() {
+        given:
+        Integer taskId = 1
+        UpdateTaskRequest request = new UpdateTaskRequest(null, null, null, TaskState.COMPLETED)
+
+        and:
+        TaskService service = new TaskService(this.repository)
+
+        when:
+        Optional<Task> result = service.updateTask(taskId, request)
+
+        then:
+        result.isEmpty()
+
+        and:
+        1 * this.repository.updateNonNullFields(taskId, null, null, null, TaskState.COMPLETED) >> Optional.empty()
     }
 
     void "should delete an existing task"() {
@@ -150,6 +180,141 @@ class TaskServiceSpec extends Specification {
         service.deleteTask(taskId)
 
         then:
-        1 * this.repository.deleteById(taskId)
+        1 * this.repository.deleteReturning(taskId) >> Optional.empty()
+    }
+
+    void "should notify listeners about a deleted task with its previous values"() {
+        given:
+        Integer taskId = 1
+        AppUser user = new AppUser(id: 3, username: "user")
+        Task deletedTask = new Task(id: taskId, description: "task", dueDate: LocalDate.of(2024, 5, 1),
+                assignedUser: user, state: TaskState.IN_PROGRESS)
+        TaskChangeListener listener = Mock()
+
+        and:
+        TaskService service = new TaskService(this.repository)
+        service.addChangeListener(listener)
+
+        when:
+        service.deleteTask(taskId)
+
+        then:
+        1 * this.repository.deleteReturning(taskId) >> Optional.of(deletedTask)
+        1 * listener.onTaskChange(new TaskChange(ChangeType.DELETED, taskId, TaskState.IN_PROGRESS, null,
+                LocalDate.of(2024, 5, 1), null, 3, null))
+    }
+
+    void "should not notify listeners when the deleted task does not exist"() {
+        given:
+        TaskChangeListener listener = Mock()
+        TaskService service = new TaskService(this.repository)
+        service.addChangeListener(listener)
+
+        when:
+        service.deleteTask(1)
+
+        then:
+        1 * this.repository.deleteReturning(1) >> Optional.empty()
+        0 * listener.onTaskChange(_)
+    }
+
+    void "should notify listeners about an updated task"() {
+        given:
+        Integer taskId = 1
+        Task updatedTask = new Task(id: taskId, description: "task", state: TaskState.COMPLETED)
+        UpdateTaskRequest request = new UpdateTaskRequest(null, null, null, TaskState.COMPLETED)
+        TaskChangeListener listener = Mock()
+
+        and:
+        TaskService service = new TaskService(this.repository)
+        service.addChangeListener(listener)
+
+        when:
+        service.updateTask(taskId, request)
+
+        then:
+        1 * this.repository.updateNonNullFields(taskId, null, null, null, TaskState.COMPLETED) >>
+                Optional.of(new UpdatedTask(updatedTask, TaskState.TODO, null, null))
+        1 * listener.onTaskChange({ TaskChange change ->
+            change.type() == ChangeType.UPDATED && change.oldState() == TaskState.TODO && change.newState() == TaskState.COMPLETED
+        })
+    }
+
+    void "should notify listeners only after the transaction commits"() {
+        given:
+        TaskChangeListener listener = Mock()
+        TaskService service = new TaskService(this.repository)
+        service.addChangeListener(listener)
+        this.repository.deleteReturning(1) >> Optional.of(new Task(id: 1, state: TaskState.TODO))
+
+        and:
+        TransactionSynchronizationManager.initSynchronization()
+
+        when:
+        service.deleteTask(1)
+
+        then:
+        0 * listener.onTaskChange(_)
+
+        when:
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.synchronizations
+        TransactionSynchronizationManager.clearSynchronization()
+        if (committed) {
+            synchronizations*.afterCommit()
+        }
+        synchronizations*.afterCompletion(committed ? TransactionSynchronization.STATUS_COMMITTED
+                : TransactionSynchronization.STATUS_ROLLED_BACK)
+
+        then:
+        (committed ? 1 : 0) * listener.onTaskChange({ TaskChange change -> change.type() == ChangeType.DELETED })
+
+        cleanup:
+        if (TransactionSynchronizationManager.synchronizationActive) {
+            TransactionSynchronizationManager.clearSynchronization()
+        }
+
+        where:
+        committed << [true, false]
+    }
+
+    void "should update overdue tasks in batches"() {
+        given:
+        TaskService service = new TaskService(this.repository)
+        List<Task> tasks = (1..3).collect { new Task(id: it, state: TaskState.TODO, dueDate: LocalDate.now()) }
+
+        when:
+        OverdueTaskRun run = service.updateTaskStateForOverdueTasks(2)
+
+        then:
+        1 * this.repository.findByDueDateAndState(LocalDate.now(), TaskState.TODO, _) >> new SliceImpl<>(tasks[0..1], Pageable.unpaged(), true)
+        1 * this.repository.findByDueDateAndState(LocalDate.now(), TaskState.TODO, _) >> new SliceImpl<>([tasks[2]], Pageable.unpaged(), false)
+        1 * this.repository.updateState([1, 2], TaskState.DELAYED)
+        1 * this.repository.updateState([3], TaskState.DELAYED)
+        0 * this.repository.save(_)
+
+        and:
+        run == new OverdueTaskRun(3, 3)
+        tasks.every { it.state == TaskState.DELAYED }
+    }
+
+    void "should count tasks per day and state within a range"() {
+        given:
+        TaskService service = new TaskService(this.repository)
+        LocalDate from = LocalDate.of(2024, 5, 1)
+        LocalDate to = LocalDate.of(2024, 5, 31)
+
+        when:
+        Map<LocalDate, Map<TaskState, Long>> counts = service.countTasksByDueDateRange(from, to, null)
+
+        then:
+        1 * this.repository.countByDueDateAndState(from, to, null) >> [
+                [LocalDate.of(2024, 5, 3), TaskState.TODO, 2L] as Object[],
+                [LocalDate.of(2024, 5, 1), TaskState.COMPLETED, 1L] as Object[],
+                [LocalDate.of(2024, 5, 3), TaskState.DELAYED, 4L] as Object[]
+        ]
+
+        and:
+        counts.keySet() as List == [LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 3)]
+        counts[LocalDate.of(2024, 5, 3)] == [(TaskState.TODO): 2L, (TaskState.DELAYED): 4L]
     }
 }
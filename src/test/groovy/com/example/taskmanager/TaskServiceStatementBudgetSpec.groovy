@@ -0,0 +1,100 @@
+package com.example.taskmanager
+
+import com.example.taskmanager.config.SqlTraceConfig
+import com.example.taskmanager.data.AppUser
+import com.example.taskmanager.data.Task
+import com.example.taskmanager.data.TaskRepository
+import com.example.taskmanager.data.TaskState
+import com.example.taskmanager.data.UserRepository
+import com.example.taskmanager.service.OverdueTaskRun
+import com.example.taskmanager.service.TaskService
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
+import org.springframework.context.annotation.Import
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.test.context.DynamicPropertyRegistry
+import org.springframework.test.context.DynamicPropertySource
+import org.springframework.transaction.annotation.Propagation
+import org.springframework.transaction.annotation.Transactional
+import org.testcontainers.DockerClientFactory
+import org.testcontainers.containers.PostgreSQLContainer
+import spock.lang.Requires
+import spock.lang.Specification
+
+import java.time.LocalDate
+
+/**
+ * Statement budgets of task queries against a PostgreSQL container migrated by Flyway.
+ * The specs run without a surrounding transaction, like the service does in the application.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(SqlTraceConfig)
+@Requires({ DockerClientFactory.instance().isDockerAvailable() })
+class TaskServiceStatementBudgetSpec extends Specification {
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+
+    @Autowired
+    private TaskRepository taskRepository
+    @Autowired
+    private UserRepository userRepository
+    @Autowired
+    private JdbcTemplate jdbcTemplate
+
+    private TaskService taskService
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        POSTGRES.start()
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl)
+        registry.add("spring.datasource.username", POSTGRES::getUsername)
+        registry.add("spring.datasource.password", POSTGRES::getPassword)
+    }
+
+    void setup() {
+        taskService = new TaskService(taskRepository)
+    }
+
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM task")
+        jdbcTemplate.update("DELETE FROM app_user")
+    }
+
+    private AppUser user(String username) {
+        userRepository.save(new AppUser(username: username))
+    }
+
+    private Task task(AppUser user, LocalDate dueDate, TaskState state) {
+        taskRepository.save(new Task(description: "task", dueDate: dueDate, assignedUser: user, state: state))
+    }
+
+    void "should load the tasks of a user with their user in one statement"() {
+        given:
+        AppUser user = user("alice")
+        10.times { task(user, LocalDate.now().plusDays(it), TaskState.TODO) }
+
+        when:
+        List<Task> tasks = SqlStatementBudget.atMost(1) { taskService.getTasksForUser(user.id) }
+
+        then:
+        tasks.size() == 10
+        tasks.every { it.assignedUser.username == "alice" }
+    }
+
+    void "should update overdue tasks with two statements per batch regardless of their users"() {
+        given:
+        List<AppUser> users = (1..5).collect { user("user$it") }
+        users.each { AppUser user -> 2.times { task(user, LocalDate.now(), TaskState.TODO) } }
+        task(users[0], LocalDate.now(), TaskState.COMPLETED)
+
+        when: "ten overdue tasks in batches of four"
+        OverdueTaskRun run = SqlStatementBudget.atMost(6) { taskService.updateTaskStateForOverdueTasks(4) }
+
+        then:
+        run == new OverdueTaskRun(10, 10)
+        taskRepository.countByDueDateAndState(LocalDate.now(), TaskState.DELAYED) == 10
+        taskRepository.countByDueDateAndState(LocalDate.now(), TaskState.COMPLETED) == 1
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.taskmanager
+
+import com.example.taskmanager.data.TaskState
+import com.example.taskmanager.data.TaskStateConverter
+import spock.lang.Specification
+
+class TaskStateConverterSpec extends Specification {
+
+    TaskStateConverter converter = new TaskStateConverter()
+
+    void "should store every state as its code and read it back"() {
+        expect:
+        converter.convertToDatabaseColumn(state) == code as Short
+        converter.convertToEntityAttribute(code as Short) == state
+
+        where:
+        state                 | code
+        TaskState.TODO        | 1
+        TaskState.IN_PROGRESS | 2
+        TaskState.COMPLETED   | 3
+        TaskState.DELAYED     | 4
+    }
+
+    void "should keep null states"() {
+        expect:
+        converter.convertToDatabaseColumn(null) == null
+        converter.convertToEntityAttribute(null) == null
+    }
+
+    void "should reject unknown codes"() {
+        when:
+        converter.convertToEntityAttribute(code as Short)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        code << [0, 5, -1]
+    }
+}
@@ -79,9 +79,8 @@ class UserServiceSpec extends Specification {
     void "should update an existing user"() {
         given:
         Integer userId = 1
-        AppUser existingUser = new AppUser(username: "oldUser")
-        existingUser.setId(userId)
         String updatedUsername = "updatedUser"
+        AppUser updatedUser = new AppUser(id: userId, username: updatedUsername)
         UpdateUserRequest request = new UpdateUserRequest(updatedUsername)
 
         and:
@@ -94,10 +93,29 @@ class UserServiceSpec extends Specification {
         result.isPresent()
 
         and:
-        1 * this.repository.findById(userId) >> Optional.of(existingUser)
+        1 * this.repository.updateUsername(userId, updatedUsername) >> Optional.of(updatedUser)
 
         and:
-        1 * this.repository.save(_) >> new AppUser().setUsername(updatedUsername)
+        0 * this.repository.findById(_)
+        0 * this.repository.save(_)
+    }
+
+    void "should return empty when the user to update does not exist"() {
+        given:
+        Integer userId = 1
+        UpdateUserRequest request = new UpdateUserRequest("updatedUser")
+
+        and:
+        UserService service = new UserService(this.repository)
+
+        when:
+        Optional<AppUser> result = service.updateUser(userId, request)
+
+        then:
+        result.isEmpty()
+
+        and:
+        1 * this.repository.updateUsername(userId, "updatedUser") >> Optional.empty()
     }
 
     void "should delete an existing user"() {